@@ -0,0 +1,50 @@
+#!/usr/bin/env bash
+# Runs load-test.js against the platform Tomcat pool and against virtual threads, then compares them.
+# Needs k6, jq and a built jar: ./gradlew bootJar
+#
+#   perfomance_test/compare-threads.sh            # in-memory storage
+#   PROFILE=redis perfomance_test/compare-threads.sh
+set -u
+
+cd "$(dirname "$0")/.."
+PROFILE=${PROFILE:-inmemory}
+PORT=${PORT:-8088}
+JAR=$(ls build/libs/*.jar | grep -v plain | head -1)
+OUT=build/k6
+mkdir -p "$OUT"
+
+run() {
+  local label=$1 profiles=$2
+  echo "== $label ($profiles)"
+  java -jar "$JAR" --spring.profiles.active="$profiles" --server.port="$PORT" \
+    --logging.level.root=WARN > "$OUT/$label.log" 2>&1 &
+  local app=$!
+  until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do
+    if ! kill -0 $app 2> /dev/null; then
+      echo "application did not start, see $OUT/$label.log"
+      exit 1
+    fi
+    sleep 1
+  done
+
+  k6 run --quiet -e BASE_URL="http://localhost:$PORT" \
+    --summary-trend-stats "avg,p(95),p(99),max" \
+    --summary-export "$OUT/$label.json" perfomance_test/load-test.js
+
+  kill $app
+  wait $app 2> /dev/null
+}
+
+run platform "$PROFILE"
+run virtual "$PROFILE,virtual"
+
+printf '\n%-10s %10s %10s %10s %10s %8s\n' mode req/s p95_ms p99_ms max_ms max_vus
+for label in platform virtual; do
+  jq -r --arg label "$label" '[$label,
+      (.metrics.http_reqs.rate | floor),
+      (.metrics.http_req_duration["p(95)"] * 100 | round / 100),
+      (.metrics.http_req_duration["p(99)"] * 100 | round / 100),
+      (.metrics.http_req_duration.max * 100 | round / 100),
+      .metrics.vus_max.max] | @tsv' "$OUT/$label.json" |
+    awk -F'\t' '{ printf "%-10s %10s %10s %10s %10s %8s\n", $1, $2, $3, $4, $5, $6 }'
+done
@@ -3,6 +3,9 @@ import { check, sleep } from 'k6';
 
 let messageCounters = {};
 
+// target instance, e.g. k6 run -e BASE_URL=http://localhost:8089 load-test.js
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8088';
+
 export let options = {
 	scenarios: {
 		light: {
@@ -35,7 +38,7 @@ export let options = {
 };
 
 export default function () {
-	let url = 'http://localhost:8088/messages';
+	let url = `${BASE_URL}/messages`;
 	let channel = `rocket-${__VU}`;
 
 	if (!messageCounters[channel]) {
@@ -0,0 +1,40 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.RocketEvent;
+import com.lunar.challenge.rockets.service.EventMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * EventMapper.from on an already parsed payload tree
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class EventMapperBenchmark {
+
+    @Param({"RocketLaunched", "RocketSpeedIncreased", "RocketMissionChanged"})
+    public MessageType messageType;
+
+    private JsonNode payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        String json = switch (messageType) {
+            case RocketLaunched -> "{\"type\":\"Falcon-9\",\"launchSpeed\":500,\"mission\":\"ARTEMIS\"}";
+            case RocketMissionChanged -> "{\"newMission\":\"SHUTTLE_MIR\"}";
+            default -> "{\"by\":3000}";
+        };
+        payload = new ObjectMapper().readTree(json);
+    }
+
+    @Benchmark
+    public RocketEvent from() {
+        return EventMapper.from(messageType, payload);
+    }
+}
@@ -0,0 +1,58 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.journal.MessageJournal;
+import com.lunar.challenge.rockets.dto.RocketStatusView;
+import com.lunar.challenge.rockets.repository.InMemoryRocketRepository;
+import com.lunar.challenge.rockets.service.RocketService;
+import com.lunar.challenge.rockets.service.RocketUpdatePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GET /rockets service path over an in-memory fleet of the given size
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class FleetQueryBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    public int rockets;
+
+    private RocketService service;
+
+    @Setup
+    public void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryRocketRepository repository =
+                new InMemoryRocketRepository(new RocketTrackerFactory(HistoryRetention.DEFAULT), meterRegistry);
+        OffsetDateTime time = OffsetDateTime.now();
+        for (int i = 0; i < rockets; i++) {
+            int speed = i % 5000;
+            repository.apply(UUID.randomUUID().toString(), tracker -> {
+                tracker.stageAndApply(1, time, MessageType.RocketLaunched,
+                        new RocketLaunched("Falcon-9", "ARTEMIS", speed));
+                tracker.stageAndApply(2, time, MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100));
+            });
+        }
+        service = new RocketService(repository,
+                new RocketUpdatePublisher(meterRegistry, Duration.ofMinutes(30), 10_000), meterRegistry,
+                MessageJournal.NONE);
+    }
+
+    @Benchmark
+    public List<RocketStatusView> getAllRockets() {
+        return service.getAllRockets();
+    }
+}
@@ -0,0 +1,69 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.RocketEvent;
+import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.service.DecodedMessage;
+import com.lunar.challenge.rockets.service.EventMapper;
+import com.lunar.challenge.rockets.service.RocketMessageDecoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decoding of one POST /messages body: DTO + JsonNode tree (old path) against the token stream decoder.
+ * Run with the gc profiler (default in build.gradle) to compare gc.alloc.rate.norm = bytes per message.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MessageDecodingBenchmark {
+
+    @Param({"RocketLaunched", "RocketSpeedIncreased"})
+    public String messageType;
+
+    private ObjectMapper mapper;
+    private byte[] body;
+
+    @Setup
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+        String payload = "RocketLaunched".equals(messageType)
+                ? "{\"type\":\"Falcon-9\",\"launchSpeed\":500,\"mission\":\"ARTEMIS\"}"
+                : "{\"by\":3000}";
+        body = ("{\"metadata\":{\"channel\":\"193270a9-c9cf-404a-8f83-838e71d9ae67\",\"messageNumber\":42," +
+                "\"messageTime\":\"2025-09-19T15:40:00.123+02:00\",\"messageType\":\"" + messageType + "\"}," +
+                "\"message\":" + payload + "}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public RocketEvent treeModel() throws IOException {
+        RocketMessage message = mapper.readValue(body, RocketMessage.class);
+        MessageType type = MessageType.valueOf(message.getMetadata().getMessageType());
+        return EventMapper.from(type, message.getPayload());
+    }
+
+    @Benchmark
+    public DecodedMessage tokenStream() throws IOException {
+        try (JsonParser parser = mapper.getFactory().createParser(body)) {
+            parser.nextToken();
+            return new RocketMessageDecoder().readMessage(parser);
+        }
+    }
+
+    @Benchmark
+    public DecodedMessage tokenStreamViaObjectMapper() throws IOException {
+        return mapper.readValue(body, DecodedMessage.class);
+    }
+}
@@ -0,0 +1,66 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.lunar.challenge.rockets.config.RedisConfig;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import com.lunar.challenge.rockets.repository.BinaryRedisSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis value encoding of a snapshot with historyLength embedded history items, JSON against the binary codec.
+ * historyLength 0 is the status key as saved by the Redis profile, history items go to a separate list there.
+ * Payload sizes of both codecs are asserted in BinaryRedisSerializerTest, gc.alloc.rate.norm shows the garbage per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RedisCodecBenchmark {
+
+    @Param({"JSON", "BINARY"})
+    public RedisConfig.ValueCodec codec;
+
+    @Param({"0", "10", "1000"})
+    public int historyLength;
+
+    private RedisSerializer<RocketSnapshotDTO> serializer;
+    private RocketSnapshotDTO snapshot;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        serializer = codec == RedisConfig.ValueCodec.BINARY
+                ? BinaryRedisSerializer.snapshots(RedisConfig.valueMapper())
+                : new Jackson2JsonRedisSerializer<>(RedisConfig.valueMapper(), RocketSnapshotDTO.class);
+
+        OffsetDateTime time = OffsetDateTime.parse("2025-09-19T15:40:00.123+02:00");
+        RocketTracker tracker = new RocketTracker("193270a9-c9cf-404a-8f83-838e71d9ae67");
+        tracker.stageAndApply(1, time, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", 500));
+        for (int number = 2; number <= Math.max(historyLength, 1); number++) {
+            tracker.stageAndApply(number, time.plusNanos(number * 1_250_000_000L), MessageType.RocketSpeedIncreased,
+                    new RocketSpeedIncreased(number % 300));
+        }
+        snapshot = tracker.toSnapshot();
+        if (historyLength == 0) {
+            snapshot.setHistory(null);
+        }
+        payload = serializer.serialize(snapshot);
+    }
+
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(snapshot);
+    }
+
+    @Benchmark
+    public RocketSnapshotDTO deserialize() {
+        return serializer.deserialize(payload);
+    }
+}
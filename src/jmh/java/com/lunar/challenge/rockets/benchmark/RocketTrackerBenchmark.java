@@ -0,0 +1,70 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * RocketTracker.stageAndApply for one flight of MESSAGES messages.
+ * - reorderRate: share of messages overtaken by up to 8 later ones
+ * - gapRate: share of messages delayed by 100 positions, everything after them waits in the buffer
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class RocketTrackerBenchmark {
+    private static final int MESSAGES = 1_000;
+
+    @Param({"0", "0.1", "0.5"})
+    public double reorderRate;
+
+    @Param({"0", "0.01"})
+    public double gapRate;
+
+    private final OffsetDateTime time = OffsetDateTime.now();
+    private final RocketSpeedIncreased speedIncreased = new RocketSpeedIncreased(10);
+    private int[] arrivalOrder;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        double[] arrival = new double[MESSAGES + 1];
+        for (int number = 1; number <= MESSAGES; number++) {
+            arrival[number] = number;
+            if (random.nextDouble() < reorderRate) {
+                arrival[number] += 1 + random.nextInt(8);
+            }
+            if (random.nextDouble() < gapRate) {
+                arrival[number] += 100;
+            }
+        }
+        arrivalOrder = IntStream.rangeClosed(1, MESSAGES)
+                .boxed()
+                .sorted(Comparator.comparingDouble(number -> arrival[number]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGES)
+    public RocketTracker stageAndApply() {
+        RocketTracker tracker = new RocketTracker("benchmark");
+        for (int number : arrivalOrder) {
+            if (number == 1) {
+                tracker.stageAndApply(1, time, MessageType.RocketLaunched,
+                        new RocketLaunched("Falcon-9", "ARTEMIS", 0));
+            } else {
+                tracker.stageAndApply(number, time, MessageType.RocketSpeedIncreased, speedIncreased);
+            }
+        }
+        return tracker;
+    }
+}
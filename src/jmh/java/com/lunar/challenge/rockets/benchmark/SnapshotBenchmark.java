@@ -0,0 +1,50 @@
+package com.lunar.challenge.rockets.benchmark;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full snapshot round-trip of a tracker with historyLength applied events
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SnapshotBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int historyLength;
+
+    private RocketTracker tracker;
+    private RocketSnapshotDTO snapshot;
+
+    @Setup
+    public void setUp() {
+        OffsetDateTime time = OffsetDateTime.now();
+        tracker = new RocketTracker("benchmark");
+        tracker.stageAndApply(1, time, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", 0));
+        for (int number = 2; number <= historyLength; number++) {
+            tracker.stageAndApply(number, time.plusSeconds(number), MessageType.RocketSpeedIncreased,
+                    new RocketSpeedIncreased(10));
+        }
+        snapshot = tracker.toSnapshot();
+    }
+
+    @Benchmark
+    public RocketSnapshotDTO toSnapshot() {
+        return tracker.toSnapshot();
+    }
+
+    @Benchmark
+    public RocketTracker restoreFromSnapshot() {
+        RocketTracker restored = new RocketTracker("benchmark");
+        restored.restoreFromSnapshot(snapshot);
+        return restored;
+    }
+}
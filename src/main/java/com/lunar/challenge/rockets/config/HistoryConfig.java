@@ -0,0 +1,38 @@
+package com.lunar.challenge.rockets.config;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.ReorderPolicy;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class HistoryConfig {
+
+    @Bean
+    public HistoryRetention historyRetention(
+            @Value("${rockets.history.policy:LAST_N}") HistoryRetention.Policy policy,
+            @Value("${rockets.history.max-events:1000}") int maxEvents,
+            @Value("${rockets.history.window:1h}") Duration window,
+            @Value("${rockets.history.bucket:1s}") Duration bucket) {
+        return new HistoryRetention(policy, maxEvents, window, bucket);
+    }
+
+    @Bean
+    public ReorderPolicy reorderPolicy(
+            @Value("${rockets.reorder.window:1024}") int window,
+            @Value("${rockets.reorder.gap-timeout:30s}") Duration gapTimeout,
+            @Value("${rockets.reorder.overflow:SKIP_GAP}") ReorderPolicy.Overflow overflow) {
+        return new ReorderPolicy(window, gapTimeout, overflow);
+    }
+
+    @Bean
+    public RocketTrackerFactory rocketTrackerFactory(HistoryRetention historyRetention, ReorderPolicy reorderPolicy,
+                                                     TrackerMetrics trackerMetrics) {
+        return new RocketTrackerFactory(historyRetention, reorderPolicy).withMetrics(trackerMetrics);
+    }
+}
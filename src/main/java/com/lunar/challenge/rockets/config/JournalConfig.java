@@ -0,0 +1,19 @@
+package com.lunar.challenge.rockets.config;
+
+import com.lunar.challenge.rockets.journal.MessageJournal;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+@Configuration
+public class JournalConfig {
+
+    /**
+     * Without the journal profile messages are not journaled, FileMessageJournal takes over with it
+     */
+    @Bean
+    @Profile("!journal")
+    public MessageJournal messageJournal() {
+        return MessageJournal.NONE;
+    }
+}
@@ -0,0 +1,20 @@
+package com.lunar.challenge.rockets.config;
+
+import com.lunar.challenge.rockets.domain.TrackerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Same switch that denies all rockets.* meters: with it off trackers don't even read the clock
+     */
+    @Bean
+    public TrackerMetrics trackerMetrics(MeterRegistry meterRegistry,
+                                         @Value("${management.metrics.enable.rockets:true}") boolean enabled) {
+        return enabled ? new MicrometerTrackerMetrics(meterRegistry) : TrackerMetrics.NOOP;
+    }
+}
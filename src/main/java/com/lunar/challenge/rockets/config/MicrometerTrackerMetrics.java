@@ -0,0 +1,111 @@
+package com.lunar.challenge.rockets.config;
+
+import com.lunar.challenge.rockets.domain.SymbolTable;
+import com.lunar.challenge.rockets.domain.TrackerMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracker events as Micrometer meters, all created up front so reporting is a field access and an add.
+ */
+public class MicrometerTrackerMetrics implements TrackerMetrics {
+    private final Counter duplicates;
+    private final Counter outOfOrder;
+    private final Counter droppedAfterExplosion;
+    private final Counter droppedBeyondWindow;
+    private final Counter skippedOnTimeout;
+    private final Counter skippedOnOverflow;
+    private final DistributionSummary bufferDepth;
+    private final AtomicLong buffered = new AtomicLong();
+    private final Timer gapWait;
+    private final Timer lockHeld;
+
+    public MicrometerTrackerMetrics(MeterRegistry registry) {
+        this.duplicates = Counter.builder("rockets.tracker.dropped")
+                .description("Messages ignored by trackers")
+                .tag("reason", "duplicate")
+                .register(registry);
+        this.droppedAfterExplosion = Counter.builder("rockets.tracker.dropped")
+                .description("Messages ignored by trackers")
+                .tag("reason", "exploded")
+                .register(registry);
+        this.droppedBeyondWindow = Counter.builder("rockets.tracker.dropped")
+                .description("Messages ignored by trackers")
+                .tag("reason", "overflow")
+                .register(registry);
+        this.skippedOnTimeout = skipped(registry, "timeout");
+        this.skippedOnOverflow = skipped(registry, "overflow");
+        this.outOfOrder = Counter.builder("rockets.tracker.out.of.order")
+                .description("Messages buffered ahead of a missing previous message")
+                .register(registry);
+        this.bufferDepth = DistributionSummary.builder("rockets.tracker.buffer.depth")
+                .description("Buffered messages of a rocket when one more is buffered")
+                .register(registry);
+        Gauge.builder("rockets.tracker.buffered", buffered, AtomicLong::get)
+                .description("Messages waiting in tracker buffers for a missing previous message")
+                .register(registry);
+        this.gapWait = Timer.builder("rockets.tracker.gap.wait")
+                .description("Time a rocket waited for a missing message until it arrived or was skipped")
+                .register(registry);
+        this.lockHeld = Timer.builder("rockets.tracker.lock.held")
+                .description("Time a tracker lock is held to stage messages")
+                .register(registry);
+        Gauge.builder("rockets.symbols", SymbolTable.SHARED, SymbolTable::size)
+                .description("Distinct rocket types and missions shared by all trackers")
+                .register(registry);
+    }
+
+    private static Counter skipped(MeterRegistry registry, String reason) {
+        return Counter.builder("rockets.tracker.skipped")
+                .description("Missing message numbers trackers stopped waiting for")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    @Override
+    public void duplicate() {
+        duplicates.increment();
+    }
+
+    @Override
+    public void outOfOrder(int bufferDepth) {
+        outOfOrder.increment();
+        this.bufferDepth.record(bufferDepth);
+    }
+
+    @Override
+    public void droppedAfterExplosion() {
+        droppedAfterExplosion.increment();
+    }
+
+    @Override
+    public void droppedBeyondWindow() {
+        droppedBeyondWindow.increment();
+    }
+
+    @Override
+    public void gapsSkipped(int skipped, boolean timedOut) {
+        (timedOut ? skippedOnTimeout : skippedOnOverflow).increment(skipped);
+    }
+
+    @Override
+    public void bufferChanged(int delta) {
+        buffered.addAndGet(delta);
+    }
+
+    @Override
+    public void gapClosed(long waitedMillis) {
+        gapWait.record(waitedMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void lockHeld(long nanos) {
+        lockHeld.record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
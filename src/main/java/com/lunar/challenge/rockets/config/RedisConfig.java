@@ -3,30 +3,65 @@ package com.lunar.challenge.rockets.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
 import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import com.lunar.challenge.rockets.repository.BinaryRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 @Configuration
 public class RedisConfig {
+    private final ValueCodec codec;
+
+    public RedisConfig(@Value("${rockets.redis.codec:BINARY}") ValueCodec codec, Environment environment) {
+        if (codec == ValueCodec.BINARY && environment.acceptsProfiles(Profiles.of("reactive"))) {
+            //its compare-and-set script compares the stored status with the JSON it read
+            throw new IllegalStateException("The reactive profile needs rockets.redis.codec=JSON");
+        }
+        this.codec = codec;
+    }
 
     @Bean
     public RedisTemplate<String, RocketSnapshotDTO> redisTemplate(RedisConnectionFactory connectionFactory) {
-        RedisTemplate<String, RocketSnapshotDTO> template = new RedisTemplate<>();
-        template.setConnectionFactory(connectionFactory);
+        return template(connectionFactory, codec == ValueCodec.BINARY
+                ? BinaryRedisSerializer.snapshots(valueMapper())
+                : new Jackson2JsonRedisSerializer<>(valueMapper(), RocketSnapshotDTO.class));
+    }
 
-        template.setKeySerializer(new StringRedisSerializer());
+    /**
+     * Template for append-only rocket history lists
+     */
+    @Bean
+    public RedisTemplate<String, RocketHistoryItem> historyRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return template(connectionFactory, codec == ValueCodec.BINARY
+                ? BinaryRedisSerializer.historyItems(valueMapper())
+                : new Jackson2JsonRedisSerializer<>(valueMapper(), RocketHistoryItem.class));
+    }
 
-        ObjectMapper mapper = new ObjectMapper()
-                .registerModule(new JavaTimeModule())
-                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    /**
+     * Template for sorted sets of buffered out-of-order messages (score = messageNumber).
+     * Always JSON: members are removed by value, a different encoding would orphan the buffered ones.
+     */
+    @Bean
+    public RedisTemplate<String, RocketPendingItem> pendingRedisTemplate(RedisConnectionFactory connectionFactory) {
+        return template(connectionFactory, new Jackson2JsonRedisSerializer<>(valueMapper(), RocketPendingItem.class));
+    }
 
-        Jackson2JsonRedisSerializer<RocketSnapshotDTO> valueSerializer =
-                new Jackson2JsonRedisSerializer<>(mapper, RocketSnapshotDTO.class);
+    private <T> RedisTemplate<String, T> template(RedisConnectionFactory connectionFactory,
+                                                  RedisSerializer<T> valueSerializer) {
+        RedisTemplate<String, T> template = new RedisTemplate<>();
+        template.setConnectionFactory(connectionFactory);
+
+        template.setKeySerializer(new StringRedisSerializer());
 
         template.setValueSerializer(valueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
@@ -35,4 +70,22 @@ public class RedisConfig {
         template.afterPropertiesSet();
         return template;
     }
-}
\ No newline at end of file
+
+    /**
+     * JSON mapping of values stored in Redis, shared by blocking and reactive repositories so both read
+     * what the other wrote. Not a bean: it must not replace the web ObjectMapper.
+     */
+    public static ObjectMapper valueMapper() {
+        return new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+
+    /**
+     * Encoding of snapshots and history items, both read JSON values written before
+     */
+    public enum ValueCodec {
+        BINARY, //versioned varint layout, see BinaryRedisSerializer
+        JSON
+    }
+}
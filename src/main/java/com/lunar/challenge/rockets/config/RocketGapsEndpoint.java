@@ -0,0 +1,41 @@
+package com.lunar.challenge.rockets.config;
+
+import com.lunar.challenge.rockets.domain.RocketGap;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.repository.RocketRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * /actuator/rocketgaps: rockets waiting for a missing message, longest stalled first.
+ * Reads the whole fleet, meant for operators rather than dashboards.
+ */
+@Component
+@RequiredArgsConstructor
+@Endpoint(id = "rocketgaps")
+public class RocketGapsEndpoint {
+    private final RocketRepository repository;
+
+    @ReadOperation
+    public List<RocketGap> gaps() {
+        return repository.findAll().stream()
+                .map(RocketTracker::gap)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(RocketGap::since, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    @ReadOperation
+    public RocketGap gap(@Selector String channel) {
+        return repository.findByChannel(channel)
+                .map(RocketTracker::gap)
+                .orElse(null);
+    }
+}
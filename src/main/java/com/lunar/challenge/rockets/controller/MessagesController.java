@@ -1,7 +1,10 @@
 package com.lunar.challenge.rockets.controller;
 
 import com.lunar.challenge.rockets.dto.ErrorResponse;
+import com.lunar.challenge.rockets.dto.MessageOutcome;
 import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.service.MessageIngest;
+import com.lunar.challenge.rockets.service.MessageStreamService;
 import com.lunar.challenge.rockets.service.RocketService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -9,6 +12,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,6 +23,12 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Batches and streams of messages; single messages are received by SingleMessageController
+ */
 @RestController
 @RequestMapping("/messages")
 @RequiredArgsConstructor
@@ -25,27 +36,49 @@ import org.springframework.web.bind.annotation.RestController;
 public class MessagesController {
     private static final Logger log = LoggerFactory.getLogger(MessagesController.class);
 
+    private static final String NDJSON = "application/x-ndjson";
+
     private final RocketService service;
+    private final MessageIngest ingest;
+    private final MessageStreamService streamService;
 
-    @PostMapping
+    @PostMapping("/batch")
     @Operation(
-            summary = "Receive new rocket message",
-            description = "Consumes incoming rocket telemetry (metadata + payload) and updates rocket state."
+            summary = "Receive a batch of rocket messages",
+            description = "Consumes an array of rocket messages. Messages are grouped by channel, each group is " +
+                    "applied under one tracker lock and saved once, in sharded mode by the shard owning the channel. " +
+                    "Returns an outcome per message, in request order."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Message processed successfully"),
-            @ApiResponse(responseCode = "400", description = "Validation error",
+            @ApiResponse(responseCode = "200", description = "Batch processed, see per-message outcomes"),
+            @ApiResponse(responseCode = "503", description = "Ingest queue of a channel is full, retry the batch later",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<Void> receiveMessage(@RequestBody RocketMessage message) {
-        log.debug("Received message for channel {}, type {}",
-                message.getMetadata().getChannel(),
-                message.getMetadata().getMessageType());
+    public ResponseEntity<List<MessageOutcome>> receiveBatch(@RequestBody List<RocketMessage> messages) {
+        log.debug("Received batch of {} messages", messages.size());
 
-        service.handleMessage(message.getMetadata(), message.getPayload());
+        return ResponseEntity.ok(service.handleBatch(messages, ingest));
+    }
+
+    @PostMapping(value = "/stream", consumes = NDJSON, produces = NDJSON)
+    @Operation(
+            summary = "Stream rocket messages",
+            description = "Consumes a long-lived chunked stream of newline-delimited rocket messages. " +
+                    "Periodically answers with acknowledgement lines holding the highest contiguously applied " +
+                    "messageNumber per channel: {\"acks\":{\"channel\":42},\"received\":1000,\"invalid\":0," +
+                    "\"failed\":0}. Messages that fail to apply are counted as failed, the stream goes on."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Stream of acknowledgements"),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public void receiveStream(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("Opened message stream from {}", request.getRemoteAddr());
+        response.setContentType(NDJSON);
 
-        return ResponseEntity.ok().build();
+        streamService.ingest(request.getInputStream(), response.getOutputStream());
     }
 }
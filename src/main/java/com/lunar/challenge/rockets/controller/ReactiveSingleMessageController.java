@@ -0,0 +1,62 @@
+package com.lunar.challenge.rockets.controller;
+
+import com.lunar.challenge.rockets.dto.ErrorResponse;
+import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.service.DecodedMessage;
+import com.lunar.challenge.rockets.service.ReactiveRocketService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Receives single messages without holding a request thread while Redis applies them:
+ * the Mono is answered asynchronously once the apply script returns.
+ */
+@RestController
+@RequestMapping("/messages")
+@RequiredArgsConstructor
+@Profile("reactive")
+@Tag(name = "Messages", description = "Receiving rocket state messages")
+public class ReactiveSingleMessageController {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveSingleMessageController.class);
+
+    private final ReactiveRocketService service;
+
+    @PostMapping
+    @Operation(
+            summary = "Receive new rocket message",
+            description = "Consumes incoming rocket telemetry (metadata + payload) and updates rocket state. " +
+                    "Answers once the message is applied."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Message processed successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "409", description = "Rocket kept changing concurrently, retry later",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public Mono<ResponseEntity<Void>> receiveMessage(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(schema = @Schema(implementation = RocketMessage.class)))
+            @RequestBody DecodedMessage message) {
+        log.debug("Received message for channel {}, type {}", message.channel(), message.messageType());
+
+        return service.handle(message)
+                .thenReturn(ResponseEntity.ok().build());
+    }
+}
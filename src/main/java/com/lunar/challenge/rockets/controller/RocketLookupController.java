@@ -0,0 +1,90 @@
+package com.lunar.challenge.rockets.controller;
+
+import com.lunar.challenge.rockets.dto.ErrorResponse;
+import com.lunar.challenge.rockets.dto.RocketStatusView;
+import com.lunar.challenge.rockets.service.RocketService;
+import com.lunar.challenge.rockets.service.Versioned;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Reads of one rocket and of the whole fleet, the dashboard polls them.
+ * The reactive profile serves them from ReactiveRocketLookupController instead.
+ */
+@RestController
+@RequestMapping("/rockets")
+@RequiredArgsConstructor
+@Profile("!reactive")
+@Tag(name = "Rockets", description = "Query current rocket states")
+public class RocketLookupController {
+    private static final Logger log = LoggerFactory.getLogger(RocketLookupController.class);
+
+    private final RocketService service;
+
+    @GetMapping("/{channel}")
+    @Operation(
+            summary = "Get rocket by channel",
+            description = "Returns the current state of a specific rocket identified by its channel. "
+                    + "ETag is the last applied message number and a fingerprint of the state, "
+                    + "If-None-Match with it answers 304."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Rocket state returned"),
+            @ApiResponse(responseCode = "304", description = "Rocket not changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "404", description = "Rocket not found",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<RocketStatusView> getRocket(
+            @PathVariable String channel,
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Fetching rocket with channel {}", channel);
+        return conditional(service.getVersionedRocket(channel), ifNoneMatch);
+    }
+
+    @GetMapping
+    @Operation(
+            summary = "List all rockets",
+            description = "Returns the current states of all rockets without history, sorted by channel. "
+                    + "ETag is the fleet version, If-None-Match with it answers 304."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "List of rockets returned"),
+            @ApiResponse(responseCode = "304", description = "No rocket changed since the ETag in If-None-Match"),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<RocketStatusView>> getAllRockets(
+            @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info("Fetching all rockets");
+        return conditional(service.getVersionedRockets(), ifNoneMatch);
+    }
+
+    /**
+     * 304 without building the body if the client has this version, otherwise the body tagged with it
+     */
+    private static <T> ResponseEntity<T> conditional(Versioned<T> resource, String ifNoneMatch) {
+        if (ConditionalResponses.matches(ifNoneMatch, resource.etag())) {
+            return ConditionalResponses.notModified(resource.etag());
+        }
+        return ConditionalResponses.ok(resource.etag(), resource.body().get());
+    }
+}
@@ -1,9 +1,12 @@
 package com.lunar.challenge.rockets.controller;
 
 import com.lunar.challenge.rockets.dto.ErrorResponse;
+import com.lunar.challenge.rockets.dto.RocketPage;
+import com.lunar.challenge.rockets.dto.RocketQuery;
 import com.lunar.challenge.rockets.dto.RocketStatusView;
 import com.lunar.challenge.rockets.service.RocketService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -12,12 +15,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
 
+/**
+ * Fleet queries and push updates; reads of one rocket and the whole fleet are in RocketLookupController
+ */
 @RestController
 @RequestMapping("/rockets")
 @RequiredArgsConstructor
@@ -27,36 +35,120 @@ public class RocketsController {
 
     private final RocketService service;
 
-    @GetMapping("/{channel}")
+    @GetMapping("/page")
     @Operation(
-            summary = "Get rocket by channel",
-            description = "Returns the current state of a specific rocket identified by its channel."
+            summary = "List rockets page by page",
+            description = "Returns one page of rockets filtered by mission, type, exploded flag and speed range, "
+                    + "sorted by channel or speed. Follow nextCursor to get the next page."
     )
     @ApiResponses({
-            @ApiResponse(responseCode = "200", description = "Rocket state returned"),
-            @ApiResponse(responseCode = "404", description = "Rocket not found",
+            @ApiResponse(responseCode = "200", description = "Page of rockets returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, limit, sort, order or history",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
             @ApiResponse(responseCode = "500", description = "Internal server error",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<RocketStatusView> getRocket(@PathVariable String channel) {
-        log.info("Fetching rocket with channel {}", channel);
-        return ResponseEntity.ok(service.getRocket(channel));
+    public ResponseEntity<RocketPage> getRocketPage(
+            @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Page size, 1..1000") @RequestParam(defaultValue = "100") int limit,
+            @Parameter(description = "channel or speed") @RequestParam(defaultValue = "channel") String sort,
+            @Parameter(description = "asc or desc") @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String mission,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) Boolean exploded,
+            @RequestParam(required = false) Integer minSpeed,
+            @RequestParam(required = false) Integer maxSpeed,
+            @Parameter(description = "none, full or number of latest events")
+            @RequestParam(defaultValue = "none") String history) {
+        log.debug("Fetching rockets page after {}, limit {}, sort {} {}", cursor, limit, sort, order);
+        return ResponseEntity.ok(service.getRocketPage(RocketQuery.builder()
+                .cursor(cursor)
+                .limit(limit)
+                .sort(sort)
+                .order(order)
+                .mission(mission)
+                .type(type)
+                .exploded(exploded)
+                .minSpeed(minSpeed)
+                .maxSpeed(maxSpeed)
+                .history(history)
+                .build()));
     }
 
-    @GetMapping
+    @GetMapping(path = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
     @Operation(
-            summary = "List all rockets",
-            description = "Returns the current states of all rockets, sorted by channel."
+            summary = "Subscribe to rocket updates",
+            description = "Server-Sent Events stream: a 'rocket' event with the latest state (no history) "
+                    + "every time a message changes a rocket. Without channel follows the whole fleet, "
+                    + "a slow client gets only the latest state of every rocket."
+    )
+    public SseEmitter streamUpdates(
+            @Parameter(description = "Rocket to follow, all rockets if omitted")
+            @RequestParam(required = false) String channel) {
+        log.info("New updates subscription for {}", channel != null ? channel : "all rockets");
+        return service.subscribe(channel);
+    }
+
+    @GetMapping("/fastest")
+    @Operation(
+            summary = "List fastest rockets",
+            description = "Returns rockets with the highest speed, fastest first, without history."
     )
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "List of rockets returned"),
-            @ApiResponse(responseCode = "500", description = "Internal server error",
+            @ApiResponse(responseCode = "400", description = "Invalid limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<RocketStatusView>> getFastestRockets(
+            @Parameter(description = "Number of rockets, 1..1000") @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(service.getFastestRockets(limit));
+    }
+
+    @GetMapping("/exploded")
+    @Operation(
+            summary = "List exploded rockets",
+            description = "Returns exploded rockets sorted by channel, without history."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "List of rockets returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<RocketStatusView>> getExplodedRockets(
+            @Parameter(description = "Number of rockets, 1..1000") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(service.getExplodedRockets(limit));
+    }
+
+    @GetMapping("/missions/{mission}")
+    @Operation(
+            summary = "List rockets on a mission",
+            description = "Returns rockets currently on the mission sorted by channel, without history."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "List of rockets returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<List<RocketStatusView>> getRocketsByMission(
+            @PathVariable String mission,
+            @Parameter(description = "Number of rockets, 1..1000") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(service.getRocketsByMission(mission, limit));
+    }
+
+    @GetMapping("/types/{type}")
+    @Operation(
+            summary = "List rockets of a type",
+            description = "Returns rockets of the type sorted by channel, without history."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "List of rockets returned"),
+            @ApiResponse(responseCode = "400", description = "Invalid limit",
                     content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
     })
-    public ResponseEntity<List<RocketStatusView>> getAllRockets() {
-        log.info("Fetching all rockets");
-        return ResponseEntity.ok(service.getAllRockets());
+    public ResponseEntity<List<RocketStatusView>> getRocketsByType(
+            @PathVariable String type,
+            @Parameter(description = "Number of rockets, 1..1000") @RequestParam(defaultValue = "100") int limit) {
+        return ResponseEntity.ok(service.getRocketsByType(type, limit));
     }
 
 }
@@ -0,0 +1,62 @@
+package com.lunar.challenge.rockets.controller;
+
+import com.lunar.challenge.rockets.dto.ErrorResponse;
+import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.service.DecodedMessage;
+import com.lunar.challenge.rockets.service.MessageIngest;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Receives single messages, the telemetry hot path.
+ * The reactive profile serves it from ReactiveSingleMessageController instead.
+ */
+@RestController
+@RequestMapping("/messages")
+@RequiredArgsConstructor
+@Profile("!reactive")
+@Tag(name = "Messages", description = "Receiving rocket state messages")
+public class SingleMessageController {
+    private static final Logger log = LoggerFactory.getLogger(SingleMessageController.class);
+
+    private final MessageIngest ingest;
+
+    @PostMapping
+    @Operation(
+            summary = "Receive new rocket message",
+            description = "Consumes incoming rocket telemetry (metadata + payload) and updates rocket state. " +
+                    "Answers once the message is applied."
+    )
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Message processed successfully"),
+            @ApiResponse(responseCode = "400", description = "Validation error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "503", description = "Ingest queue of the channel is full, retry later",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Internal server error",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    public ResponseEntity<Void> receiveMessage(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    content = @Content(schema = @Schema(implementation = RocketMessage.class)))
+            @RequestBody DecodedMessage message) {
+        log.debug("Received message for channel {}, type {}", message.channel(), message.messageType());
+
+        ingest.apply(message);
+
+        return ResponseEntity.ok().build();
+    }
+}
@@ -0,0 +1,36 @@
+package com.lunar.challenge.rockets.domain;
+
+import java.time.Duration;
+
+/**
+ * How much of the applied events a tracker keeps as history.
+ * Every policy is capped at maxEvents, so memory per rocket is bounded.
+ *
+ * @param policy    LAST_N - newest maxEvents events
+ *                  TIME_WINDOW - events not older than window relative to the newest one
+ *                  DOWNSAMPLE - first speed change per bucket, other events are always kept
+ * @param maxEvents capacity of the history ring buffer
+ * @param window    age limit for TIME_WINDOW
+ * @param bucket    bucket length for DOWNSAMPLE
+ */
+public record HistoryRetention(
+        Policy policy,
+        int maxEvents,
+        Duration window,
+        Duration bucket
+) {
+    public static final HistoryRetention DEFAULT =
+            new HistoryRetention(Policy.LAST_N, 1000, Duration.ofHours(1), Duration.ofSeconds(1));
+
+    public HistoryRetention {
+        if (maxEvents < 1) {
+            throw new IllegalArgumentException("History must keep at least one event, got maxEvents " + maxEvents);
+        }
+    }
+
+    public enum Policy {
+        LAST_N,
+        TIME_WINDOW,
+        DOWNSAMPLE
+    }
+}
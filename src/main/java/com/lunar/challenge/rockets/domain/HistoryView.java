@@ -0,0 +1,37 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+
+import java.util.List;
+
+/**
+ * History of a rocket as of one published state: events with sequence numbers in [from, to).
+ * Reading doesn't take the tracker lock. Events already overwritten in the ring buffer
+ * by the time of reading are left out.
+ */
+public final class HistoryView {
+    private final RocketHistory history;
+    private final long from;
+    private final long to;
+
+    HistoryView(RocketHistory history, long from, long to) {
+        this.history = history;
+        this.from = from;
+        this.to = to;
+    }
+
+    public int size() {
+        return (int) (to - from);
+    }
+
+    public List<AppliedEvent> toList() {
+        return history.read(from, to);
+    }
+
+    /**
+     * Latest events, oldest first
+     */
+    public List<AppliedEvent> latest(int limit) {
+        return history.read(Math.max(from, to - limit), to);
+    }
+}
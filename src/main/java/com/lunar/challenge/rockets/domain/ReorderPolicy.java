@@ -0,0 +1,39 @@
+package com.lunar.challenge.rockets.domain;
+
+import java.time.Duration;
+
+/**
+ * How long and how far ahead a tracker waits for a missing message number.
+ * A lost message must not stall its rocket forever nor let later messages pile up in memory.
+ *
+ * @param window     messages after the last applied one that may be buffered, lastApplied+1 .. lastApplied+window
+ * @param gapTimeout a gap open this long is skipped and everything buffered is applied, zero waits forever
+ * @param overflow   what happens to a message beyond the window
+ */
+public record ReorderPolicy(
+        int window,
+        Duration gapTimeout,
+        Overflow overflow
+) {
+    public static final int MAX_WINDOW = 1 << 20;
+
+    public static final ReorderPolicy DEFAULT = new ReorderPolicy(1024, Duration.ofSeconds(30), Overflow.SKIP_GAP);
+
+    public ReorderPolicy {
+        if (window < 1 || window > MAX_WINDOW) {
+            throw new IllegalArgumentException("Reorder window must be 1.." + MAX_WINDOW + ", got " + window);
+        }
+        if (gapTimeout == null || gapTimeout.isNegative()) {
+            throw new IllegalArgumentException("Gap timeout must not be negative, got " + gapTimeout);
+        }
+    }
+
+    boolean timesOut() {
+        return !gapTimeout.isZero();
+    }
+
+    public enum Overflow {
+        SKIP_GAP, //skip missing numbers, applying buffered messages, until the new message fits
+        DROP //ignore the new message, it gets StageOutcome.DROPPED
+    }
+}
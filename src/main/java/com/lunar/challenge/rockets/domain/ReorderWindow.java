@@ -0,0 +1,100 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+
+/**
+ * Out-of-order messages of one rocket, waiting for a missing message number.
+ * Holds numbers lastApplied+1 .. lastApplied+limit only, so a message is stored in the ring slot
+ * of its number without boxing the key or allocating a tree node:
+ * - slot = messageNumber & (slots.length - 1), numbers in the window never share a slot
+ * - slots start small and double up to the limit once a message arrives further ahead
+ * Not thread-safe, used under the tracker lock.
+ */
+final class ReorderWindow {
+    private static final int INITIAL_SLOTS = 8;
+    private static final PendingEvent[] EMPTY = new PendingEvent[0];
+
+    private final int limit;
+    private PendingEvent[] slots = EMPTY; //allocated on the first out-of-order message
+    private int size;
+
+    ReorderWindow(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Whether messageNumber lies within the window after lastApplied
+     */
+    boolean fits(int lastApplied, int messageNumber) {
+        return messageNumber - lastApplied <= limit;
+    }
+
+    PendingEvent get(int messageNumber) {
+        if (size == 0) {
+            return null;
+        }
+        PendingEvent pending = slots[messageNumber & (slots.length - 1)];
+        return pending != null && pending.messageNumber() == messageNumber ? pending : null;
+    }
+
+    /**
+     * Stores a message which fits the window and is not buffered yet
+     */
+    void put(int lastApplied, PendingEvent pending) {
+        int offset = pending.messageNumber() - lastApplied;
+        if (offset > slots.length) {
+            grow(offset);
+        }
+        slots[pending.messageNumber() & (slots.length - 1)] = pending;
+        size++;
+    }
+
+    PendingEvent remove(int messageNumber) {
+        PendingEvent pending = get(messageNumber);
+        if (pending != null) {
+            slots[messageNumber & (slots.length - 1)] = null;
+            size--;
+        }
+        return pending;
+    }
+
+    /**
+     * Lowest buffered message after lastApplied, null if the window is empty
+     */
+    PendingEvent first(int lastApplied) {
+        if (size == 0) {
+            return null;
+        }
+        for (int number = lastApplied + 1, end = lastApplied + Math.min(limit, slots.length); number <= end; number++) {
+            PendingEvent pending = get(number);
+            if (pending != null) {
+                return pending;
+            }
+        }
+        return null;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        slots = EMPTY;
+        size = 0;
+    }
+
+    private void grow(int offset) {
+        int capacity = Math.max(INITIAL_SLOTS, Integer.highestOneBit(Math.max(offset, 1) - 1) << 1);
+        PendingEvent[] grown = new PendingEvent[capacity];
+        for (PendingEvent pending : slots) {
+            if (pending != null) {
+                grown[pending.messageNumber() & (capacity - 1)] = pending;
+            }
+        }
+        slots = grown;
+    }
+}
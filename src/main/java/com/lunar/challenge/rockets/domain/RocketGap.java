@@ -0,0 +1,19 @@
+package com.lunar.challenge.rockets.domain;
+
+import java.time.Instant;
+
+/**
+ * Rocket stalled on a missing message, later messages wait in its reorder window.
+ *
+ * @param channel       rocket
+ * @param awaitedNumber message number the rocket waits for
+ * @param buffered      messages waiting behind it
+ * @param since         when it started waiting, null if unknown
+ */
+public record RocketGap(
+        String channel,
+        int awaitedNumber,
+        int buffered,
+        Instant since
+) {
+}
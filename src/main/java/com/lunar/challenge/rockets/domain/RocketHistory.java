@@ -0,0 +1,240 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Bounded history of applied events.
+ * Ring buffer over primitive arrays (time, offset, speed, type ordinal), so a rocket costs the same memory
+ * after a minute or after a month of transmitting. The arrays start small and double up to the retention capacity,
+ * trackers rebuilt for every message by the Redis and off-heap repositories don't pay for slots they never fill.
+ * <p>
+ * Every recorded event gets a sequence number (0, 1, 2, ...), callers use it to ask for events recorded since
+ * some point. Appends are guarded by the owning RocketTracker.
+ * <p>
+ * {@link HistoryView}s read without the tracker lock: slots are copied under an optimistic StampedLock read
+ * and copied again under a read lock only if an append raced with the copy.
+ * Slots overwritten since the view was taken are left out.
+ */
+public class RocketHistory {
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final int INITIAL_SLOTS = 8;
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private final HistoryRetention retention;
+    private final int capacity;
+    private Slots slots; //replaced by a larger copy while fewer than capacity slots are allocated
+
+    private final StampedLock slotsLock = new StampedLock(); //guards slots and nextSeq against view readers
+
+    private long nextSeq = 0; //sequence number of the next recorded event
+    private long firstSeq = 0; //oldest retained event
+    private long lastSpeedBucket = Long.MIN_VALUE; //DOWNSAMPLE: bucket of the last recorded speed change
+
+    public RocketHistory(HistoryRetention retention) {
+        this(retention, INITIAL_SLOTS);
+    }
+
+    /**
+     * @param expectedEvents events about to be appended, e.g. by a restore, slots for them are allocated at once
+     */
+    public RocketHistory(HistoryRetention retention, int expectedEvents) {
+        this.retention = retention;
+        this.capacity = retention.maxEvents();
+        this.slots = Slots.allocate(Math.clamp(expectedEvents, 1, capacity));
+    }
+
+    /**
+     * Records event according to retention policy.
+     *
+     * @return false if the event was dropped by downsampling
+     */
+    public boolean append(AppliedEvent event) {
+        long nanos = toEpochNanos(event.time());
+        if (retention.policy() == HistoryRetention.Policy.DOWNSAMPLE && isSpeedChange(event.type()) && nanos != NO_TIME) {
+            long bucket = Math.floorDiv(nanos, retention.bucket().toNanos());
+            if (bucket == lastSpeedBucket) {
+                return false;
+            }
+            lastSpeedBucket = bucket;
+        }
+
+        long stamp = slotsLock.writeLock();
+        try {
+            if (nextSeq - firstSeq == slots.length() && slots.length() < capacity) {
+                grow();
+            }
+            int slot = slot(nextSeq);
+            slots.epochNanos[slot] = nanos;
+            slots.offsetSeconds[slot] = event.time() != null ? event.time().getOffset().getTotalSeconds() : 0;
+            slots.speeds[slot] = event.speedAfter();
+            slots.types[slot] = (byte) event.type().ordinal();
+            nextSeq++;
+        } finally {
+            slotsLock.unlockWrite(stamp);
+        }
+        firstSeq = Math.max(firstSeq, nextSeq - slots.length());
+
+        if (retention.policy() == HistoryRetention.Policy.TIME_WINDOW && nanos != NO_TIME) {
+            evictOlderThan(nanos - retention.window().toNanos());
+        }
+        return true;
+    }
+
+    /**
+     * Doubles the slots, events move to the slots of their sequence numbers in the larger ring. Evicted events that
+     * are not overwritten yet move too, views taken before the eviction still read them.
+     */
+    private void grow() {
+        Slots grown = Slots.allocate((int) Math.min(capacity, slots.length() * 2L));
+        for (long seq = Math.max(0, nextSeq - slots.length()); seq < nextSeq; seq++) {
+            int from = (int) (seq % slots.length());
+            int to = (int) (seq % grown.length());
+            grown.epochNanos[to] = slots.epochNanos[from];
+            grown.offsetSeconds[to] = slots.offsetSeconds[from];
+            grown.speeds[to] = slots.speeds[from];
+            grown.types[to] = slots.types[from];
+        }
+        slots = grown;
+    }
+
+    private void evictOlderThan(long limitNanos) {
+        while (firstSeq < nextSeq - 1) {
+            long time = slots.epochNanos[slot(firstSeq)];
+            if (time != NO_TIME && time >= limitNanos) {
+                break;
+            }
+            firstSeq++;
+        }
+    }
+
+    /**
+     * Sequence number the next recorded event will get, i.e. number of events recorded so far
+     */
+    public long nextSeq() {
+        return nextSeq;
+    }
+
+    public int size() {
+        return (int) (nextSeq - firstSeq);
+    }
+
+    /**
+     * Slots allocated right now, at most the retention capacity
+     */
+    int allocatedSlots() {
+        return slots.length();
+    }
+
+    public List<AppliedEvent> toList() {
+        return since(firstSeq);
+    }
+
+    /**
+     * Immutable view of the events retained right now, must be taken by the appending thread
+     */
+    public HistoryView view() {
+        return new HistoryView(this, firstSeq, nextSeq);
+    }
+
+    /**
+     * Events with sequence numbers in [from, to) that are not overwritten yet, safe to call from any thread
+     */
+    List<AppliedEvent> read(long from, long to) {
+        long stamp = slotsLock.tryOptimisticRead();
+        Slots copy = copy(from, to);
+        if (!slotsLock.validate(stamp)) {
+            stamp = slotsLock.readLock();
+            try {
+                copy = copy(from, to);
+            } finally {
+                slotsLock.unlockRead(stamp);
+            }
+        }
+        return copy.toEvents();
+    }
+
+    //the ring, or a raw copy of some of its slots: objects are built only after the copy is validated
+    private record Slots(long[] epochNanos, int[] offsetSeconds, int[] speeds, byte[] types) {
+        static Slots allocate(int length) {
+            return new Slots(new long[length], new int[length], new int[length], new byte[length]);
+        }
+
+        int length() {
+            return speeds.length;
+        }
+
+        List<AppliedEvent> toEvents() {
+            List<AppliedEvent> events = new ArrayList<>(speeds.length);
+            for (int i = 0; i < speeds.length; i++) {
+                events.add(new AppliedEvent(toTime(epochNanos[i], offsetSeconds[i]), TYPES[types[i]], speeds[i]));
+            }
+            return events;
+        }
+    }
+
+    private Slots copy(long from, long to) {
+        Slots ring = slots; //read once: a concurrent grow replaces it, validation then fails
+        long start = Math.max(from, nextSeq - ring.length()); //older slots are overwritten
+        int count = (int) Math.max(0, to - start);
+        Slots copy = Slots.allocate(count);
+        for (int i = 0; i < count; i++) {
+            int slot = (int) ((start + i) % ring.length());
+            copy.epochNanos[i] = ring.epochNanos[slot];
+            copy.offsetSeconds[i] = ring.offsetSeconds[slot];
+            copy.speeds[i] = ring.speeds[slot];
+            copy.types[i] = ring.types[slot];
+        }
+        return copy;
+    }
+
+    /**
+     * Retained events with sequence number >= seq, oldest first
+     */
+    public List<AppliedEvent> since(long seq) {
+        long from = Math.max(seq, firstSeq);
+        if (from >= nextSeq) {
+            return List.of();
+        }
+        List<AppliedEvent> events = new ArrayList<>((int) (nextSeq - from));
+        for (long s = from; s < nextSeq; s++) {
+            events.add(get(slot(s)));
+        }
+        return events;
+    }
+
+    private AppliedEvent get(int slot) {
+        return new AppliedEvent(toTime(slots.epochNanos[slot], slots.offsetSeconds[slot]), TYPES[slots.types[slot]],
+                slots.speeds[slot]);
+    }
+
+    private int slot(long seq) {
+        return (int) (seq % slots.length());
+    }
+
+    private static boolean isSpeedChange(MessageType type) {
+        return type == MessageType.RocketSpeedIncreased || type == MessageType.RocketSpeedDecreased;
+    }
+
+    private static long toEpochNanos(OffsetDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(), 1_000_000_000L), time.getNano());
+    }
+
+    private static OffsetDateTime toTime(long epochNanos, int offsetSeconds) {
+        if (epochNanos == NO_TIME) {
+            return null;
+        }
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                Math.floorMod(epochNanos, 1_000_000_000L));
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+}
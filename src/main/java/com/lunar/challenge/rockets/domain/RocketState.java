@@ -0,0 +1,40 @@
+package com.lunar.challenge.rockets.domain;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Immutable state of a rocket published by RocketTracker after every change.
+ * All fields come from the same moment, readers never see a half-applied message.
+ * Type and mission are SymbolTable ids, compared as ints by filters, next to the strings they stand for:
+ * the shared instances, or own copies of values past the table limit.
+ */
+public record RocketState(
+        String channel,
+        int typeId,
+        String type,
+        int missionId,
+        String mission,
+        int speed,
+        boolean exploded,
+        OffsetDateTime lastMessageTime,
+        int lastApplied,
+        HistoryView history
+) {
+    /**
+     * @param typeId SymbolTable.find of type, resolved once per query
+     */
+    public boolean isOfType(int typeId, String type) {
+        return this.typeId == typeId && (typeId != SymbolTable.OVERFLOW || type.equals(this.type));
+    }
+
+    /**
+     * @param missionId SymbolTable.find of mission, resolved once per query
+     */
+    public boolean isOnMission(int missionId, String mission) {
+        return this.missionId == missionId && (missionId != SymbolTable.OVERFLOW || mission.equals(this.mission));
+    }
+
+    public StatusKey statusKey() {
+        return new StatusKey(speed, mission, type, exploded);
+    }
+}
@@ -1,5 +1,6 @@
 package com.lunar.challenge.rockets.domain;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.Setter;
 
@@ -9,13 +10,29 @@ import java.time.OffsetDateTime;
 @Setter
 public class RocketStatus {
     private final String channel;
-    private String type; //Falcon-9
+    @Setter(AccessLevel.NONE)
+    private int typeId; //SymbolTable id of "Falcon-9"
+    @Setter(AccessLevel.NONE)
+    private String type; //shared instance of the table, own copy only if typeId is OVERFLOW
     private int speed;
-    private String mission; //"ARTEMIS"
+    @Setter(AccessLevel.NONE)
+    private int missionId; //SymbolTable id of "ARTEMIS"
+    @Setter(AccessLevel.NONE)
+    private String mission;
     private boolean exploded;
     private OffsetDateTime lastMessageTime;
 
     public RocketStatus(String channel) {
         this.channel = channel;
     }
+
+    public void setType(String type) {
+        this.typeId = SymbolTable.SHARED.intern(type);
+        this.type = SymbolTable.SHARED.name(typeId, type);
+    }
+
+    public void setMission(String mission) {
+        this.missionId = SymbolTable.SHARED.intern(mission);
+        this.mission = SymbolTable.SHARED.name(missionId, mission);
+    }
 }
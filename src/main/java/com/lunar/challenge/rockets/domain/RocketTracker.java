@@ -3,31 +3,49 @@ package com.lunar.challenge.rockets.domain;
 import com.lunar.challenge.rockets.domain.event.*;
 import com.lunar.challenge.rockets.dto.RocketHistoryItem;
 import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
-import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.NavigableMap;
-import java.util.TreeMap;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 /**
  * Rocket Tracker
  * - receives incoming messages
  * - applies them to RocketStatus in right order
- * - allocates space for missing messages
- * - implements thread-safety with reentrant lock
+ * - buffers messages after a missing one in a bounded ReorderWindow, a gap is skipped once it times out
+ *   or a message arrives beyond the window (ReorderPolicy)
+ * - keeps bounded history according to HistoryRetention
+ * - reports status changes to an optional StatusListener (fleet indexes)
+ * - reports drops, reordering and lock hold time to TrackerMetrics, the lock is timed only if they are enabled
+ * - implements thread-safety with reentrant lock, not synchronized: a virtual thread waiting for it
+ *   or loading history from Redis under it unmounts from its carrier instead of pinning it
+ * - publishes an immutable RocketState after every change, readers never take the lock
  */
 @Slf4j
 public class RocketTracker {
     private final ReentrantLock lock = new ReentrantLock();
-    private final List<AppliedEvent> appliedEvents = new ArrayList<>();
+    private final HistoryRetention retention;
+    private final ReorderPolicy reorder;
+    private final StatusListener listener; //null if nobody indexes this tracker
+    private final TrackerMetrics metrics;
+    private final boolean timed; //metrics enabled, worth reading the clock
+    private RocketHistory history;
 
-    @Getter
+    //loads persisted history on first access; null once the whole history is in memory
+    private volatile Supplier<List<AppliedEvent>> historyLoader;
+
+    //sequence number in history of the first event not yet handed over to persistence
+    private long unsavedFrom = 0;
+
+    //working copy, mutated under lock only; readers get the published state
     private final RocketStatus status;
 
+    private volatile RocketState state;
+
     public String getChannel() {
         return status.getChannel();
     }
@@ -35,44 +53,414 @@ public class RocketTracker {
     //volatile to guarantee that reading will always be from memory, rather that from local thread cache
     private volatile int lastApplied = 0; //last applied message number;
 
-    //creating immutable DTO for temporarily store pending messages
-    //concurrency support: once created - opened only for read
-    private record PendingEvent(int messageNumber,
-                                OffsetDateTime time,
-                                RocketEvent event
-    ) {
+    /**
+     * Highest message number applied contiguously, messages after a gap are not counted.
+     * Skipped message numbers count as applied.
+     */
+    public int getLastApplied() {
+        return lastApplied;
     }
 
+    private final ReorderWindow buffer;
+
+    //epoch millis since the message after lastApplied is awaited, 0 if nothing is buffered or unknown
+    private long gapOpenedAt = 0;
+    private int gapOpenedAfter = 0; //lastApplied when the gap clock was started
+    private List<SkippedGap> timedOutGaps; //skipped by the gap timeout and not drained yet, null if none
 
+    //buffered since the previous drain, not yet handed over to persistence
+    private final List<PendingEvent> unsavedPending = new ArrayList<>();
 
-    private final NavigableMap<Integer, PendingEvent> buffer = new TreeMap<>();
+    //persistence holds pending messages that may have been applied since
+    private boolean pendingPersisted = false;
+    private int drainedLastApplied = 0;
 
     public RocketTracker(String channel) {
+        this(channel, HistoryRetention.DEFAULT);
+    }
+
+    public RocketTracker(String channel, HistoryRetention retention) {
+        this(channel, retention, null);
+    }
+
+    public RocketTracker(String channel, HistoryRetention retention, StatusListener listener) {
+        this(channel, retention, ReorderPolicy.DEFAULT, listener, TrackerMetrics.NOOP);
+    }
+
+    public RocketTracker(String channel, HistoryRetention retention, ReorderPolicy reorder,
+                         StatusListener listener, TrackerMetrics metrics) {
         this.status = new RocketStatus(channel);
+        this.retention = retention;
+        this.reorder = reorder;
+        this.buffer = new ReorderWindow(reorder.window());
+        this.listener = listener;
+        this.metrics = metrics;
+        this.timed = metrics != TrackerMetrics.NOOP;
+        this.history = new RocketHistory(retention);
+        publish();
         log.info("Created new tracker for channel {}", channel);
     }
 
-    public RocketStatus snapshot() {
-        return status;
+    /**
+     * Latest published state, wait-free
+     */
+    public RocketState snapshot() {
+        return state;
+    }
+
+    /**
+     * Latest published state with the whole history in memory.
+     * Takes the lock only once, if persisted history is not loaded yet.
+     */
+    public RocketState snapshotWithHistory() {
+        if (historyLoader != null) {
+            lock.lock();
+            try {
+                loadHistory();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return state;
     }
 
     public List<AppliedEvent> getHistory() {
-        return List.copyOf(appliedEvents);
+        return snapshotWithHistory().history().toList();
+    }
+
+    /**
+     * Latest events of history, oldest first
+     */
+    public List<AppliedEvent> getRecentHistory(int limit) {
+        return snapshotWithHistory().history().latest(limit);
+    }
+
+    /**
+     * Publishes current status and history view, must be called under lock after every change
+     */
+    private void publish() {
+        state = new RocketState(status.getChannel(), status.getTypeId(), status.getType(), status.getMissionId(),
+                status.getMission(), status.getSpeed(), status.isExploded(), status.getLastMessageTime(), lastApplied,
+                history.view());
+    }
+
+    /**
+     * Pulls persisted history in front of events applied since restore.
+     * Retention is applied to the merged history, events not yet persisted stay marked as such.
+     */
+    private void loadHistory() {
+        if (historyLoader == null) {
+            return;
+        }
+        List<AppliedEvent> persisted = historyLoader.get();
+        historyLoader = null;
+
+        List<AppliedEvent> recent = history.toList();
+        int firstUnsaved = recent.size() - (int) Math.min(history.nextSeq() - unsavedFrom, recent.size());
+        RocketHistory merged = new RocketHistory(retention, persisted.size() + recent.size());
+        persisted.forEach(merged::append);
+        for (int i = 0; i < recent.size(); i++) {
+            if (i == firstUnsaved) {
+                unsavedFrom = merged.nextSeq();
+            }
+            merged.append(recent.get(i));
+        }
+        if (firstUnsaved == recent.size()) {
+            unsavedFrom = merged.nextSeq();
+        }
+        history = merged;
+        publish();
     }
 
     /**
      * Put new message in buffer and apply if it is next by order
      */
-    public void stageAndApply(int messageNumber, OffsetDateTime time, MessageType type, RocketEvent event) {
+    public StageOutcome stageAndApply(int messageNumber, OffsetDateTime time, MessageType type, RocketEvent event) {
+        lock.lock();
+        long lockedAt = timed ? System.nanoTime() : 0;
+        int bufferedBefore = buffer.size();
+        int appliedBefore = lastApplied;
+        try {
+            StatusKey before = listener != null ? state.statusKey() : null;
+            StageOutcome staged = stage(new PendingEvent(messageNumber, time, event));
+            if (staged == StageOutcome.BUFFERED) {
+                log.debug("Buffered message: channel {}, number {}, type {}",
+                        status.getChannel(), messageNumber, type);
+                applyPendingInOrder();
+                restartGapClock();
+                skipExpiredGap();
+            }
+            if (lastApplied != appliedBefore) {
+                publish();
+                notifyIfChanged(before);
+            }
+            if (staged != StageOutcome.BUFFERED) {
+                return staged;
+            }
+            return messageNumber <= lastApplied ? StageOutcome.APPLIED : StageOutcome.BUFFERED;
+        } finally {
+            reportStaged(bufferedBefore, lockedAt);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stages a batch of messages of this channel under a single lock acquisition.
+     * A message counts as applied if any later message of the batch closed its gap.
+     *
+     * @return outcome per message, in the order of messages
+     */
+    public List<StageOutcome> stageAndApplyAll(List<PendingEvent> messages) {
         lock.lock();
+        long lockedAt = timed ? System.nanoTime() : 0;
+        int bufferedBefore = buffer.size();
+        int appliedBefore = lastApplied;
         try {
-            if (messageNumber <= lastApplied) {
-                log.warn("Ignored duplicate/old message: channel {}, number {}", status.getChannel(), messageNumber);
-                return;
+            StageOutcome[] outcomes = new StageOutcome[messages.size()];
+            StatusKey before = listener != null ? state.statusKey() : null;
+            for (int i = 0; i < messages.size(); i++) {
+                StageOutcome staged = stage(messages.get(i));
+                if (staged == StageOutcome.BUFFERED) {
+                    applyPendingInOrder();
+                } else {
+                    outcomes[i] = staged;
+                }
+            }
+            restartGapClock();
+            skipExpiredGap();
+            if (lastApplied != appliedBefore) {
+                publish();
+                notifyIfChanged(before);
+            }
+            for (int i = 0; i < outcomes.length; i++) {
+                if (outcomes[i] == null) {
+                    outcomes[i] = messages.get(i).messageNumber() <= lastApplied
+                            ? StageOutcome.APPLIED
+                            : StageOutcome.BUFFERED;
+                }
             }
-            buffer.put(messageNumber, new PendingEvent(messageNumber, time, event));
-            log.debug("Buffered message: channel {}, number {}, type {}", status.getChannel(), messageNumber, type);
+            return List.of(outcomes);
+        } finally {
+            reportStaged(bufferedBefore, lockedAt);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restarts the gap clock and reports buffer changes and lock hold time of one staging call,
+     * must be called under lock
+     */
+    private void reportStaged(int bufferedBefore, long lockedAt) {
+        int bufferedAfter = buffer.size();
+        if (bufferedAfter != bufferedBefore) {
+            metrics.bufferChanged(bufferedAfter - bufferedBefore);
+        }
+        restartGapClock();
+        if (timed) {
+            metrics.lockHeld(System.nanoTime() - lockedAt);
+        }
+    }
+
+    /**
+     * Keeps the gap clock on the message after lastApplied, must be called under lock and before the gap timeout
+     * is checked: started when messages get buffered, restarted whenever lastApplied advances with messages still
+     * buffered, as the next missing message is awaited only from then on, stopped once nothing is buffered.
+     * The clock is read only when messages are or were buffered.
+     */
+    private void restartGapClock() {
+        if (gapOpenedAt != 0 && lastApplied != gapOpenedAfter) {
+            long now = System.currentTimeMillis();
+            metrics.gapClosed(now - gapOpenedAt);
+            gapOpenedAt = buffer.isEmpty() ? 0 : now;
+            gapOpenedAfter = lastApplied;
+        } else if (gapOpenedAt == 0 && !buffer.isEmpty()) {
+            gapOpenedAt = System.currentTimeMillis();
+            gapOpenedAfter = lastApplied;
+        }
+    }
+
+    /**
+     * Puts message into buffer, must be called under lock.
+     * A message beyond the reorder window either makes room by skipping gaps or is dropped.
+     *
+     * @return BUFFERED if the message was put into the buffer, otherwise DUPLICATE or DROPPED
+     */
+    private StageOutcome stage(PendingEvent pending) {
+        int messageNumber = pending.messageNumber();
+        if (messageNumber <= lastApplied || buffer.get(messageNumber) != null) {
+            log.warn("Ignored duplicate/old message: channel {}, number {}", status.getChannel(), messageNumber);
+            metrics.duplicate();
+            return StageOutcome.DUPLICATE;
+        }
+        if (!buffer.fits(lastApplied, messageNumber)) {
+            if (reorder.overflow() == ReorderPolicy.Overflow.DROP) {
+                log.warn("Dropped message beyond reorder window: channel {}, number {}, waiting for {}",
+                        status.getChannel(), messageNumber, lastApplied + 1);
+                metrics.droppedBeyondWindow();
+                return StageOutcome.DROPPED;
+            }
+            makeRoomFor(messageNumber);
+        }
+        buffer.put(lastApplied, pending);
+        unsavedPending.add(pending);
+        if (messageNumber != lastApplied + 1) {
+            metrics.outOfOrder(buffer.size());
+        }
+        return StageOutcome.BUFFERED;
+    }
+
+    /**
+     * Skips as few missing numbers as needed for messageNumber to fit the window,
+     * buffered messages reached on the way are applied
+     */
+    private void makeRoomFor(int messageNumber) {
+        int skipped = 0;
+        int needed = messageNumber - reorder.window();
+        while (lastApplied < needed) {
+            PendingEvent first = buffer.first(lastApplied);
+            int skipTo = first != null ? Math.min(first.messageNumber() - 1, needed) : needed;
+            skipped += skipTo - lastApplied;
+            lastApplied = skipTo;
             applyPendingInOrder();
+        }
+        log.warn("Skipped {} missing messages to fit message {} into reorder window: channel {}",
+                skipped, messageNumber, status.getChannel());
+        metrics.gapsSkipped(skipped, false);
+    }
+
+    /**
+     * Skips every missing number and applies the whole buffer once the awaited message is overdue
+     */
+    private void skipExpiredGap() {
+        if (buffer.isEmpty() || !reorder.timesOut()) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!gapExpired(now)) {
+            return;
+        }
+        int awaited = lastApplied + 1;
+        int skipped = 0;
+        if (timedOutGaps == null) {
+            timedOutGaps = new ArrayList<>();
+        }
+        for (PendingEvent first = buffer.first(lastApplied); first != null; first = buffer.first(lastApplied)) {
+            timedOutGaps.add(new SkippedGap(lastApplied + 1, first.messageNumber() - 1));
+            skipped += first.messageNumber() - 1 - lastApplied;
+            lastApplied = first.messageNumber() - 1;
+            applyPendingInOrder();
+        }
+        log.warn("Skipped {} missing messages after waiting {} ms for message {}: channel {}",
+                skipped, now - gapOpenedAt, awaited, status.getChannel());
+        metrics.gapsSkipped(skipped, true);
+    }
+
+    private boolean gapExpired(long now) {
+        return !buffer.isEmpty() && reorder.timesOut()
+                && gapOpenedAt != 0 && now - gapOpenedAt >= reorder.gapTimeout().toMillis();
+    }
+
+    /**
+     * True if messages are buffered and the awaited one is overdue
+     */
+    public boolean hasExpiredGap() {
+        lock.lock();
+        try {
+            return gapExpired(System.currentTimeMillis());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Skips an overdue gap of a rocket that stopped transmitting,
+     * staging does the same when the next message of a rocket arrives
+     *
+     * @return true if missing messages were skipped and the buffer applied
+     */
+    public boolean releaseExpiredGap() {
+        lock.lock();
+        long lockedAt = timed ? System.nanoTime() : 0;
+        int bufferedBefore = buffer.size();
+        int appliedBefore = lastApplied;
+        try {
+            StatusKey before = listener != null ? state.statusKey() : null;
+            skipExpiredGap();
+            if (lastApplied == appliedBefore) {
+                return false;
+            }
+            publish();
+            notifyIfChanged(before);
+            return true;
+        } finally {
+            reportStaged(bufferedBefore, lockedAt);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gaps skipped by the timeout since the previous call. The timeout depends on the wall clock,
+     * so they are journaled for a replay to skip the same messages.
+     */
+    public List<SkippedGap> drainTimedOutGaps() {
+        lock.lock();
+        try {
+            List<SkippedGap> drained = timedOutGaps != null ? timedOutGaps : List.of();
+            timedOutGaps = null;
+            return drained;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Skips messages a previous run stopped waiting for (journal replay) and applies what is buffered after them.
+     * A gap is skipped only once every message before it is applied: journal records of one rocket
+     * may come in another order than the rocket staged them.
+     *
+     * @return gaps not reached yet, in the order given
+     */
+    public List<SkippedGap> skipMissing(List<SkippedGap> gaps) {
+        lock.lock();
+        long lockedAt = timed ? System.nanoTime() : 0;
+        int bufferedBefore = buffer.size();
+        int appliedBefore = lastApplied;
+        try {
+            StatusKey before = listener != null ? state.statusKey() : null;
+            int skipped = 0;
+            for (; skipped < gaps.size() && gaps.get(skipped).first() <= lastApplied + 1; skipped++) {
+                int last = gaps.get(skipped).last();
+                while (lastApplied < last) {
+                    if (buffer.get(lastApplied + 1) == null) {
+                        lastApplied++;
+                    } else {
+                        applyPendingInOrder();
+                    }
+                }
+                applyPendingInOrder();
+            }
+            if (lastApplied != appliedBefore) {
+                publish();
+                notifyIfChanged(before);
+            }
+            return skipped == gaps.size() ? List.of() : List.copyOf(gaps.subList(skipped, gaps.size()));
+        } finally {
+            reportStaged(bufferedBefore, lockedAt);
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Message the rocket waits for, null if nothing is buffered
+     */
+    public RocketGap gap() {
+        lock.lock();
+        try {
+            if (buffer.isEmpty()) {
+                return null;
+            }
+            return new RocketGap(status.getChannel(), lastApplied + 1, buffer.size(),
+                    gapOpenedAt != 0 ? Instant.ofEpochMilli(gapOpenedAt) : null);
         } finally {
             lock.unlock();
         }
@@ -82,9 +470,10 @@ public class RocketTracker {
      * applies current rocket state on a new message.
      */
     private void apply(PendingEvent pending) {
-        if (status.isExploded() && !(pending.event instanceof RocketExploded)) {
+        if (status.isExploded() && !(pending.event() instanceof RocketExploded)) {
             log.warn("Ignored event for exploded rocket: channel {}, number {}, type {}",
-                    status.getChannel(), pending.messageNumber, pending.event().getClass().getSimpleName());
+                    status.getChannel(), pending.messageNumber(), pending.event().getClass().getSimpleName());
+            metrics.droppedAfterExplosion();
             return;
         }
 
@@ -117,8 +506,8 @@ public class RocketTracker {
         }
 
         status.setLastMessageTime(pending.time());
-        appliedEvents.add(new AppliedEvent(
-                pending.time,
+        history.append(new AppliedEvent(
+                pending.time(),
                 MessageType.valueOf(event.getClass().getSimpleName()), // фикс
                 status.getSpeed()
         ));
@@ -137,7 +526,116 @@ public class RocketTracker {
         }
     }
 
+    /**
+     * Fields fleet indexes look this rocket up by
+     */
+    public StatusKey statusKey() {
+        return state.statusKey();
+    }
+
+    private void notifyIfChanged(StatusKey before) {
+        if (listener == null) {
+            return;
+        }
+        StatusKey after = state.statusKey();
+        if (!after.equals(before)) {
+            listener.statusChanged(status.getChannel(), after);
+        }
+    }
+
+    /**
+     * Full snapshot with the whole history embedded.
+     */
     public RocketSnapshotDTO toSnapshot() {
+        lock.lock();
+        try {
+            loadHistory();
+            RocketSnapshotDTO dto = statusSnapshot();
+            dto.setHistory(history.toList().stream()
+                    .map(RocketHistoryItem::from)
+                    .toList());
+            return dto;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Full snapshot with the whole history and buffered messages, taken under one lock.
+     * Restored by restoreFromSnapshot and restorePending.
+     */
+    public TrackerCheckpoint checkpoint() {
+        lock.lock();
+        try {
+            List<PendingEvent> pending = new ArrayList<>(buffer.size());
+            for (PendingEvent next = buffer.first(lastApplied); next != null; next = buffer.first(next.messageNumber())) {
+                pending.add(next);
+            }
+            return new TrackerCheckpoint(toSnapshot(), pending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Current status plus events applied and messages buffered since the previous call.
+     * Used by repositories which store history and pending messages incrementally.
+     * Events evicted by retention before they were drained are not returned.
+     */
+    public TrackerChanges drainChanges() {
+        lock.lock();
+        try {
+            List<AppliedEvent> newEvents = history.since(unsavedFrom);
+            unsavedFrom = history.nextSeq();
+
+            //messages buffered and applied between two drains never need to reach persistence
+            List<PendingEvent> newPending = unsavedPending.stream()
+                    .filter(pending -> buffer.get(pending.messageNumber()) == pending)
+                    .toList();
+            unsavedPending.clear();
+
+            boolean releasePending = pendingPersisted && lastApplied > drainedLastApplied;
+            pendingPersisted = !buffer.isEmpty();
+            drainedLastApplied = lastApplied;
+
+            return new TrackerChanges(statusSnapshot(), newEvents, newPending, releasePending);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Puts persisted out-of-order messages back into the buffer after restore.
+     */
+    public void restorePending(List<PendingEvent> pendingEvents) {
+        lock.lock();
+        try {
+            for (PendingEvent pending : pendingEvents) {
+                int messageNumber = pending.messageNumber();
+                if (messageNumber <= lastApplied || buffer.get(messageNumber) != null) {
+                    continue;
+                }
+                if (!buffer.fits(lastApplied, messageNumber)) {
+                    log.warn("Ignored persisted message beyond reorder window: channel {}, number {}",
+                            status.getChannel(), messageNumber);
+                    continue;
+                }
+                buffer.put(lastApplied, pending);
+            }
+            pendingPersisted = !buffer.isEmpty();
+            if (!pendingPersisted) {
+                gapOpenedAt = 0;
+            } else if (gapOpenedAt == 0) {
+                //persisted before the gap clock was, start it now
+                gapOpenedAt = System.currentTimeMillis();
+            }
+            gapOpenedAfter = lastApplied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private RocketSnapshotDTO statusSnapshot() {
         return RocketSnapshotDTO.builder()
                 .channel(status.getChannel())
                 .type(status.getType())
@@ -145,35 +643,62 @@ public class RocketTracker {
                 .speed(status.getSpeed())
                 .exploded(status.isExploded())
                 .lastMessageTime(status.getLastMessageTime())
-                .history(appliedEvents.stream()
-                        .map(event -> RocketHistoryItem.builder()
-                                .time(event.time())
-                                .type(event.type().name())
-                                .speedAfter(event.speedAfter())
-                                .build())
-                        .toList())
+                .lastApplied(lastApplied)
+                .pendingCount(buffer.size())
+                .gapOpenedAt(buffer.isEmpty() ? 0 : gapOpenedAt)
                 .build();
     }
 
+    /**
+     * Restores tracker from a full snapshot. Restored history counts as already persisted.
+     */
     public void restoreFromSnapshot(RocketSnapshotDTO dto) {
+        restore(dto, null, true);
+    }
+
+    /**
+     * Restores tracker from a status-only snapshot, history is fetched by historyLoader on first access.
+     * Snapshots which still embed history are restored as is, that history is treated as not yet persisted.
+     */
+    public void restoreFromSnapshot(RocketSnapshotDTO dto, Supplier<List<AppliedEvent>> historyLoader) {
+        restore(dto, historyLoader, false);
+    }
+
+    private void restore(RocketSnapshotDTO dto, Supplier<List<AppliedEvent>> loader, boolean embeddedHistorySaved) {
+        lock.lock();
+        try {
+            restoreStatus(dto);
+            int restoredEvents = dto.getHistory() != null ? dto.getHistory().size() : 0;
+            history = restoredEvents > 0 ? new RocketHistory(retention, restoredEvents) : new RocketHistory(retention);
+            if (dto.getHistory() != null) {
+                dto.getHistory().forEach(item -> history.append(item.toAppliedEvent()));
+                historyLoader = null;
+                unsavedFrom = embeddedHistorySaved ? history.nextSeq() : 0;
+            } else {
+                historyLoader = loader;
+                unsavedFrom = 0;
+            }
+            lastApplied = dto.getLastApplied() > 0 ? dto.getLastApplied() : restoredEvents;
+
+            buffer.clear();
+            gapOpenedAt = dto.getGapOpenedAt();
+            gapOpenedAfter = lastApplied;
+            timedOutGaps = null;
+            unsavedPending.clear();
+            pendingPersisted = false;
+            drainedLastApplied = lastApplied;
+            publish();
+            notifyIfChanged(null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void restoreStatus(RocketSnapshotDTO dto) {
         status.setType(dto.getType());
         status.setMission(dto.getMission());
         status.setSpeed(dto.getSpeed());
         status.setExploded(dto.isExploded());
         status.setLastMessageTime(dto.getLastMessageTime());
-
-        appliedEvents.clear();
-        if (dto.getHistory() != null) {
-            dto.getHistory().forEach(history -> appliedEvents.add(
-                    new AppliedEvent(
-                            history.getTime(),
-                            MessageType.valueOf(history.getType()),
-                            history.getSpeedAfter()
-                    )
-            ));
-            lastApplied = dto.getHistory().size();
-        } else {
-            lastApplied = 0;
-        }
     }
 }
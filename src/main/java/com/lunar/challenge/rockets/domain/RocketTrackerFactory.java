@@ -0,0 +1,56 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * Creates trackers with the configured history retention and reorder policy.
+ */
+public class RocketTrackerFactory {
+    private final HistoryRetention retention;
+    private final ReorderPolicy reorder;
+    private final StatusListener listener;
+    private final TrackerMetrics metrics;
+
+    public RocketTrackerFactory(HistoryRetention retention) {
+        this(retention, ReorderPolicy.DEFAULT);
+    }
+
+    public RocketTrackerFactory(HistoryRetention retention, ReorderPolicy reorder) {
+        this(retention, reorder, null, TrackerMetrics.NOOP);
+    }
+
+    private RocketTrackerFactory(HistoryRetention retention, ReorderPolicy reorder,
+                                 StatusListener listener, TrackerMetrics metrics) {
+        this.retention = retention;
+        this.reorder = reorder;
+        this.listener = listener;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Same factory whose trackers report status changes to listener
+     */
+    public RocketTrackerFactory withListener(StatusListener listener) {
+        return new RocketTrackerFactory(retention, reorder, listener, metrics);
+    }
+
+    /**
+     * Same factory whose trackers report hot-path events to metrics
+     */
+    public RocketTrackerFactory withMetrics(TrackerMetrics metrics) {
+        return new RocketTrackerFactory(retention, reorder, listener, metrics);
+    }
+
+    /**
+     * Same factory whose trackers keep history according to retention
+     */
+    public RocketTrackerFactory withRetention(HistoryRetention retention) {
+        return new RocketTrackerFactory(retention, reorder, listener, metrics);
+    }
+
+    public RocketTracker create(String channel) {
+        return new RocketTracker(channel, retention, reorder, listener, metrics);
+    }
+
+    public HistoryRetention retention() {
+        return retention;
+    }
+}
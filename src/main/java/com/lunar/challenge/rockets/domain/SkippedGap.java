@@ -0,0 +1,14 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * Missing message numbers a rocket stopped waiting for once its gap timed out.
+ * Late arrivals of them are ignored as old messages.
+ *
+ * @param first first skipped message number
+ * @param last  last skipped message number, inclusive
+ */
+public record SkippedGap(
+        int first,
+        int last
+) {
+}
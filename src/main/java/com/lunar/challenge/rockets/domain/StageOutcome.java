@@ -0,0 +1,11 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * What happened to a message staged into RocketTracker
+ */
+public enum StageOutcome {
+    APPLIED, //applied to state (or consumed by an exploded rocket)
+    BUFFERED, //waiting for a missing previous message number
+    DUPLICATE, //already applied or already buffered
+    DROPPED //beyond the reorder window, see ReorderPolicy.Overflow.DROP
+}
@@ -0,0 +1,13 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * Part of rocket status fleet queries look rockets up by. Type and mission are the instances held by RocketState,
+ * shared by the SymbolTable, so comparing them mostly stops at identity.
+ */
+public record StatusKey(
+        int speed,
+        String mission,
+        String type,
+        boolean exploded
+) {
+}
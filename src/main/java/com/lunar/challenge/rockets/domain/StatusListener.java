@@ -0,0 +1,10 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * Notified by RocketTracker when speed, mission, type or exploded flag of its rocket changes.
+ * Called under the tracker lock, so calls for one channel never overlap.
+ */
+@FunctionalInterface
+public interface StatusListener {
+    void statusChanged(String channel, StatusKey status);
+}
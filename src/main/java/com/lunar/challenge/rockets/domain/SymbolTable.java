@@ -0,0 +1,114 @@
+package com.lunar.challenge.rockets.domain;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Dictionary of rocket types and missions: a fleet of millions repeats a handful of values like "Falcon-9",
+ * so trackers and fleet indexes keep a compact int id instead of their own copy of the string,
+ * and filtering compares ids.
+ * <p>
+ * Ids are dense, never reused and valid for the lifetime of the process only; persisted values stay strings.
+ * Entries are never evicted, so the table stops growing at its limit: values are sent by clients, a client making up
+ * a new mission per message would otherwise grow it forever. A new value past the limit gets OVERFLOW and its holder
+ * keeps the string itself, so it is freed with the last rocket holding it. A value is either interned from its first
+ * sighting on or never, so equal values always share an id or are both OVERFLOW.
+ * <p>
+ * Lookups by id read an array without locking. Interning a value seen before is one map lookup,
+ * a new value is added under the table lock, a ReentrantLock: values are interned on request threads,
+ * a virtual thread waiting for a monitor would pin its carrier.
+ */
+public final class SymbolTable {
+    public static final int NULL = 0; //id of a missing value
+    public static final int UNKNOWN = -1; //find: the value was never interned, nothing refers to it
+    public static final int OVERFLOW = -2; //the table is full and the value not in it, its holder keeps the string
+    static final int DEFAULT_LIMIT = 1 << 16;
+
+    public static final SymbolTable SHARED = new SymbolTable(DEFAULT_LIMIT);
+
+    private final int limit;
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String[] names = new String[64]; //names[0] stays null
+    private int size = 1; //guarded by lock
+    private volatile boolean full;
+
+    /**
+     * @param limit number of distinct values kept
+     */
+    SymbolTable(int limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * Id of value, added to the table if it is new, OVERFLOW if it is new and the table is full
+     */
+    public int intern(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer id = ids.get(value);
+        return id != null ? id : add(value);
+    }
+
+    /**
+     * Id of value without adding it: UNKNOWN if it was never interned,
+     * OVERFLOW if it is not in the full table and rockets may hold it as a string
+     */
+    public int find(String value) {
+        if (value == null) {
+            return NULL;
+        }
+        Integer id = ids.get(value);
+        if (id != null) {
+            return id;
+        }
+        return full ? OVERFLOW : UNKNOWN;
+    }
+
+    /**
+     * The shared instance of the value with this id, null for NULL
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * The instance a holder of value keeps: the shared one, or value itself if its id is OVERFLOW
+     */
+    public String name(int id, String value) {
+        return id == OVERFLOW ? value : names[id];
+    }
+
+    /**
+     * Number of distinct values interned
+     */
+    public int size() {
+        return ids.size();
+    }
+
+    private int add(String value) {
+        lock.lock();
+        try {
+            Integer existing = ids.get(value);
+            if (existing != null) {
+                return existing;
+            }
+            if (size > limit) {
+                full = true;
+                return OVERFLOW;
+            }
+            String[] grown = size < names.length ? names : Arrays.copyOf(names, names.length * 2);
+            int id = size++;
+            grown[id] = value;
+            //volatile write publishes the name before the id is handed out
+            names = grown;
+            ids.put(value, id);
+            return id;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything that changed in a tracker since the previous drain:
+ * current status (without history), newly applied events and newly buffered out-of-order messages.
+ * Lets repositories persist a rocket incrementally instead of rewriting it.
+ *
+ * @param releasePending true if previously persisted pending messages were applied meanwhile,
+ *                       so everything up to status.lastApplied can be dropped from the pending store
+ */
+public record TrackerChanges(
+        RocketSnapshotDTO status,
+        List<AppliedEvent> newEvents,
+        List<PendingEvent> newPending,
+        boolean releasePending
+) {
+    /**
+     * These changes and the ones drained after them as one write, for a write that failed and is retried.
+     * Keeps the latest maxEvents events, messages applied meanwhile no longer need to reach the pending store.
+     */
+    public TrackerChanges followedBy(TrackerChanges later, int maxEvents) {
+        List<AppliedEvent> events = new ArrayList<>(newEvents.size() + later.newEvents.size());
+        events.addAll(newEvents);
+        events.addAll(later.newEvents);
+        if (events.size() > maxEvents) {
+            events = events.subList(events.size() - maxEvents, events.size());
+        }
+
+        int lastApplied = later.status.getLastApplied();
+        List<PendingEvent> pending = new ArrayList<>(newPending.size() + later.newPending.size());
+        for (PendingEvent message : newPending) {
+            if (message.messageNumber() > lastApplied) {
+                pending.add(message);
+            }
+        }
+        pending.addAll(later.newPending);
+
+        return new TrackerChanges(later.status, List.copyOf(events), pending,
+                releasePending || later.releasePending);
+    }
+}
@@ -0,0 +1,18 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+
+import java.util.List;
+
+/**
+ * Everything a tracker holds at one moment
+ *
+ * @param status  status with the whole history embedded
+ * @param pending buffered messages, lowest number first
+ */
+public record TrackerCheckpoint(
+        RocketSnapshotDTO status,
+        List<PendingEvent> pending
+) {
+}
@@ -0,0 +1,65 @@
+package com.lunar.challenge.rockets.domain;
+
+/**
+ * Hot-path events of RocketTracker for monitoring, called under the tracker lock so they must be cheap.
+ * Optimistic repositories may stage a message more than once, their retries are counted too.
+ */
+public interface TrackerMetrics {
+    TrackerMetrics NOOP = new TrackerMetrics() {
+    };
+
+    /**
+     * Message ignored: already applied or already buffered
+     */
+    default void duplicate() {
+    }
+
+    /**
+     * Message buffered ahead of a missing previous message
+     *
+     * @param bufferDepth buffered messages of the rocket including this one
+     */
+    default void outOfOrder(int bufferDepth) {
+    }
+
+    /**
+     * Message other than an explosion reached an exploded rocket and was ignored
+     */
+    default void droppedAfterExplosion() {
+    }
+
+    /**
+     * Message beyond the reorder window was ignored
+     */
+    default void droppedBeyondWindow() {
+    }
+
+    /**
+     * Missing message numbers given up on
+     *
+     * @param timedOut true if the gap timed out, false if a message arrived beyond the reorder window
+     */
+    default void gapsSkipped(int skipped, boolean timedOut) {
+    }
+
+    /**
+     * Buffered messages of the rocket changed by delta. Messages restored from persistence are not reported,
+     * they were reported when they were buffered.
+     */
+    default void bufferChanged(int delta) {
+    }
+
+    /**
+     * Awaited message of the rocket arrived or was skipped
+     *
+     * @param waitedMillis since it was awaited
+     */
+    default void gapClosed(long waitedMillis) {
+    }
+
+    /**
+     * Tracker lock released after staging messages
+     */
+    default void lockHeld(long nanos) {
+    }
+}
@@ -0,0 +1,14 @@
+package com.lunar.challenge.rockets.domain.event;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Message waiting in the reorder buffer until all previous message numbers are applied.
+ * Immutable: once created it is only read, so it can be shared with persistence.
+ */
+public record PendingEvent(
+        int messageNumber,
+        OffsetDateTime time,
+        RocketEvent event
+) {
+}
@@ -0,0 +1,33 @@
+package com.lunar.challenge.rockets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Result of one message of a batch
+ */
+@Value
+@Builder
+@Schema(description = "Outcome of a single message in a batch")
+public class MessageOutcome {
+    @Schema(description = "Rocket channel", example = "193270a9-c9cf-404a-8f83-838e71d9ae67")
+    String channel;
+
+    @Schema(description = "Message number", example = "42")
+    int messageNumber;
+
+    @Schema(description = "APPLIED, BUFFERED (waiting for a missing message), DUPLICATE, " +
+            "DROPPED (too far ahead of a missing message) or INVALID",
+            example = "APPLIED")
+    Status status;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Why the message is invalid", example = "Unknown messageType: RocketLanded")
+    String error;
+
+    public enum Status {
+        APPLIED, BUFFERED, DUPLICATE, DROPPED, INVALID
+    }
+}
@@ -1,5 +1,7 @@
 package com.lunar.challenge.rockets.dto;
 
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -15,4 +17,16 @@ public class RocketHistoryItem {
     private OffsetDateTime time;
     private String type;
     private int speedAfter;
-}
\ No newline at end of file
+
+    public static RocketHistoryItem from(AppliedEvent event) {
+        return RocketHistoryItem.builder()
+                .time(event.time())
+                .type(event.type().name())
+                .speedAfter(event.speedAfter())
+                .build();
+    }
+
+    public AppliedEvent toAppliedEvent() {
+        return new AppliedEvent(time, MessageType.valueOf(type), speedAfter);
+    }
+}
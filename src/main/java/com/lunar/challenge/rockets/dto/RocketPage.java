@@ -0,0 +1,24 @@
+package com.lunar.challenge.rockets.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of the fleet listing
+ */
+@Value
+@Builder
+@Schema(description = "Page of rockets")
+public class RocketPage {
+    @Schema(description = "Rockets of this page")
+    List<RocketStatusView> items;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    @Schema(description = "Pass as cursor to get the next page, absent on the last page",
+            example = "Yzo5NWQ5ZTU4Mi0xYzQ4LTQ5NjEtOTQ2YS1mNjk3NzM3YjY5YWY")
+    String nextCursor;
+}
@@ -0,0 +1,57 @@
+package com.lunar.challenge.rockets.dto;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Buffered out-of-order message as stored in Redis (flattened RocketEvent)
+ */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class RocketPendingItem {
+    private int messageNumber;
+    private OffsetDateTime time;
+    private String messageType;
+    private String rocketType; //RocketLaunched
+    private String mission; //RocketLaunched, RocketMissionChanged
+    private int value; //launch speed or speed delta
+
+    public static RocketPendingItem from(PendingEvent pending) {
+        RocketPendingItemBuilder builder = RocketPendingItem.builder()
+                .messageNumber(pending.messageNumber())
+                .time(pending.time())
+                .messageType(pending.event().getClass().getSimpleName());
+
+        switch (pending.event()) {
+            case RocketLaunched launched -> builder
+                    .rocketType(launched.type())
+                    .mission(launched.mission())
+                    .value(launched.initialSpeed());
+            case RocketMissionChanged changed -> builder.mission(changed.newMission());
+            case RocketSpeedIncreased increased -> builder.value(increased.delta());
+            case RocketSpeedDecreased decreased -> builder.value(decreased.delta());
+            case RocketExploded ignored -> {
+            }
+        }
+        return builder.build();
+    }
+
+    public PendingEvent toPendingEvent() {
+        RocketEvent event = switch (MessageType.valueOf(messageType)) {
+            case RocketLaunched -> new RocketLaunched(rocketType, mission, value);
+            case RocketMissionChanged -> new RocketMissionChanged(mission);
+            case RocketSpeedIncreased -> new RocketSpeedIncreased(value);
+            case RocketSpeedDecreased -> new RocketSpeedDecreased(value);
+            case RocketExploded -> new RocketExploded();
+        };
+        return new PendingEvent(messageNumber, time, event);
+    }
+}
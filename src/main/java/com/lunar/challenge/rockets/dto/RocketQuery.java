@@ -0,0 +1,22 @@
+package com.lunar.challenge.rockets.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Raw query of the fleet page endpoint, validated by RocketService.
+ */
+@Value
+@Builder
+public class RocketQuery {
+    String cursor;          //opaque cursor from the previous page, null for the first page
+    int limit;
+    String sort;            //channel | speed
+    String order;           //asc | desc
+    String mission;
+    String type;
+    Boolean exploded;
+    Integer minSpeed;
+    Integer maxSpeed;
+    String history;         //none | full | number of latest events
+}
@@ -23,5 +23,8 @@ public class RocketSnapshotDTO {
     private String mission;
     private boolean exploded;
     private OffsetDateTime lastMessageTime;
-    private List<RocketHistoryItem> history;
+    private int lastApplied; //0 for snapshots written before it was persisted
+    private int pendingCount; //buffered out-of-order messages, stored separately
+    private long gapOpenedAt; //epoch millis since the next message is awaited, 0 if nothing is buffered
+    private List<RocketHistoryItem> history; //null when history is stored separately
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.lunar.challenge.rockets.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.lunar.challenge.rockets.domain.event.AppliedEvent;
 import lombok.Builder;
 import lombok.Getter;
@@ -21,5 +22,7 @@ public class RocketStatusView {
     private final String mission;
     private final boolean exploded;
     private final OffsetDateTime lastMessageTime;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL) //omitted in fleet listings
     private List<AppliedEvent> history;
 }
\ No newline at end of file
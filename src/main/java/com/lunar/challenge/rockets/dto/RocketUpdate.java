@@ -0,0 +1,34 @@
+package com.lunar.challenge.rockets.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Latest state of a rocket pushed to subscribers, without history
+ */
+@Value
+@Builder
+@Schema(description = "Rocket state after an applied message")
+public class RocketUpdate {
+    @Schema(description = "Rocket channel", example = "193270a9-c9cf-404a-8f83-838e71d9ae67")
+    String channel;
+
+    @Schema(example = "Falcon-9")
+    String type;
+
+    @Schema(example = "ARTEMIS")
+    String mission;
+
+    @Schema(example = "5000")
+    int speed;
+
+    boolean exploded;
+
+    OffsetDateTime lastMessageTime;
+
+    @Schema(description = "Last message number applied in order", example = "42")
+    int lastApplied;
+}
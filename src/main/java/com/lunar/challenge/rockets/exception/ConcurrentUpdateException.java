@@ -0,0 +1,10 @@
+package com.lunar.challenge.rockets.exception;
+
+/**
+ * Thrown when an optimistic update of a rocket keeps losing to concurrent writers.
+ */
+public class ConcurrentUpdateException extends RuntimeException {
+    public ConcurrentUpdateException(String channel, int attempts) {
+        super("Rocket " + channel + " was concurrently modified, gave up after " + attempts + " attempts");
+    }
+}
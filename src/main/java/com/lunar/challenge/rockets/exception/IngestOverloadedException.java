@@ -0,0 +1,10 @@
+package com.lunar.challenge.rockets.exception;
+
+/**
+ * Thrown when the ingest shard owning a channel has no room for another message.
+ */
+public class IngestOverloadedException extends RuntimeException {
+    public IngestOverloadedException(String channel, int capacity) {
+        super("Ingest queue for rocket " + channel + " is full (" + capacity + " messages), retry later");
+    }
+}
@@ -0,0 +1,10 @@
+package com.lunar.challenge.rockets.exception;
+
+/**
+ * Thrown when an incoming rocket message misses required metadata or has an unknown type.
+ */
+public class InvalidMessageException extends RuntimeException {
+    public InvalidMessageException(String message) {
+        super(message);
+    }
+}
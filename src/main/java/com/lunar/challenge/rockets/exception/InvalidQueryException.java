@@ -0,0 +1,10 @@
+package com.lunar.challenge.rockets.exception;
+
+/**
+ * Thrown when a rocket query has a malformed cursor, limit, sort or history option.
+ */
+public class InvalidQueryException extends RuntimeException {
+    public InvalidQueryException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,454 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.TrackerCheckpoint;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.repository.InMemoryRocketRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.Stream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Append-only journal of accepted messages in memory-mapped segment files, for the in-memory repository.
+ * - an append is a copy into the mapped segment under a short lock, the record is encoded before it
+ * - one sync thread forces the segment to disk; with GROUP sync it completes the futures of whenDurable once their
+ *   position is on disk, and every message appended while an fsync runs is made durable by the next one (group commit)
+ * - appenders never wait for a force, so an ingest shard keeps applying messages while earlier ones are synced
+ * - with ASYNC sync nobody waits, the segment is forced every sync-interval
+ * - a full segment is handed to the sync thread, forced by the next fsync and closed; the next one is started
+ * - a failed force is final: waiting futures and every later append fail instead of waiting forever
+ * - every checkpoint-interval all trackers are written to a checkpoint (JournalCheckpoints) and the segments
+ *   before it are deleted, so recovery time is bounded by the traffic since the last checkpoint
+ * <p>
+ * On startup the latest checkpoint is loaded and the segments after it are replayed through
+ * RocketTracker.stageAndApply before requests are served. Trackers reorder by message number and ignore
+ * duplicates, so the order of records of different requests does not matter, and a message both in the
+ * checkpoint and in a later segment is applied once. Gaps skipped by the gap timeout are journaled as well:
+ * the timeout follows the wall clock, a replay skips the journaled gaps instead of waiting for them again.
+ */
+@Slf4j
+@Component
+@Profile("journal")
+public class FileMessageJournal implements MessageJournal {
+
+    public enum Sync {
+        GROUP, //an accepted message is on disk before it is acknowledged
+        ASYNC //acknowledged right away, up to sync-interval of messages may be lost on a crash
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Sync sync;
+    private final long syncIntervalNanos;
+    private final InMemoryRocketRepository repository;
+    private final Duration checkpointInterval;
+    private final Timer syncTimer;
+    private final DistributionSummary syncBytes;
+    private final Timer checkpointTimer;
+    private final DistributionSummary checkpointBytes;
+    private final ScheduledExecutorService checkpointer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rockets-journal-checkpoint");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private volatile long recoveryMillis;
+    private volatile long recoveredRecords;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition dirty = lock.newCondition();
+    private final Thread syncer;
+    private JournalSegment segment;
+    private final List<JournalSegment> rolled = new ArrayList<>(); //full segments not forced yet
+    private boolean segmentCreated = true; //the directory entry of the segment is not forced yet
+    private final PriorityQueue<DurableWaiter> waiters = new PriorityQueue<>(Comparator.comparingLong(DurableWaiter::position));
+    private long appended; //bytes appended since start, handed out as positions
+    private long durable; //bytes known to be on disk
+    private long checkpointed = -1; //appended bytes covered by the last checkpoint
+    private boolean running = true;
+    private RuntimeException syncFailure; //set once a force fails, nothing appended after is ever durable
+
+    public FileMessageJournal(InMemoryRocketRepository repository,
+                              MeterRegistry meterRegistry,
+                              @Value("${rockets.journal.dir:journal}") Path directory,
+                              @Value("${rockets.journal.segment-size:64MB}") DataSize segmentSize,
+                              @Value("${rockets.journal.sync:GROUP}") Sync sync,
+                              @Value("${rockets.journal.sync-interval:100ms}") Duration syncInterval,
+                              @Value("${rockets.journal.checkpoint-interval:5m}") Duration checkpointInterval) {
+        if (segmentSize.toBytes() < 4096 || segmentSize.toBytes() > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("rockets.journal.segment-size must be 4KB..2GB, got " + segmentSize);
+        }
+        this.repository = repository;
+        this.directory = directory;
+        this.segmentSize = (int) segmentSize.toBytes();
+        this.sync = sync;
+        this.syncIntervalNanos = syncInterval.toNanos();
+        this.checkpointInterval = checkpointInterval;
+        this.syncTimer = Timer.builder("rockets.journal.sync")
+                .description("Forcing the journal to disk")
+                .register(meterRegistry);
+        this.syncBytes = DistributionSummary.builder("rockets.journal.sync.bytes")
+                .description("Journal bytes made durable by one fsync")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.checkpointTimer = Timer.builder("rockets.journal.checkpoint")
+                .description("Writing a checkpoint of all rockets and deleting the segments before it")
+                .register(meterRegistry);
+        this.checkpointBytes = DistributionSummary.builder("rockets.journal.checkpoint.bytes")
+                .description("Size of a checkpoint")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        TimeGauge.builder("rockets.journal.recovery", this, TimeUnit.MILLISECONDS, journal -> journal.recoveryMillis)
+                .description("Time to load the checkpoint and replay the journal on startup")
+                .register(meterRegistry);
+        Gauge.builder("rockets.journal.recovery.replayed", this, journal -> journal.recoveredRecords)
+                .description("Journaled messages replayed after the checkpoint on startup")
+                .register(meterRegistry);
+        this.syncer = Thread.ofPlatform()
+                .name("rockets-journal-sync")
+                .daemon()
+                .unstarted(this::syncLoop);
+    }
+
+    /**
+     * Rebuilds the repository from the latest checkpoint and the segments after it,
+     * opens the last segment for appends
+     */
+    @PostConstruct
+    public void replay() {
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create journal directory " + directory, e);
+        }
+        long start = System.nanoTime();
+        long firstSegment = 0;
+        Path checkpoint = JournalCheckpoints.latest(directory);
+        if (checkpoint != null) {
+            firstSegment = JournalCheckpoints.read(checkpoint, this::restore);
+        }
+        long records = 0;
+        Map<String, List<SkippedGap>> deferredSkips = new HashMap<>();
+        long first = firstSegment;
+        List<Long> indexes = JournalSegment.list(directory).stream()
+                .filter(index -> index >= first)
+                .toList();
+        for (int i = 0; i < indexes.size(); i++) {
+            JournalSegment replayed = JournalSegment.open(directory, indexes.get(i), segmentSize);
+            records += replayed.replay(record -> apply(record, deferredSkips));
+            if (i < indexes.size() - 1) {
+                replayed.close();
+            } else {
+                segment = replayed;
+            }
+        }
+        if (segment == null) {
+            segment = JournalSegment.open(directory, firstSegment, segmentSize);
+        }
+        if (!deferredSkips.isEmpty()) {
+            log.warn("{} rockets keep gaps skipped before the restart, messages before the gaps are not in the journal",
+                    deferredSkips.size());
+        }
+        recoveryMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        recoveredRecords = records;
+        log.info("Restored checkpoint {} and replayed {} journaled messages from {} segments in {} ms",
+                checkpoint, records, indexes.size(), recoveryMillis);
+        syncer.start();
+        if (checkpointInterval.isPositive()) {
+            long intervalMs = checkpointInterval.toMillis();
+            checkpointer.scheduleWithFixedDelay(this::scheduledCheckpoint, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void scheduledCheckpoint() {
+        try {
+            checkpoint();
+        } catch (RuntimeException e) {
+            //the journal keeps growing until a checkpoint succeeds, nothing is lost
+            log.error("Journal checkpoint failed", e);
+        }
+    }
+
+    /**
+     * Writes all rockets to a checkpoint and deletes the segments and checkpoints before it.
+     * Appends go on meanwhile into a new segment, which is replayed after the checkpoint.
+     */
+    public void checkpoint() {
+        long nextSegment;
+        long covered;
+        lock.lock();
+        try {
+            if (appended == checkpointed) {
+                return;
+            }
+            roll();
+            nextSegment = segment.index();
+            covered = appended;
+        } finally {
+            lock.unlock();
+        }
+        long start = System.nanoTime();
+        List<RocketTracker> trackers = repository.findAll();
+        long bytes = JournalCheckpoints.write(directory, nextSegment, trackers);
+        int deleted = JournalCheckpoints.deleteBefore(directory, nextSegment);
+        lock.lock();
+        try {
+            checkpointed = covered;
+        } finally {
+            lock.unlock();
+        }
+        long took = System.nanoTime() - start;
+        checkpointTimer.record(took, TimeUnit.NANOSECONDS);
+        checkpointBytes.record(bytes);
+        log.info("Checkpointed {} rockets into {} bytes and deleted {} segments in {} ms",
+                trackers.size(), bytes, deleted, TimeUnit.NANOSECONDS.toMillis(took));
+    }
+
+    private void restore(TrackerCheckpoint checkpoint) {
+        repository.apply(checkpoint.status().getChannel(), tracker -> {
+            tracker.restoreFromSnapshot(checkpoint.status());
+            tracker.restorePending(checkpoint.pending());
+        });
+    }
+
+    /**
+     * Stages a journaled message or skips journaled gaps. A gap reached before the messages preceding it,
+     * whose records were appended after it, waits in deferredSkips and is retried with later records of its rocket.
+     */
+    private void apply(JournalRecord record, Map<String, List<SkippedGap>> deferredSkips) {
+        String channel = record.channel();
+        PendingEvent message = record.message();
+        List<SkippedGap> deferred = deferredSkips.remove(channel);
+        List<SkippedGap> skips = deferred == null
+                ? record.skipped()
+                : Stream.concat(deferred.stream(), record.skipped().stream()).toList();
+        repository.apply(channel, tracker -> {
+            if (message != null) {
+                MessageType type = MessageType.valueOf(message.event().getClass().getSimpleName());
+                tracker.stageAndApply(message.messageNumber(), message.time(), type, message.event());
+            }
+            //only the journaled run decides which gaps time out
+            tracker.drainTimedOutGaps();
+            if (!skips.isEmpty()) {
+                List<SkippedGap> waiting = tracker.skipMissing(skips);
+                if (!waiting.isEmpty()) {
+                    deferredSkips.put(channel, waiting);
+                }
+            }
+        });
+    }
+
+    @Override
+    public long append(String channel, PendingEvent message) {
+        return write(JournalCodec.encode(channel, message));
+    }
+
+    @Override
+    public long appendSkipped(String channel, List<SkippedGap> gaps) {
+        return write(JournalCodec.encodeSkipped(channel, gaps));
+    }
+
+    private long write(byte[] record) {
+        if (record.length > segmentSize) {
+            throw new IllegalArgumentException("Record of " + record.length + " bytes does not fit a journal segment");
+        }
+        lock.lock();
+        try {
+            if (!running) {
+                throw new IllegalStateException("Journal is closed");
+            }
+            if (syncFailure != null) {
+                throw new IllegalStateException("Journal sync failed", syncFailure);
+            }
+            if (!segment.fits(record.length)) {
+                roll();
+            }
+            segment.write(record);
+            appended += record.length;
+            if (sync == Sync.GROUP) {
+                dirty.signal();
+            }
+            return appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Void> whenDurable(long position) {
+        if (sync != Sync.GROUP) {
+            return CompletableFuture.completedFuture(null);
+        }
+        lock.lock();
+        try {
+            if (durable >= position) {
+                return CompletableFuture.completedFuture(null);
+            }
+            if (syncFailure != null) {
+                return CompletableFuture.failedFuture(new IllegalStateException("Journal sync failed", syncFailure));
+            }
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            waiters.add(new DurableWaiter(position, future));
+            return future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Starts the next segment, the full one is forced and closed by the sync thread. Must be called under lock.
+     */
+    private void roll() {
+        JournalSegment next = JournalSegment.open(directory, segment.index() + 1, segmentSize);
+        if (durable == appended) {
+            //nothing of it waits for a force, and the sync thread is not forcing it
+            segment.close();
+        } else {
+            rolled.add(segment);
+        }
+        segment = next;
+        segmentCreated = true;
+        log.debug("Started journal segment {}", segment.index());
+    }
+
+    private void syncLoop() {
+        while (true) {
+            if (sync == Sync.ASYNC) {
+                LockSupport.parkNanos(this, syncIntervalNanos);
+            }
+            List<JournalSegment> full;
+            JournalSegment target;
+            boolean created;
+            long position;
+            lock.lock();
+            try {
+                while (sync == Sync.GROUP && running && appended == durable) {
+                    dirty.awaitUninterruptibly();
+                }
+                if (appended == durable) {
+                    if (!running) {
+                        return;
+                    }
+                    continue;
+                }
+                full = List.copyOf(rolled);
+                rolled.clear();
+                target = segment;
+                created = segmentCreated;
+                segmentCreated = false;
+                position = appended;
+            } finally {
+                lock.unlock();
+            }
+            //appends go on while the segments are forced, the next fsync takes all of them
+            long start = System.nanoTime();
+            try {
+                for (JournalSegment forced : full) {
+                    forced.force();
+                    forced.close();
+                }
+                target.force();
+                if (created) {
+                    //records of a new segment are lost with it if its file name did not make it to disk
+                    JournalSegment.forceDirectory(directory);
+                }
+            } catch (RuntimeException e) {
+                //a failed fsync may have dropped the dirty pages, retrying could report them durable
+                log.error("Journal sync failed, refusing further appends", e);
+                fail(e);
+                return;
+            }
+            syncTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            List<DurableWaiter> done = new ArrayList<>();
+            lock.lock();
+            try {
+                syncBytes.record(position - durable);
+                durable = position;
+                while (!waiters.isEmpty() && waiters.peek().position() <= position) {
+                    done.add(waiters.poll());
+                }
+            } finally {
+                lock.unlock();
+            }
+            //acknowledgements and updates depending on the futures run here, outside the lock
+            for (DurableWaiter waiter : done) {
+                waiter.future().complete(null);
+            }
+        }
+    }
+
+    private void fail(RuntimeException failure) {
+        List<DurableWaiter> failed;
+        lock.lock();
+        try {
+            syncFailure = failure;
+            failed = List.copyOf(waiters);
+            waiters.clear();
+        } finally {
+            lock.unlock();
+        }
+        IllegalStateException journalFailure = new IllegalStateException("Journal sync failed", failure);
+        for (DurableWaiter waiter : failed) {
+            waiter.future().completeExceptionally(journalFailure);
+        }
+    }
+
+    private record DurableWaiter(long position, CompletableFuture<Void> future) {
+    }
+
+    /**
+     * Checkpoints, syncs what is appended and closes the segment, the web server stops taking requests before this
+     */
+    @PreDestroy
+    public void close() throws InterruptedException {
+        checkpointer.shutdown();
+        checkpointer.awaitTermination(1, TimeUnit.MINUTES);
+        if (checkpointInterval.isPositive() && segment != null) {
+            scheduledCheckpoint();
+        }
+        lock.lock();
+        try {
+            running = false;
+            dirty.signal();
+        } finally {
+            lock.unlock();
+        }
+        LockSupport.unpark(syncer);
+        syncer.join();
+        //left over only if a sync failed
+        rolled.forEach(JournalSegment::close);
+        if (segment != null) {
+            segment.close();
+        }
+    }
+}
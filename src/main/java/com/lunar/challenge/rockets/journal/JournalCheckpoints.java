@@ -0,0 +1,291 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.TrackerCheckpoint;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Binary snapshots of every tracker, named after the first journal segment to replay after them.
+ * Layout: int magic | int version | long next segment | int trackers | trackers | int CRC32C of everything before.
+ * Tracker: status, lastApplied, gap clock, history (time, type, speed after), buffered messages as journal records.
+ * Rocket type and mission are dictionary encoded: an int index into the values of the file, -1 for null,
+ * a value appearing for the first time takes the next index and follows it. Version 1 stored them as strings.
+ * <p>
+ * A checkpoint is written to a temporary file, forced and renamed, so a crash leaves the previous one intact.
+ * The directory is forced after the rename, before deleteBefore removes anything the checkpoint replaces.
+ */
+final class JournalCheckpoints {
+    private static final Pattern NAME = Pattern.compile("checkpoint-(\\d{20})\\.bin");
+    private static final int MAGIC = 0x524B4350; //RKCP
+    private static final int VERSION = 2;
+    private static final int STRING_SYMBOLS_VERSION = 1;
+    private static final int NULL_SYMBOL = -1;
+
+    private JournalCheckpoints() {
+    }
+
+    /**
+     * Writes a checkpoint of trackers, each one is copied under its own lock while the file is written
+     *
+     * @return size of the checkpoint in bytes
+     */
+    static long write(Path directory, long nextSegment, List<RocketTracker> trackers) {
+        Path file = path(directory, nextSegment);
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (OutputStream raw = new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16)) {
+                CheckedOutputStream checked = new CheckedOutputStream(raw, new CRC32C());
+                DataOutputStream out = new DataOutputStream(checked);
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeLong(nextSegment);
+                out.writeInt(trackers.size());
+                Map<String, Integer> symbols = new HashMap<>();
+                for (RocketTracker tracker : trackers) {
+                    writeTracker(out, tracker.checkpoint(), symbols);
+                }
+                out.flush();
+                new DataOutputStream(raw).writeInt((int) checked.getChecksum().getValue());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            //until the rename is on disk a crash brings back the previous checkpoint, whose segments are deleted next
+            JournalSegment.forceDirectory(directory);
+            return Files.size(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write journal checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Latest checkpoint in directory, null if there is none
+     */
+    static Path latest(Path directory) {
+        List<Long> checkpoints = list(directory);
+        return checkpoints.isEmpty() ? null : path(directory, checkpoints.getLast());
+    }
+
+    /**
+     * Hands every tracker of the checkpoint to consumer.
+     * The checksum is verified after the last one, a corrupt checkpoint fails recovery rather than being skipped:
+     * segments before it are already deleted.
+     *
+     * @return first journal segment to replay after the checkpoint
+     */
+    static long read(Path file, Consumer<TrackerCheckpoint> consumer) {
+        try (InputStream raw = new BufferedInputStream(Files.newInputStream(file), 1 << 16)) {
+            CheckedInputStream checked = new CheckedInputStream(raw, new CRC32C());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC) {
+                throw new IllegalStateException("Not a journal checkpoint: " + file);
+            }
+            int version = in.readInt();
+            if (version != VERSION && version != STRING_SYMBOLS_VERSION) {
+                throw new IllegalStateException("Unsupported journal checkpoint version " + version + ": " + file);
+            }
+            long nextSegment = in.readLong();
+            int trackers = in.readInt();
+            List<String> symbols = version == VERSION ? new ArrayList<>() : null;
+            for (int i = 0; i < trackers; i++) {
+                consumer.accept(readTracker(in, symbols));
+            }
+            int expected = (int) checked.getChecksum().getValue();
+            if (new DataInputStream(raw).readInt() != expected) {
+                throw new IllegalStateException("Journal checkpoint is corrupt: " + file);
+            }
+            return nextSegment;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read journal checkpoint " + file, e);
+        }
+    }
+
+    /**
+     * Deletes checkpoints and segments older than the checkpoint starting at nextSegment
+     *
+     * @return number of deleted segments
+     */
+    static int deleteBefore(Path directory, long nextSegment) {
+        int deleted = 0;
+        try {
+            for (long checkpoint : list(directory)) {
+                if (checkpoint < nextSegment) {
+                    Files.deleteIfExists(path(directory, checkpoint));
+                }
+            }
+            for (long segment : JournalSegment.list(directory)) {
+                if (segment < nextSegment) {
+                    Files.deleteIfExists(JournalSegment.path(directory, segment));
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot compact journal " + directory, e);
+        }
+        return deleted;
+    }
+
+    private static List<Long> list(Path directory) {
+        List<Long> indexes = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal " + directory, e);
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    private static Path path(Path directory, long nextSegment) {
+        return directory.resolve("checkpoint-%020d.bin".formatted(nextSegment));
+    }
+
+    private static void writeTracker(DataOutputStream out, TrackerCheckpoint checkpoint, Map<String, Integer> symbols)
+            throws IOException {
+        RocketSnapshotDTO status = checkpoint.status();
+        writeString(out, status.getChannel());
+        writeSymbol(out, status.getType(), symbols);
+        writeSymbol(out, status.getMission(), symbols);
+        out.writeInt(status.getSpeed());
+        out.writeBoolean(status.isExploded());
+        writeTime(out, status.getLastMessageTime());
+        out.writeInt(status.getLastApplied());
+        out.writeLong(status.getGapOpenedAt());
+        out.writeInt(status.getHistory().size());
+        for (RocketHistoryItem item : status.getHistory()) {
+            writeTime(out, item.getTime());
+            out.writeByte(MessageType.valueOf(item.getType()).ordinal());
+            out.writeInt(item.getSpeedAfter());
+        }
+        out.writeInt(checkpoint.pending().size());
+        for (PendingEvent pending : checkpoint.pending()) {
+            byte[] record = JournalCodec.encode(status.getChannel(), pending);
+            out.writeInt(record.length);
+            out.write(record);
+        }
+    }
+
+    /**
+     * @param symbols values read so far, null for a version 1 checkpoint with plain strings
+     */
+    private static TrackerCheckpoint readTracker(DataInputStream in, List<String> symbols) throws IOException {
+        RocketSnapshotDTO status = RocketSnapshotDTO.builder()
+                .channel(readString(in))
+                .type(symbols != null ? readSymbol(in, symbols) : readString(in))
+                .mission(symbols != null ? readSymbol(in, symbols) : readString(in))
+                .speed(in.readInt())
+                .exploded(in.readBoolean())
+                .lastMessageTime(readTime(in))
+                .lastApplied(in.readInt())
+                .gapOpenedAt(in.readLong())
+                .build();
+        int historySize = in.readInt();
+        List<RocketHistoryItem> history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(new RocketHistoryItem(readTime(in), MessageType.values()[in.readByte()].name(), in.readInt()));
+        }
+        status.setHistory(history);
+        int pendingSize = in.readInt();
+        List<PendingEvent> pending = new ArrayList<>(pendingSize);
+        for (int i = 0; i < pendingSize; i++) {
+            byte[] record = new byte[in.readInt()];
+            in.readFully(record);
+            pending.add(JournalCodec.decode(ByteBuffer.wrap(record)).message());
+        }
+        status.setPendingCount(pendingSize);
+        return new TrackerCheckpoint(status, pending);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+
+    private static void writeSymbol(DataOutputStream out, String value, Map<String, Integer> symbols)
+            throws IOException {
+        if (value == null) {
+            out.writeInt(NULL_SYMBOL);
+            return;
+        }
+        Integer index = symbols.get(value);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        index = symbols.size();
+        symbols.put(value, index);
+        out.writeInt(index);
+        out.writeUTF(value);
+    }
+
+    private static String readSymbol(DataInputStream in, List<String> symbols) throws IOException {
+        int index = in.readInt();
+        if (index == NULL_SYMBOL) {
+            return null;
+        }
+        if (index == symbols.size()) {
+            symbols.add(in.readUTF());
+        }
+        return symbols.get(index);
+    }
+
+    private static void writeTime(DataOutputStream out, OffsetDateTime time) throws IOException {
+        out.writeBoolean(time != null);
+        if (time != null) {
+            out.writeLong(time.toEpochSecond());
+            out.writeInt(time.getNano());
+            out.writeInt(time.getOffset().getTotalSeconds());
+        }
+    }
+
+    private static OffsetDateTime readTime(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) {
+            return null;
+        }
+        Instant instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(in.readInt()));
+    }
+}
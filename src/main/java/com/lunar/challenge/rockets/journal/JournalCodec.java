@@ -0,0 +1,224 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.domain.event.RocketEvent;
+import com.lunar.challenge.rockets.domain.event.RocketExploded;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketMissionChanged;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedDecreased;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Binary layout of journal records:
+ * int payload length | int CRC32C of payload | payload
+ * payload: channel | int messageNumber | time | byte event kind | event fields
+ * skipped gaps: channel | int 0 | no time | byte GAPS_SKIPPED | int count | count x (int first, int last)
+ * <p>
+ * Segments are zero-filled, so a zero length marks the end of written records,
+ * a record with a wrong checksum is a write torn by a crash.
+ */
+final class JournalCodec {
+    static final int HEADER_BYTES = 8;
+
+    private static final byte LAUNCHED = 1;
+    private static final byte SPEED_INCREASED = 2;
+    private static final byte SPEED_DECREASED = 3;
+    private static final byte MISSION_CHANGED = 4;
+    private static final byte EXPLODED = 5;
+    private static final byte GAPS_SKIPPED = 6;
+
+    private JournalCodec() {
+    }
+
+    /**
+     * Whole record with header, encoded outside of the journal lock
+     */
+    static byte[] encode(String channel, PendingEvent message) {
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        RocketEvent event = message.event();
+        byte[] first = null;
+        byte[] second = null;
+        int eventBytes = 1;
+        switch (event) {
+            case RocketLaunched launched -> {
+                first = utf8(launched.type());
+                second = utf8(launched.mission());
+                eventBytes += stringBytes(first) + stringBytes(second) + Integer.BYTES;
+            }
+            case RocketMissionChanged changed -> {
+                first = utf8(changed.newMission());
+                eventBytes += stringBytes(first);
+            }
+            case RocketSpeedIncreased ignored -> eventBytes += Integer.BYTES;
+            case RocketSpeedDecreased ignored -> eventBytes += Integer.BYTES;
+            case RocketExploded ignored -> {
+            }
+        }
+        int payload = stringBytes(channelBytes) + Integer.BYTES + TIME_BYTES + eventBytes;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload);
+        buffer.putInt(payload).putInt(0);
+        putString(buffer, channelBytes);
+        buffer.putInt(message.messageNumber());
+        putTime(buffer, message.time());
+        switch (event) {
+            case RocketLaunched launched -> {
+                buffer.put(LAUNCHED);
+                putString(buffer, first);
+                putString(buffer, second);
+                buffer.putInt(launched.initialSpeed());
+            }
+            case RocketMissionChanged ignored -> {
+                buffer.put(MISSION_CHANGED);
+                putString(buffer, first);
+            }
+            case RocketSpeedIncreased increased -> buffer.put(SPEED_INCREASED).putInt(increased.delta());
+            case RocketSpeedDecreased decreased -> buffer.put(SPEED_DECREASED).putInt(decreased.delta());
+            case RocketExploded ignored -> buffer.put(EXPLODED);
+        }
+        return seal(buffer.array(), payload);
+    }
+
+    /**
+     * Whole record of gaps a tracker skipped, with header
+     */
+    static byte[] encodeSkipped(String channel, List<SkippedGap> gaps) {
+        byte[] channelBytes = channel.getBytes(StandardCharsets.UTF_8);
+        int payload = stringBytes(channelBytes) + Integer.BYTES + TIME_BYTES + 1
+                + Integer.BYTES + gaps.size() * 2 * Integer.BYTES;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload);
+        buffer.putInt(payload).putInt(0);
+        putString(buffer, channelBytes);
+        buffer.putInt(0);
+        putTime(buffer, null);
+        buffer.put(GAPS_SKIPPED).putInt(gaps.size());
+        for (SkippedGap gap : gaps) {
+            buffer.putInt(gap.first()).putInt(gap.last());
+        }
+        return seal(buffer.array(), payload);
+    }
+
+    private static byte[] seal(byte[] record, int payload) {
+        ByteBuffer.wrap(record).putInt(Integer.BYTES, checksum(record, HEADER_BYTES, payload));
+        return record;
+    }
+
+    /**
+     * Reads the record at the position of buffer and moves past it
+     *
+     * @return null at the end of written records or at a torn record, buffer position is not moved then
+     */
+    static JournalRecord decode(ByteBuffer buffer) {
+        int start = buffer.position();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        int payload = buffer.getInt(start);
+        int crc = buffer.getInt(start + Integer.BYTES);
+        if (payload <= 0 || payload > buffer.remaining() - HEADER_BYTES
+                || checksum(buffer, start + HEADER_BYTES, payload) != crc) {
+            return null;
+        }
+        buffer.position(start + HEADER_BYTES);
+        String channel = getString(buffer);
+        int messageNumber = buffer.getInt();
+        OffsetDateTime time = getTime(buffer);
+        byte kind = buffer.get();
+        if (kind == GAPS_SKIPPED) {
+            int count = buffer.getInt();
+            List<SkippedGap> gaps = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                gaps.add(new SkippedGap(buffer.getInt(), buffer.getInt()));
+            }
+            return new JournalRecord(channel, null, List.copyOf(gaps));
+        }
+        RocketEvent event = switch (kind) {
+            case LAUNCHED -> new RocketLaunched(getString(buffer), getString(buffer), buffer.getInt());
+            case SPEED_INCREASED -> new RocketSpeedIncreased(buffer.getInt());
+            case SPEED_DECREASED -> new RocketSpeedDecreased(buffer.getInt());
+            case MISSION_CHANGED -> new RocketMissionChanged(getString(buffer));
+            case EXPLODED -> new RocketExploded();
+            default -> throw new IllegalStateException("Unknown event kind in journal at " + start);
+        };
+        return new JournalRecord(channel, new PendingEvent(messageNumber, time, event));
+    }
+
+    /**
+     * Declared length of the record at position, to clear a torn record
+     */
+    static int declaredLength(ByteBuffer buffer, int position) {
+        return buffer.limit() - position < HEADER_BYTES ? 0 : HEADER_BYTES + Math.max(0, buffer.getInt(position));
+    }
+
+    //epoch second, nano, offset seconds; a byte flags a missing time
+    static final int TIME_BYTES = 1 + Long.BYTES + Integer.BYTES + Integer.BYTES;
+
+    static void putTime(ByteBuffer buffer, OffsetDateTime time) {
+        if (time == null) {
+            buffer.put((byte) 0).putLong(0).putInt(0).putInt(0);
+            return;
+        }
+        buffer.put((byte) 1)
+                .putLong(time.toEpochSecond())
+                .putInt(time.getNano())
+                .putInt(time.getOffset().getTotalSeconds());
+    }
+
+    static OffsetDateTime getTime(ByteBuffer buffer) {
+        boolean present = buffer.get() != 0;
+        long epochSecond = buffer.getLong();
+        int nano = buffer.getInt();
+        int offset = buffer.getInt();
+        return present
+                ? OffsetDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nano), ZoneOffset.ofTotalSeconds(offset))
+                : null;
+    }
+
+    static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    //int length, -1 for null
+    static int stringBytes(byte[] utf8) {
+        return Integer.BYTES + (utf8 != null ? utf8.length : 0);
+    }
+
+    static void putString(ByteBuffer buffer, byte[] utf8) {
+        if (utf8 == null) {
+            buffer.putInt(-1);
+            return;
+        }
+        buffer.putInt(utf8.length).put(utf8);
+    }
+
+    static String getString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        buffer.get(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    private static int checksum(byte[] bytes, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    private static int checksum(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,18 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+
+import java.util.List;
+
+/**
+ * One journaled message, or the gaps a tracker skipped once they timed out
+ *
+ * @param message null for skipped gaps
+ * @param skipped empty for a message
+ */
+record JournalRecord(String channel, PendingEvent message, List<SkippedGap> skipped) {
+    JournalRecord(String channel, PendingEvent message) {
+        this(channel, message, List.of());
+    }
+}
@@ -0,0 +1,130 @@
+package com.lunar.challenge.rockets.journal;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * One journal file of a fixed size, mapped into memory as a whole.
+ * Files are created sparse and zero-filled, appends are plain memory writes made durable by force().
+ * Not thread-safe, FileMessageJournal writes under its lock.
+ */
+final class JournalSegment {
+    private static final Pattern NAME = Pattern.compile("segment-(\\d{20})\\.journal");
+
+    private final Path path;
+    private final long index;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+
+    private JournalSegment(Path path, long index, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.index = index;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    /**
+     * Opens or creates segment index in directory, positioned at its start
+     */
+    static JournalSegment open(Path directory, long index, int size) {
+        Path path = path(directory, index);
+        try {
+            FileChannel channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long mappedSize = Math.max(size, channel.size());
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, mappedSize);
+            return new JournalSegment(path, index, channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open journal segment " + path, e);
+        }
+    }
+
+    static Path path(Path directory, long index) {
+        return directory.resolve("segment-%020d.journal".formatted(index));
+    }
+
+    /**
+     * Forces the entries of directory to disk: a created or renamed file survives a crash only after this
+     */
+    static void forceDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot force journal directory " + directory, e);
+        }
+    }
+
+    /**
+     * Indexes of segments in directory, oldest first
+     */
+    static List<Long> list(Path directory) {
+        List<Long> indexes = new ArrayList<>();
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    indexes.add(Long.parseLong(matcher.group(1)));
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list journal " + directory, e);
+        }
+        indexes.sort(null);
+        return indexes;
+    }
+
+    /**
+     * Hands every intact record to consumer and leaves the position after the last one.
+     * A torn record at the end is cleared, so it can't be mistaken for a record after later appends.
+     *
+     * @return number of records read
+     */
+    long replay(Consumer<JournalRecord> consumer) {
+        buffer.position(0);
+        long records = 0;
+        for (JournalRecord record = JournalCodec.decode(buffer); record != null; record = JournalCodec.decode(buffer)) {
+            consumer.accept(record);
+            records++;
+        }
+        int end = buffer.position();
+        int torn = Math.min(JournalCodec.declaredLength(buffer, end), buffer.capacity() - end);
+        for (int i = 0; i < torn; i++) {
+            buffer.put(end + i, (byte) 0);
+        }
+        return records;
+    }
+
+    boolean fits(int bytes) {
+        return buffer.remaining() >= bytes;
+    }
+
+    void write(byte[] record) {
+        buffer.put(record);
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close journal segment " + path, e);
+        }
+    }
+
+    long index() {
+        return index;
+    }
+}
@@ -0,0 +1,69 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Durable log of accepted messages, replayed into trackers on startup.
+ * Appending and waiting for durability are separate, so a batch of messages waits for one fsync
+ * and an ingest shard appends without waiting for any.
+ */
+public interface MessageJournal {
+    MessageJournal NONE = new MessageJournal() {
+        @Override
+        public long append(String channel, PendingEvent message) {
+            return 0;
+        }
+
+        @Override
+        public long appendSkipped(String channel, List<SkippedGap> gaps) {
+            return 0;
+        }
+
+        @Override
+        public CompletableFuture<Void> whenDurable(long position) {
+            return CompletableFuture.completedFuture(null);
+        }
+    };
+
+    /**
+     * Appends a message accepted by the tracker of channel
+     *
+     * @return position to wait for with whenDurable
+     */
+    long append(String channel, PendingEvent message);
+
+    /**
+     * Appends gaps the tracker of channel skipped once they timed out. The timeout follows the wall clock,
+     * replay skips the same messages instead of waiting for them again.
+     *
+     * @return position to wait for with whenDurable
+     */
+    long appendSkipped(String channel, List<SkippedGap> gaps);
+
+    /**
+     * @return future completed once everything appended up to position is on disk, by the thread that synced it;
+     * failed with IllegalStateException if the journal failed to sync and never will
+     */
+    CompletableFuture<Void> whenDurable(long position);
+
+    /**
+     * Returns once everything appended up to position is on disk, never call it on an ingest shard
+     *
+     * @throws IllegalStateException if the journal failed to sync and never will
+     */
+    default void awaitDurable(long position) {
+        try {
+            whenDurable(position).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
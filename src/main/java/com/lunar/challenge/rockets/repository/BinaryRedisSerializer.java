@@ -0,0 +1,71 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.util.function.Function;
+
+/**
+ * Writes values in the compact {@link SnapshotCodec} layout and reads both it and the JSON written before,
+ * so existing keys stay readable until they are next saved or expire.
+ */
+public final class BinaryRedisSerializer<T> implements RedisSerializer<T> {
+    private static final byte[] EMPTY = new byte[0];
+
+    private final Class<T> type;
+    private final Function<T, byte[]> encoder;
+    private final Function<byte[], T> decoder;
+    private final Jackson2JsonRedisSerializer<T> json;
+
+    private BinaryRedisSerializer(Class<T> type, Function<T, byte[]> encoder, Function<byte[], T> decoder,
+                                  ObjectMapper mapper) {
+        this.type = type;
+        this.encoder = encoder;
+        this.decoder = decoder;
+        this.json = new Jackson2JsonRedisSerializer<>(mapper, type);
+    }
+
+    public static BinaryRedisSerializer<RocketSnapshotDTO> snapshots(ObjectMapper mapper) {
+        return new BinaryRedisSerializer<>(RocketSnapshotDTO.class, SnapshotCodec::encode, SnapshotCodec::decode, mapper);
+    }
+
+    public static BinaryRedisSerializer<RocketHistoryItem> historyItems(ObjectMapper mapper) {
+        return new BinaryRedisSerializer<>(RocketHistoryItem.class, SnapshotCodec::encodeItem, SnapshotCodec::decodeItem, mapper);
+    }
+
+    @Override
+    public byte[] serialize(T value) throws SerializationException {
+        if (value == null) {
+            return EMPTY;
+        }
+        try {
+            return encoder.apply(value);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not write " + type.getSimpleName() + " to Redis", e);
+        }
+    }
+
+    @Override
+    public T deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] == '{') {
+            return json.deserialize(bytes);
+        }
+        try {
+            return decoder.apply(bytes);
+        } catch (RuntimeException e) {
+            throw new SerializationException("Could not read " + type.getSimpleName() + " from Redis", e);
+        }
+    }
+
+    @Override
+    public Class<?> getTargetType() {
+        return type;
+    }
+}
@@ -0,0 +1,175 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.StatusKey;
+import com.lunar.challenge.rockets.domain.StatusListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Secondary indexes of an in-process fleet, maintained incrementally from tracker status changes:
+ * - speed ranking: skip-list of (speed, channel)
+ * - groups by mission and type (keyed by the value, mostly the SymbolTable instance), exploded rockets:
+ *   skip-lists of channels
+ * <p>
+ * A query walks one skip-list from its start, so it costs O(log n + k) for k rockets.
+ * Updates of one channel are serialized by its tracker lock, different channels update in parallel.
+ * On update the new entry is added before the old one is removed, ranking skips entries that are no longer current.
+ */
+public class FleetIndex implements StatusListener {
+    record SpeedEntry(int speed, String channel) implements Comparable<SpeedEntry> {
+        @Override
+        public int compareTo(SpeedEntry other) {
+            int bySpeed = Integer.compare(speed, other.speed);
+            return bySpeed != 0 ? bySpeed : channel.compareTo(other.channel);
+        }
+    }
+
+    //channel -> status it is indexed under
+    private final Map<String, StatusKey> indexed = new ConcurrentHashMap<>();
+    private final NavigableSet<SpeedEntry> bySpeed = new ConcurrentSkipListSet<>();
+    private final Map<String, NavigableSet<String>> byMission = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<String>> byType = new ConcurrentHashMap<>();
+    private final NavigableSet<String> exploded = new ConcurrentSkipListSet<>();
+
+    @Override
+    public void statusChanged(String channel, StatusKey status) {
+        StatusKey previous = indexed.put(channel, status);
+
+        bySpeed.add(new SpeedEntry(status.speed(), channel));
+        addToGroup(byMission, status.mission(), channel);
+        addToGroup(byType, status.type(), channel);
+        if (status.exploded()) {
+            exploded.add(channel);
+        }
+
+        if (previous == null) {
+            return;
+        }
+        if (previous.speed() != status.speed()) {
+            bySpeed.remove(new SpeedEntry(previous.speed(), channel));
+        }
+        if (!Objects.equals(previous.mission(), status.mission())) {
+            removeFromGroup(byMission, previous.mission(), channel);
+        }
+        if (!Objects.equals(previous.type(), status.type())) {
+            removeFromGroup(byType, previous.type(), channel);
+        }
+        if (previous.exploded() && !status.exploded()) {
+            exploded.remove(channel);
+        }
+    }
+
+    /**
+     * Drops channel from every index, must not race with a status change of the same channel
+     */
+    public void remove(String channel) {
+        StatusKey previous = indexed.remove(channel);
+        if (previous == null) {
+            return;
+        }
+        bySpeed.remove(new SpeedEntry(previous.speed(), channel));
+        removeFromGroup(byMission, previous.mission(), channel);
+        removeFromGroup(byType, previous.type(), channel);
+        exploded.remove(channel);
+    }
+
+    /**
+     * Number of indexed rockets
+     */
+    public int size() {
+        return indexed.size();
+    }
+
+    /**
+     * Channels of the fastest rockets, fastest first
+     */
+    public List<String> fastest(int limit) {
+        List<String> channels = new ArrayList<>(Math.min(limit, 1024));
+        for (SpeedEntry entry : bySpeed.descendingSet()) {
+            if (channels.size() >= limit) {
+                break;
+            }
+            StatusKey current = indexed.get(entry.channel());
+            if (current != null && current.speed() == entry.speed()) {
+                channels.add(entry.channel());
+            }
+        }
+        return channels;
+    }
+
+    /**
+     * Current entries in speed order, channel breaking ties, starting right after the channel and speed of after.
+     * Lazy: a page reads O(log n + k) entries.
+     *
+     * @param after null to start from the slowest, or fastest if descending
+     */
+    Stream<SpeedEntry> bySpeed(RankedTracker after, boolean descending) {
+        NavigableSet<SpeedEntry> view = descending ? bySpeed.descendingSet() : bySpeed;
+        if (after != null) {
+            view = view.tailSet(new SpeedEntry(after.speed(), after.channel()), false);
+        }
+        return view.stream().filter(entry -> {
+            StatusKey current = indexed.get(entry.channel());
+            return current != null && current.speed() == entry.speed();
+        });
+    }
+
+    /**
+     * Channels of rockets on a mission, in channel order
+     */
+    public List<String> byMission(String mission, int limit) {
+        return first(byMission.get(mission), limit);
+    }
+
+    /**
+     * Channels of rockets of a type, in channel order
+     */
+    public List<String> byType(String type, int limit) {
+        return first(byType.get(type), limit);
+    }
+
+    /**
+     * Channels of exploded rockets, in channel order
+     */
+    public List<String> exploded(int limit) {
+        return first(exploded, limit);
+    }
+
+    private static List<String> first(NavigableSet<String> channels, int limit) {
+        if (channels == null) {
+            return List.of();
+        }
+        return channels.stream()
+                .limit(limit)
+                .toList();
+    }
+
+    //compute keeps add and removal of the last member of a group atomic
+    private static void addToGroup(Map<String, NavigableSet<String>> groups, String group, String channel) {
+        if (group == null) {
+            return;
+        }
+        groups.compute(group, (key, channels) -> {
+            NavigableSet<String> members = channels != null ? channels : new ConcurrentSkipListSet<>();
+            members.add(channel);
+            return members;
+        });
+    }
+
+    private static void removeFromGroup(Map<String, NavigableSet<String>> groups, String group, String channel) {
+        if (group == null) {
+            return;
+        }
+        groups.computeIfPresent(group, (key, channels) -> {
+            channels.remove(channel);
+            return channels.isEmpty() ? null : channels;
+        });
+    }
+}
@@ -1,6 +1,8 @@
 package com.lunar.challenge.rockets.repository;
 
 import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Profile;
@@ -8,32 +10,119 @@ import org.springframework.stereotype.Repository;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 @Repository
 @Profile("inmemory")
 public class InMemoryRocketRepository implements RocketRepository {
     private static final Logger log = LoggerFactory.getLogger(InMemoryRocketRepository.class);
 
-    private final Map<String, RocketTracker> storage = new ConcurrentHashMap<>();
+    //sorted by channel, so fleet pages start right at the cursor
+    private final ConcurrentNavigableMap<String, RocketTracker> storage = new ConcurrentSkipListMap<>();
+    private final FleetIndex fleetIndex = new FleetIndex();
+    private final AtomicLong version = new AtomicLong();
+    private final RocketTrackerFactory trackerFactory;
+    private final RepositoryMetrics metrics;
+
+    public InMemoryRocketRepository(RocketTrackerFactory trackerFactory, MeterRegistry meterRegistry) {
+        this.trackerFactory = trackerFactory.withListener(fleetIndex);
+        this.metrics = new RepositoryMetrics(meterRegistry, "inmemory");
+        RepositoryMetrics.channels(meterRegistry, "inmemory", fleetIndex, FleetIndex::size);
+    }
 
     @Override
     public Optional<RocketTracker> findByChannel(String channel) {
         log.debug("Fetching rocket by channel {}", channel);
-        return Optional.ofNullable(storage.get(channel));
+        return metrics.findChannel(() -> Optional.ofNullable(storage.get(channel)));
     }
 
     @Override
     public List<RocketTracker> findAll() {
-        return new ArrayList<>(storage.values());
+        return metrics.findFleet(() -> new ArrayList<>(storage.values()));
+    }
+
+    @Override
+    public List<RocketTracker> findPage(String afterChannel, boolean descending, int limit,
+                                        Predicate<RocketTracker> filter) {
+        return metrics.findFleet(() -> TrackerPages.page(storage, afterChannel, descending, limit, filter));
+    }
+
+    @Override
+    public List<RankedTracker> findPageBySpeed(RankedTracker after, boolean descending, int limit,
+                                               Predicate<RocketTracker> filter) {
+        return metrics.findFleet(() -> TrackerPages.pageBySpeed(fleetIndex, storage::get, after, descending, limit,
+                filter));
+    }
+
+    @Override
+    public List<RocketTracker> findFastest(int limit) {
+        return lookup(fleetIndex.fastest(limit));
+    }
+
+    @Override
+    public List<RocketTracker> findByMission(String mission, int limit) {
+        return lookup(fleetIndex.byMission(mission, limit));
+    }
+
+    @Override
+    public List<RocketTracker> findByType(String type, int limit) {
+        return lookup(fleetIndex.byType(type, limit));
+    }
+
+    @Override
+    public List<RocketTracker> findExploded(int limit) {
+        return lookup(fleetIndex.exploded(limit));
+    }
+
+    private List<RocketTracker> lookup(List<String> channels) {
+        return metrics.findFleet(() -> channels.stream()
+                .map(storage::get)
+                .filter(Objects::nonNull)
+                .toList());
     }
 
+    /**
+     * Stores a tracker created elsewhere. It is indexed with its current status only,
+     * trackers created by this repository report later changes themselves.
+     */
     @Override
     public void save(RocketTracker tracker) {
-        log.debug("Saving rocket tracker log for channel {}", tracker.getStatus().getChannel());
-        storage.put(tracker.getStatus().getChannel(), tracker);
+        log.debug("Saving rocket tracker log for channel {}", tracker.getChannel());
+        metrics.save(() -> {
+            storage.put(tracker.getChannel(), tracker);
+            fleetIndex.statusChanged(tracker.getChannel(), tracker.statusKey());
+            version.incrementAndGet();
+        });
+    }
+
+    @Override
+    public long fleetVersion() {
+        return version.get();
+    }
+
+    @Override
+    public RocketTracker apply(String channel, Consumer<RocketTracker> mutation) {
+        return metrics.apply(() -> applyNow(channel, mutation));
+    }
+
+    private RocketTracker applyNow(String channel, Consumer<RocketTracker> mutation) {
+        RocketTracker tracker = storage.get(channel);
+        boolean created = tracker == null;
+        if (created) {
+            //computeIfAbsent so two first messages of a channel can't create two trackers
+            tracker = storage.computeIfAbsent(channel, trackerFactory::create);
+        }
+        int lastApplied = tracker.getLastApplied();
+        mutation.accept(tracker);
+        if (created || tracker.getLastApplied() != lastApplied) {
+            version.incrementAndGet();
+        }
+        return tracker;
     }
 }
@@ -0,0 +1,243 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerChanges;
+import com.lunar.challenge.rockets.domain.TrackerCheckpoint;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Keeps every rocket as a fixed-width off-heap record ({@link RocketRecords}) instead of a live RocketTracker,
+ * so millions of channels cost a few hundred bytes each and nothing for the GC to trace.
+ * Like the Redis profile, a tracker is rebuilt from its record for every message or query and written back
+ * incrementally; the garbage this makes dies young.
+ * <p>
+ * Records of one channel are read and written under one of {@value #STRIPES} striped locks picked by channel hash.
+ * History is the record's ring of the latest rockets.offheap.history-slots events, trackers are created with
+ * retention capped to it. Buffered out-of-order messages stay on heap, only rockets waiting for a gap have them.
+ * Fleet queries scan all records, there are no fleet indexes.
+ */
+@Repository
+@Profile("offheap")
+public class OffHeapRocketRepository implements RocketRepository {
+    private static final Logger log = LoggerFactory.getLogger(OffHeapRocketRepository.class);
+    private static final int STRIPES = 1024;
+
+    private final RocketRecords records;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES];
+    private final Map<Integer, List<PendingEvent>> pending = new ConcurrentHashMap<>(); //by record
+    private final AtomicLong version = new AtomicLong();
+    private final RocketTrackerFactory trackerFactory;
+    private final RepositoryMetrics metrics;
+
+    public OffHeapRocketRepository(RocketTrackerFactory trackerFactory,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${rockets.offheap.history-slots:16}") int historySlots,
+                                   @Value("${rockets.offheap.initial-capacity:65536}") int initialCapacity,
+                                   @Value("${rockets.offheap.backing:DIRECT}") Backing backing,
+                                   @Value("${rockets.offheap.dir:offheap}") Path directory) {
+        HistoryRetention retention = trackerFactory.retention();
+        int slots = Math.min(historySlots, retention.maxEvents());
+        this.records = new RocketRecords(slots, initialCapacity, backing == Backing.MAPPED ? directory : null);
+        this.trackerFactory = trackerFactory.withRetention(
+                new HistoryRetention(retention.policy(), slots, retention.window(), retention.bucket()));
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.metrics = new RepositoryMetrics(meterRegistry, "offheap");
+        RepositoryMetrics.channels(meterRegistry, "offheap", records, RocketRecords::size);
+        Gauge.builder("rockets.offheap.bytes", records, RocketRecords::allocatedBytes)
+                .description("Direct or mapped memory allocated for rocket records, channels and their index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        log.info("Off-heap rocket records: {} history slots, {} backing", slots, backing);
+    }
+
+    @Override
+    public Optional<RocketTracker> findByChannel(String channel) {
+        return metrics.findChannel(() -> {
+            ReentrantLock lock = lockFor(RocketRecords.hash(channel));
+            lock.lock();
+            try {
+                int record = records.find(channel);
+                return record >= 0 ? Optional.of(restore(record)) : Optional.empty();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public List<RocketTracker> findAll() {
+        return metrics.findFleet(() -> {
+            int size = records.size();
+            List<RocketTracker> trackers = new ArrayList<>(size);
+            for (int record = 0; record < size; record++) {
+                ReentrantLock lock = lockFor(records.hash(record));
+                lock.lock();
+                try {
+                    trackers.add(restore(record));
+                } finally {
+                    lock.unlock();
+                }
+            }
+            return trackers;
+        });
+    }
+
+    /**
+     * Ranks the whole fleet, refused before restoring any tracker if there are too many records
+     */
+    @Override
+    public List<RankedTracker> findPageBySpeed(RankedTracker after, boolean descending, int limit,
+                                               Predicate<RocketTracker> filter) {
+        TrackerPages.checkRankable(records.size());
+        return TrackerPages.rankBySpeed(findAll(), after, descending, limit, filter);
+    }
+
+    /**
+     * Writes the whole tracker, including history and buffered messages
+     */
+    @Override
+    public void save(RocketTracker tracker) {
+        metrics.save(() -> {
+            ReentrantLock lock = lockFor(RocketRecords.hash(tracker.getChannel()));
+            lock.lock();
+            try {
+                int record = records.insert(tracker.getChannel());
+                TrackerCheckpoint checkpoint = tracker.checkpoint();
+                records.writeStatus(record, checkpoint.status());
+                records.replaceHistory(record, checkpoint.status().getHistory().stream()
+                        .map(RocketHistoryItem::toAppliedEvent)
+                        .toList());
+                if (checkpoint.pending().isEmpty()) {
+                    pending.remove(record);
+                } else {
+                    pending.put(record, checkpoint.pending());
+                }
+                version.incrementAndGet();
+            } finally {
+                lock.unlock();
+            }
+        });
+    }
+
+    @Override
+    public long fleetVersion() {
+        return version.get();
+    }
+
+    @Override
+    public RocketTracker apply(String channel, Consumer<RocketTracker> mutation) {
+        return metrics.apply(() -> applyNow(channel, mutation));
+    }
+
+    private RocketTracker applyNow(String channel, Consumer<RocketTracker> mutation) {
+        ReentrantLock lock = lockFor(RocketRecords.hash(channel));
+        lock.lock();
+        try {
+            int record = records.find(channel);
+            boolean created = record < 0;
+            RocketTracker tracker = created ? trackerFactory.create(channel) : restore(record);
+            int lastApplied = tracker.getLastApplied();
+            mutation.accept(tracker);
+            if (created) {
+                record = records.insert(channel);
+            }
+            write(record, tracker.drainChanges());
+            if (created || tracker.getLastApplied() != lastApplied) {
+                version.incrementAndGet();
+            }
+            return tracker;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(int record, TrackerChanges changes) {
+        RocketSnapshotDTO status = changes.status();
+        records.writeStatus(record, status);
+        records.appendHistory(record, changes.newEvents());
+        if (status.getPendingCount() == 0) {
+            pending.remove(record);
+        } else if (changes.releasePending() || !changes.newPending().isEmpty()) {
+            List<PendingEvent> buffered = new ArrayList<>(status.getPendingCount());
+            for (PendingEvent message : pending.getOrDefault(record, List.of())) {
+                if (message.messageNumber() > status.getLastApplied()) {
+                    buffered.add(message);
+                }
+            }
+            buffered.addAll(changes.newPending());
+            pending.put(record, buffered);
+        }
+    }
+
+    /**
+     * Tracker of a record, history is read from the record once a view asks for it
+     */
+    private RocketTracker restore(int record) {
+        RocketSnapshotDTO status = records.readStatus(record);
+        List<PendingEvent> buffered = pending.getOrDefault(record, List.of());
+        status.setPendingCount(buffered.size());
+        RocketTracker tracker = trackerFactory.create(status.getChannel());
+        tracker.restoreFromSnapshot(status, () -> loadHistory(record));
+        if (!buffered.isEmpty()) {
+            tracker.restorePending(buffered);
+        }
+        return tracker;
+    }
+
+    private List<AppliedEvent> loadHistory(int record) {
+        ReentrantLock lock = lockFor(records.hash(record));
+        lock.lock();
+        try {
+            return records.history(record);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock lockFor(int hash) {
+        return locks[hash & (STRIPES - 1)];
+    }
+
+    /**
+     * Memory taken by records, channels and the index without unused chunk space, for footprint comparisons
+     */
+    long usedBytes() {
+        return records.usedBytes();
+    }
+
+    @PreDestroy
+    public void close() {
+        records.close();
+    }
+
+    public enum Backing {
+        DIRECT, //ByteBuffer.allocateDirect, capped by -XX:MaxDirectMemorySize
+        MAPPED //files in rockets.offheap.dir, recreated on startup; the OS pages cold rockets out
+    }
+}
@@ -0,0 +1,14 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+
+/**
+ * Tracker with the speed it was ranked by. Speed may change while a page is built,
+ * the cursor of the next page has to continue from the speed the page was ordered by.
+ */
+public record RankedTracker(String channel, int speed, RocketTracker tracker) {
+
+    public static RankedTracker of(RocketTracker tracker) {
+        return new RankedTracker(tracker.getChannel(), tracker.snapshot().speed(), tracker);
+    }
+}
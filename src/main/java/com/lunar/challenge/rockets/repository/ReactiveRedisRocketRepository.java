@@ -0,0 +1,256 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.config.RedisConfig;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerChanges;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import com.lunar.challenge.rockets.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.data.redis.serializer.SerializationException;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.lunar.challenge.rockets.repository.RedisRocketRepository.*;
+
+/**
+ * Reactive twin of {@link RedisRocketRepository}: same keys, same JSON (rockets.redis.codec=JSON in this profile),
+ * either one reads what the other wrote.
+ * Commands go out on Lettuce's shared connection without waiting for each other, so a handful of event-loop
+ * threads serve thousands of in-flight messages:
+ * - listing walks the channel index with SSCAN, fetches a page of statuses with one MGET and all pending
+ *   messages of the page at once, pipelined on the connection
+ * - a single rocket is read with its status and history requested together
+ * <p>
+ * {@link #apply} replaces WATCH/MULTI, which needs a dedicated connection, with a compare-and-set Lua script:
+ * the write happens only if the status key still holds the JSON the tracker was restored from,
+ * otherwise the message is applied again to a fresh read.
+ */
+@Repository
+@Profile("reactive")
+public class ReactiveRedisRocketRepository implements ReactiveRocketRepository {
+    private static final Logger log = LoggerFactory.getLogger(ReactiveRedisRocketRepository.class);
+
+    static final RedisScript<Long> APPLY_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/apply-rocket.lua"), Long.class);
+
+    private final ReactiveStringRedisTemplate redis;
+    private final ObjectMapper mapper = RedisConfig.valueMapper();
+    private final RocketTrackerFactory trackerFactory;
+    private final int maxApplyAttempts;
+    private final Counter applyRetries;
+    private final Counter applyConflicts;
+    private final RepositoryMetrics metrics;
+
+    public ReactiveRedisRocketRepository(ReactiveStringRedisTemplate redis,
+                                         RocketTrackerFactory trackerFactory,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${rockets.redis.max-apply-attempts:16}") int maxApplyAttempts) {
+        this.redis = redis;
+        this.trackerFactory = trackerFactory;
+        this.maxApplyAttempts = maxApplyAttempts;
+        //shared with RedisRocketRepository, both apply messages in this profile
+        this.applyRetries = Counter.builder("rockets.redis.apply.retries")
+                .description("Optimistic apply attempts aborted by a concurrent write")
+                .register(meterRegistry);
+        this.applyConflicts = Counter.builder("rockets.redis.apply.conflicts")
+                .description("Messages rejected after running out of apply attempts")
+                .register(meterRegistry);
+        //the channel count is already sampled by RedisRocketRepository from the same index
+        this.metrics = new RepositoryMetrics(meterRegistry, "reactive");
+    }
+
+    @Override
+    public Mono<RocketTracker> findByChannel(String channel, boolean withHistory) {
+        Mono<List<AppliedEvent>> history = withHistory ? loadHistory(channel) : Mono.just(List.of());
+        return metrics.findChannel(redis.opsForValue().get(PREFIX + channel)
+                .map(json -> read(json, RocketSnapshotDTO.class))
+                .zipWith(history)
+                .flatMap(found -> restore(found.getT1(), found.getT2())));
+    }
+
+    @Override
+    public Flux<RocketTracker> findAll() {
+        return metrics.findFleet(redis.opsForSet()
+                .scan(INDEX_KEY, ScanOptions.scanOptions().count(PAGE_SIZE).build())
+                .distinct() //SSCAN may return an element more than once
+                .buffer(PAGE_SIZE)
+                .concatMap(this::loadPage));
+    }
+
+    private Flux<RocketTracker> loadPage(List<String> channels) {
+        return redis.opsForValue().multiGet(channels.stream().map(channel -> PREFIX + channel).toList())
+                .flatMapMany(statuses -> {
+                    List<RocketSnapshotDTO> found = new ArrayList<>(statuses.size());
+                    List<String> expired = new ArrayList<>();
+                    for (int i = 0; i < channels.size(); i++) {
+                        String json = statuses.get(i);
+                        if (json == null) {
+                            expired.add(channels.get(i));
+                        } else {
+                            found.add(read(json, RocketSnapshotDTO.class));
+                        }
+                    }
+                    Mono<Void> cleanup = expired.isEmpty()
+                            ? Mono.empty()
+                            : redis.execute(REMOVE_EXPIRED_SCRIPT, removeExpiredKeys(expired), expired).then();
+                    return cleanup.thenMany(Flux.fromIterable(found)
+                            .flatMapSequential(dto -> restore(dto, List.of())));
+                });
+    }
+
+    /**
+     * Shared by all instances, bumped by the apply script together with the change
+     */
+    @Override
+    public Mono<Long> fleetVersion() {
+        return redis.opsForValue().get(VERSION_KEY)
+                .map(Long::parseLong)
+                .defaultIfEmpty(0L);
+    }
+
+    @Override
+    public Mono<RocketTracker> apply(String channel, Consumer<RocketTracker> mutation) {
+        return metrics.apply(apply(channel, mutation, 1));
+    }
+
+    private Mono<RocketTracker> apply(String channel, Consumer<RocketTracker> mutation, int attempt) {
+        return applyOnce(channel, mutation)
+                .switchIfEmpty(Mono.defer(() -> {
+                    if (attempt >= maxApplyAttempts) {
+                        applyConflicts.increment();
+                        return Mono.error(new ConcurrentUpdateException(channel, maxApplyAttempts));
+                    }
+                    applyRetries.increment();
+                    log.debug("Concurrent update of channel {}, retrying (attempt {})", channel, attempt);
+                    return apply(channel, mutation, attempt + 1);
+                }));
+    }
+
+    /**
+     * One optimistic round: read status, rebuild tracker, mutate, compare-and-set.
+     *
+     * @return tracker after mutation, empty if the status changed since it was read
+     */
+    private Mono<RocketTracker> applyOnce(String channel, Consumer<RocketTracker> mutation) {
+        return redis.opsForValue().get(PREFIX + channel)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(current -> {
+                    Mono<RocketTracker> restored = current
+                            .map(json -> restore(read(json, RocketSnapshotDTO.class), List.of()))
+                            .orElseGet(() -> Mono.fromSupplier(() -> trackerFactory.create(channel)));
+                    return restored.flatMap(tracker -> {
+                        int lastApplied = tracker.getLastApplied();
+                        mutation.accept(tracker);
+                        TrackerChanges changes = tracker.drainChanges();
+                        boolean bumpVersion = current.isEmpty() || tracker.getLastApplied() != lastApplied;
+
+                        return redis.execute(APPLY_SCRIPT, keys(channel),
+                                        applyArgs(current.orElse(""), channel, changes, bumpVersion))
+                                .next()
+                                .filter(written -> written == 1)
+                                .map(written -> tracker);
+                    });
+                });
+    }
+
+    private static List<String> keys(String channel) {
+        return List.of(PREFIX + channel, HISTORY_PREFIX + channel, PENDING_PREFIX + channel, INDEX_KEY, VERSION_KEY);
+    }
+
+    /**
+     * Arguments of scripts/apply-rocket.lua, see its header
+     */
+    private List<String> applyArgs(String expected, String channel, TrackerChanges changes, boolean bumpVersion) {
+        RocketSnapshotDTO status = changes.status();
+        List<String> args = new ArrayList<>(9 + changes.newEvents().size() + 2 * changes.newPending().size());
+        args.add(expected);
+        args.add(write(status));
+        args.add(channel);
+        args.add(String.valueOf(TTL.toMillis()));
+        args.add(String.valueOf(historyCapacity()));
+        args.add(String.valueOf(changes.releasePending() ? status.getLastApplied() : -1));
+        args.add(status.getPendingCount() > 0 ? "1" : "0");
+        args.add(bumpVersion ? "1" : "0");
+        args.add(String.valueOf(changes.newEvents().size()));
+        for (AppliedEvent event : changes.newEvents()) {
+            args.add(write(RocketHistoryItem.from(event)));
+        }
+        for (PendingEvent pending : changes.newPending()) {
+            args.add(String.valueOf(pending.messageNumber()));
+            args.add(write(RocketPendingItem.from(pending)));
+        }
+        return args;
+    }
+
+    private Mono<RocketTracker> restore(RocketSnapshotDTO dto, List<AppliedEvent> history) {
+        return loadPending(dto).map(pending -> {
+            RocketTracker tracker = trackerFactory.create(dto.getChannel());
+            //history is either loaded already or not needed by the caller
+            tracker.restoreFromSnapshot(dto, history.isEmpty() ? null : () -> history);
+            if (!pending.isEmpty()) {
+                tracker.restorePending(pending);
+            }
+            return tracker;
+        });
+    }
+
+    private Mono<List<PendingEvent>> loadPending(RocketSnapshotDTO dto) {
+        if (dto.getPendingCount() == 0) {
+            return Mono.just(List.of());
+        }
+        Range<Double> after = Range.rightUnbounded(Range.Bound.inclusive(dto.getLastApplied() + 1.0));
+        return redis.opsForZSet().rangeByScore(PENDING_PREFIX + dto.getChannel(), after)
+                .map(json -> read(json, RocketPendingItem.class).toPendingEvent())
+                .collectList();
+    }
+
+    private Mono<List<AppliedEvent>> loadHistory(String channel) {
+        return redis.opsForList().range(HISTORY_PREFIX + channel, -historyCapacity(), -1)
+                .map(json -> read(json, RocketHistoryItem.class).toAppliedEvent())
+                .collectList();
+    }
+
+    private long historyCapacity() {
+        return trackerFactory.retention().maxEvents();
+    }
+
+    private <T> T read(String json, Class<T> type) {
+        try {
+            return mapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not read " + type.getSimpleName() + " from Redis", e);
+        }
+    }
+
+    private String write(Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new SerializationException("Could not write " + value.getClass().getSimpleName() + " to Redis", e);
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Consumer;
+
+/**
+ * Non-blocking counterpart of {@link RocketRepository} for the hot paths: applying single messages,
+ * reading one rocket and listing the fleet. Nothing blocks a thread while waiting for storage.
+ */
+public interface ReactiveRocketRepository {
+
+    /**
+     * @param withHistory load persisted history too, otherwise the tracker has status and pending messages only
+     */
+    Mono<RocketTracker> findByChannel(String channel, boolean withHistory);
+
+    /**
+     * All rockets without history, in no particular order
+     */
+    Flux<RocketTracker> findAll();
+
+    /**
+     * Same as {@link RocketRepository#fleetVersion()}
+     */
+    Mono<Long> fleetVersion();
+
+    /**
+     * Same as {@link RocketRepository#apply}: loads tracker of a channel (creating it on first message),
+     * applies mutation and persists the result as a single atomic step.
+     *
+     * @return tracker after mutation
+     */
+    Mono<RocketTracker> apply(String channel, Consumer<RocketTracker> mutation);
+}
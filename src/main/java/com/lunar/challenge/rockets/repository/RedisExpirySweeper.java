@@ -0,0 +1,64 @@
+package com.lunar.challenge.rockets.repository;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Removes rockets expired by the Redis TTL from the channel index and bumps the shared fleet version,
+ * so a conditional GET of the fleet stops answering 304 for a listing that still contains them.
+ * Listings do the same for the channels they walk, but a poller answered 304 never lists.
+ * Every instance sweeps, the script is idempotent; a zero interval disables sweeping.
+ */
+@Slf4j
+@Component
+@Profile("redis | reactive")
+public class RedisExpirySweeper {
+    private final RedisRocketRepository repository;
+    private final Duration interval;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rockets-expiry-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public RedisExpirySweeper(RedisRocketRepository repository,
+                              @Value("${rockets.redis.expiry-sweep:30s}") Duration interval) {
+        this.repository = repository;
+        this.interval = interval;
+    }
+
+    @PostConstruct
+    void start() {
+        if (interval.isZero()) {
+            return;
+        }
+        long intervalMs = interval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    void sweep() {
+        try {
+            long removed = repository.removeExpired();
+            if (removed > 0) {
+                log.info("Removed {} expired rockets from the channel index", removed);
+            }
+        } catch (RuntimeException e) {
+            //a failed sweep must not cancel the next ones
+            log.warn("Expiry sweep failed", e);
+        }
+    }
+}
@@ -1,57 +1,474 @@
 package com.lunar.challenge.rockets.repository;
 
 import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerChanges;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
 import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
-import com.lunar.challenge.rockets.repository.RocketRepository;
-import lombok.RequiredArgsConstructor;
+import com.lunar.challenge.rockets.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisOperations;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Repository;
 
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps rocket status under rocket:{channel}, history as an append-only list under rocket-history:{channel}
+ * and buffered out-of-order messages in a sorted set under rocket-pending:{channel} (score = messageNumber),
+ * so saving a message writes only what changed since the previous save.
+ * The history list is trimmed to the retention capacity on every append.
+ * Channels are indexed in the rockets:channels set, listing walks it with SSCAN and fetches statuses with MGET by page.
+ * Channels found expired on the way are removed from the index by scripts/remove-expired-channels.lua,
+ * which keeps any of them written again in the meantime and bumps the fleet version if it removed one.
+ * RedisExpirySweeper runs the same script over the whole index periodically, so the version moves on expiry
+ * even if nobody lists the fleet.
+ * <p>
+ * {@link #apply} is an optimistic WATCH/MULTI loop on the status key: concurrent writers of one channel
+ * (threads or backend instances) retry instead of overwriting each other, after a jittered backoff that doubles
+ * with every lost round.
+ * <p>
+ * The reactive profile serves the hot paths from {@link ReactiveRedisRocketRepository} over the same keys
+ * and this repository serves the rest.
+ */
 @Repository
-@RequiredArgsConstructor
-@Profile("redis")
+@Profile("redis | reactive")
 public class RedisRocketRepository implements RocketRepository {
+    private static final Logger log = LoggerFactory.getLogger(RedisRocketRepository.class);
+
+    static final String PREFIX = "rocket:";
+    static final String HISTORY_PREFIX = "rocket-history:";
+    static final String PENDING_PREFIX = "rocket-pending:";
+    static final String INDEX_KEY = "rockets:channels";
+    static final String VERSION_KEY = "rockets:version";
+    static final int PAGE_SIZE = 500;
+    static final Duration TTL = Duration.ofMinutes(5);
+    static final Duration MAX_APPLY_BACKOFF = Duration.ofMillis(100);
+    static final RedisScript<Long> REMOVE_EXPIRED_SCRIPT =
+            RedisScript.of(new ClassPathResource("scripts/remove-expired-channels.lua"), Long.class);
+
     private final RedisTemplate<String, RocketSnapshotDTO> redisTemplate;
-    private static final String PREFIX = "rocket:";
-    private static final Duration TTL = Duration.ofMinutes(5);
+    private final RedisTemplate<String, RocketHistoryItem> historyRedisTemplate;
+    private final RedisTemplate<String, RocketPendingItem> pendingRedisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RocketTrackerFactory trackerFactory;
+    private final int maxApplyAttempts;
+    private final Duration applyBackoff;
+    private final Counter applyRetries;
+    private final Counter applyConflicts;
+    private final RepositoryMetrics metrics;
+
+    public RedisRocketRepository(RedisTemplate<String, RocketSnapshotDTO> redisTemplate,
+                                 RedisTemplate<String, RocketHistoryItem> historyRedisTemplate,
+                                 RedisTemplate<String, RocketPendingItem> pendingRedisTemplate,
+                                 StringRedisTemplate stringRedisTemplate,
+                                 RocketTrackerFactory trackerFactory,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${rockets.redis.max-apply-attempts:16}") int maxApplyAttempts,
+                                 @Value("${rockets.redis.apply-backoff:2ms}") Duration applyBackoff) {
+        this.redisTemplate = redisTemplate;
+        this.historyRedisTemplate = historyRedisTemplate;
+        this.pendingRedisTemplate = pendingRedisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.trackerFactory = trackerFactory;
+        this.maxApplyAttempts = maxApplyAttempts;
+        this.applyBackoff = applyBackoff;
+        this.applyRetries = Counter.builder("rockets.redis.apply.retries")
+                .description("Optimistic apply attempts aborted by a concurrent write")
+                .register(meterRegistry);
+        this.applyConflicts = Counter.builder("rockets.redis.apply.conflicts")
+                .description("Messages rejected after running out of apply attempts")
+                .register(meterRegistry);
+        this.metrics = new RepositoryMetrics(meterRegistry, "redis");
+        RepositoryMetrics.channels(meterRegistry, "redis", stringRedisTemplate, template -> {
+            Long channels = template.opsForSet().size(INDEX_KEY);
+            return channels != null ? channels : 0;
+        });
+    }
 
     @Override
     public Optional<RocketTracker> findByChannel(String channel) {
-        RocketSnapshotDTO dto = redisTemplate.opsForValue().get(PREFIX + channel);
-        if (dto == null) {
-            return Optional.empty();
-        }
-        RocketTracker tracker = new RocketTracker(channel);
-        tracker.restoreFromSnapshot(dto);
-        return Optional.of(tracker);
+        return metrics.findChannel(() -> {
+            RocketSnapshotDTO dto = redisTemplate.opsForValue().get(PREFIX + channel);
+            if (dto == null) {
+                return Optional.empty();
+            }
+            return Optional.of(restore(dto));
+        });
     }
 
     @Override
     public void save(RocketTracker tracker) {
-        redisTemplate.opsForValue().set(
-                PREFIX + tracker.getChannel(),
-                tracker.toSnapshot(),
-                TTL
-        );
+        saveAll(List.of(tracker));
+    }
+
+    /**
+     * Writes changes of several trackers in one pipelined round-trip.
+     */
+    public void saveAll(Collection<RocketTracker> trackers) {
+        writeAll(trackers.stream()
+                .map(RocketTracker::drainChanges)
+                .toList());
+    }
+
+    /**
+     * Writes changes already drained from their trackers in one pipelined round-trip.
+     * If it throws, nothing tells which of them reached Redis, the caller keeps them to write again.
+     */
+    public void writeAll(Collection<TrackerChanges> changes) {
+        metrics.save(() -> writePipelined(changes));
+    }
+
+    private void writePipelined(Collection<TrackerChanges> changes) {
+        redisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                changes.forEach(change -> write(change.status().getChannel(), change));
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public RocketTracker apply(String channel, Consumer<RocketTracker> mutation) {
+        return metrics.apply(() -> applyWithRetries(channel, mutation));
+    }
+
+    private RocketTracker applyWithRetries(String channel, Consumer<RocketTracker> mutation) {
+        for (int attempt = 1; attempt <= maxApplyAttempts; attempt++) {
+            RocketTracker tracker = redisTemplate.execute(new SessionCallback<RocketTracker>() {
+                @Override
+                public <K, V> RocketTracker execute(RedisOperations<K, V> operations) throws DataAccessException {
+                    return applyOnce(channel, mutation, operations);
+                }
+            });
+            if (tracker != null) {
+                return tracker;
+            }
+            if (attempt == maxApplyAttempts) {
+                break;
+            }
+            applyRetries.increment();
+            log.debug("Concurrent update of channel {}, retrying (attempt {})", channel, attempt);
+            if (!backoff(attempt)) {
+                break;
+            }
+        }
+        applyConflicts.increment();
+        throw new ConcurrentUpdateException(channel, maxApplyAttempts);
+    }
+
+    /**
+     * Waits before the round after attempt: half of apply-backoff * 2^(attempt - 1), capped at MAX_APPLY_BACKOFF,
+     * plus a random part of the same size, so writers that lost to each other don't collide again in lockstep.
+     *
+     * @return false if interrupted, the caller gives up
+     */
+    private boolean backoff(int attempt) {
+        long ceiling = Math.min(applyBackoff.toNanos() << Math.min(attempt - 1, 20), MAX_APPLY_BACKOFF.toNanos());
+        if (ceiling <= 0) {
+            return true;
+        }
+        long half = ceiling / 2;
+        try {
+            Thread.sleep(Duration.ofNanos(half + ThreadLocalRandom.current().nextLong(half + 1)));
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
     }
 
+    /**
+     * One optimistic round: WATCH status, rebuild tracker, mutate, write in MULTI.
+     *
+     * @return tracker after mutation or null if EXEC was aborted by a concurrent write
+     */
+    private RocketTracker applyOnce(String channel, Consumer<RocketTracker> mutation,
+                                    RedisOperations<?, ?> operations) {
+        @SuppressWarnings("unchecked")
+        RedisOperations<String, RocketSnapshotDTO> ops = (RedisOperations<String, RocketSnapshotDTO>) operations;
+
+        ops.watch(PREFIX + channel);
+        RocketSnapshotDTO dto = ops.opsForValue().get(PREFIX + channel);
+        RocketTracker tracker = dto != null ? restore(dto) : trackerFactory.create(channel);
+
+        int lastApplied = tracker.getLastApplied();
+        mutation.accept(tracker);
+        TrackerChanges changes = tracker.drainChanges();
+
+        ops.multi();
+        write(channel, changes);
+        if (dto == null || tracker.getLastApplied() != lastApplied) {
+            stringRedisTemplate.opsForValue().increment(VERSION_KEY);
+        }
+        List<Object> result = ops.exec();
+        return result == null || result.isEmpty() ? null : tracker;
+    }
+
+    /**
+     * Queues status, new history and pending changes on the connection bound to the current session.
+     */
+    private void write(String channel, TrackerChanges changes) {
+        if (!changes.newEvents().isEmpty()) {
+            List<RocketHistoryItem> newItems = changes.newEvents().stream()
+                    .map(RocketHistoryItem::from)
+                    .toList();
+            historyRedisTemplate.opsForList().rightPushAll(HISTORY_PREFIX + channel, newItems);
+            historyRedisTemplate.opsForList().trim(HISTORY_PREFIX + channel, -historyCapacity(), -1);
+        }
+        historyRedisTemplate.expire(HISTORY_PREFIX + channel, TTL);
+
+        String pendingKey = PENDING_PREFIX + channel;
+        if (changes.releasePending()) {
+            pendingRedisTemplate.opsForZSet().removeRangeByScore(pendingKey, 0, changes.status().getLastApplied());
+        }
+        if (!changes.newPending().isEmpty()) {
+            Set<TypedTuple<RocketPendingItem>> tuples = changes.newPending().stream()
+                    .map(pending -> TypedTuple.of(RocketPendingItem.from(pending), (double) pending.messageNumber()))
+                    .collect(Collectors.toSet());
+            pendingRedisTemplate.opsForZSet().add(pendingKey, tuples);
+        }
+        if (changes.status().getPendingCount() > 0) {
+            pendingRedisTemplate.expire(pendingKey, TTL);
+        }
+
+        redisTemplate.opsForValue().set(PREFIX + channel, changes.status(), TTL);
+        stringRedisTemplate.opsForSet().add(INDEX_KEY, channel);
+    }
+
+    /**
+     * Shared by all instances, bumped in the same transaction as the change.
+     * Rockets expiring by TTL change it once a listing or the expiry sweep finds them gone.
+     */
+    @Override
+    public long fleetVersion() {
+        String version = stringRedisTemplate.opsForValue().get(VERSION_KEY);
+        return version != null ? Long.parseLong(version) : 0;
+    }
+
+    /**
+     * Walks the channel index page by page: one MGET for statuses and one pipeline for pending messages per page.
+     * History stays in Redis until a view asks for it.
+     */
     @Override
     public List<RocketTracker> findAll() {
-        return redisTemplate.keys(PREFIX + "*").stream()
-                .map(key -> redisTemplate.opsForValue().get(key))
-                .filter(Objects::nonNull)
-                .map(snapshot -> {
-                    RocketTracker tracker = new RocketTracker(snapshot.getChannel());
-                    tracker.restoreFromSnapshot(snapshot);
-                    return tracker;
-                })
-                .collect(Collectors.toList());
-    }
-}
\ No newline at end of file
+        return metrics.findFleet(this::scanFleet);
+    }
+
+    /**
+     * Ranks the whole fleet, refused before scanning it if the channel index is too large
+     */
+    @Override
+    public List<RankedTracker> findPageBySpeed(RankedTracker after, boolean descending, int limit,
+                                               Predicate<RocketTracker> filter) {
+        Long channels = stringRedisTemplate.opsForSet().size(INDEX_KEY);
+        TrackerPages.checkRankable(channels != null ? channels : 0);
+        return TrackerPages.rankBySpeed(findAll(), after, descending, limit, filter);
+    }
+
+    private List<RocketTracker> scanFleet() {
+        List<RocketTracker> trackers = new ArrayList<>();
+        Set<String> seen = new HashSet<>(); //SSCAN may return an element more than once
+        List<String> page = new ArrayList<>(PAGE_SIZE);
+
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(INDEX_KEY, ScanOptions.scanOptions().count(PAGE_SIZE).build())) {
+            while (cursor.hasNext()) {
+                String channel = cursor.next();
+                if (seen.add(channel)) {
+                    page.add(channel);
+                }
+                if (page.size() == PAGE_SIZE) {
+                    trackers.addAll(loadPage(page));
+                    page.clear();
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            trackers.addAll(loadPage(page));
+        }
+        return trackers;
+    }
+
+    private List<RocketTracker> loadPage(List<String> channels) {
+        List<RocketSnapshotDTO> snapshots = redisTemplate.opsForValue()
+                .multiGet(channels.stream().map(channel -> PREFIX + channel).toList());
+        if (snapshots == null) {
+            return List.of();
+        }
+
+        List<RocketSnapshotDTO> found = new ArrayList<>(snapshots.size());
+        List<String> expired = new ArrayList<>();
+        for (int i = 0; i < channels.size(); i++) {
+            RocketSnapshotDTO dto = snapshots.get(i);
+            if (dto == null) {
+                expired.add(channels.get(i));
+            } else {
+                found.add(dto);
+            }
+        }
+        if (!expired.isEmpty()) {
+            stringRedisTemplate.execute(REMOVE_EXPIRED_SCRIPT, removeExpiredKeys(expired), expired.toArray());
+        }
+
+        Map<String, List<PendingEvent>> pending = loadPending(found.stream()
+                .filter(dto -> dto.getPendingCount() > 0)
+                .toList());
+        return found.stream()
+                .map(dto -> restore(dto, pending.getOrDefault(dto.getChannel(), List.of())))
+                .toList();
+    }
+
+    @Override
+    public boolean isFleetVersionShared() {
+        return true;
+    }
+
+    /**
+     * Walks the channel index page by page and drops channels whose status expired, the script checks them
+     * server-side so no status is transferred
+     *
+     * @return channels removed from the index
+     */
+    long removeExpired() {
+        long removed = 0;
+        Set<String> seen = new HashSet<>();
+        List<String> page = new ArrayList<>(PAGE_SIZE);
+        try (Cursor<String> cursor = stringRedisTemplate.opsForSet()
+                .scan(INDEX_KEY, ScanOptions.scanOptions().count(PAGE_SIZE).build())) {
+            while (cursor.hasNext()) {
+                String channel = cursor.next();
+                if (seen.add(channel)) {
+                    page.add(channel);
+                }
+                if (page.size() == PAGE_SIZE) {
+                    removed += removeExpired(page);
+                    page.clear();
+                }
+            }
+        }
+        if (!page.isEmpty()) {
+            removed += removeExpired(page);
+        }
+        return removed;
+    }
+
+    private long removeExpired(List<String> channels) {
+        Long removed = stringRedisTemplate.execute(REMOVE_EXPIRED_SCRIPT, removeExpiredKeys(channels),
+                channels.toArray());
+        return removed != null ? removed : 0;
+    }
+
+    /**
+     * Keys of scripts/remove-expired-channels.lua, see its header
+     */
+    static List<String> removeExpiredKeys(List<String> channels) {
+        List<String> keys = new ArrayList<>(channels.size() + 2);
+        keys.add(INDEX_KEY);
+        keys.add(VERSION_KEY);
+        channels.forEach(channel -> keys.add(PREFIX + channel));
+        return keys;
+    }
+
+    private RocketTracker restore(RocketSnapshotDTO dto) {
+        List<PendingEvent> pending = dto.getPendingCount() > 0
+                ? loadPending(dto.getChannel(), dto.getLastApplied())
+                : List.of();
+        return restore(dto, pending);
+    }
+
+    private RocketTracker restore(RocketSnapshotDTO dto, List<PendingEvent> pending) {
+        RocketTracker tracker = trackerFactory.create(dto.getChannel());
+        tracker.restoreFromSnapshot(dto, () -> loadHistory(dto.getChannel()));
+        if (!pending.isEmpty()) {
+            tracker.restorePending(pending);
+        }
+        return tracker;
+    }
+
+    /**
+     * Fetches pending messages of several rockets in one pipelined round-trip.
+     */
+    private Map<String, List<PendingEvent>> loadPending(List<RocketSnapshotDTO> snapshots) {
+        if (snapshots.isEmpty()) {
+            return Map.of();
+        }
+        List<Object> results = pendingRedisTemplate.executePipelined(new SessionCallback<Object>() {
+            @Override
+            @SuppressWarnings("unchecked")
+            public <K, V> Object execute(RedisOperations<K, V> operations) throws DataAccessException {
+                RedisOperations<String, RocketPendingItem> ops = (RedisOperations<String, RocketPendingItem>) operations;
+                snapshots.forEach(dto -> ops.opsForZSet().rangeByScore(PENDING_PREFIX + dto.getChannel(),
+                        dto.getLastApplied() + 1, Double.POSITIVE_INFINITY));
+                return null;
+            }
+        });
+
+        Map<String, List<PendingEvent>> pending = new HashMap<>();
+        for (int i = 0; i < snapshots.size(); i++) {
+            @SuppressWarnings("unchecked")
+            Set<RocketPendingItem> items = (Set<RocketPendingItem>) results.get(i);
+            if (items != null) {
+                pending.put(snapshots.get(i).getChannel(), items.stream()
+                        .map(RocketPendingItem::toPendingEvent)
+                        .toList());
+            }
+        }
+        return pending;
+    }
+
+    private List<PendingEvent> loadPending(String channel, int lastApplied) {
+        Set<RocketPendingItem> items = pendingRedisTemplate.opsForZSet()
+                .rangeByScore(PENDING_PREFIX + channel, lastApplied + 1, Double.POSITIVE_INFINITY);
+        if (items == null) {
+            return List.of();
+        }
+        return items.stream()
+                .map(RocketPendingItem::toPendingEvent)
+                .toList();
+    }
+
+    private List<AppliedEvent> loadHistory(String channel) {
+        List<RocketHistoryItem> items = historyRedisTemplate.opsForList()
+                .range(HISTORY_PREFIX + channel, -historyCapacity(), -1);
+        if (items == null) {
+            return List.of();
+        }
+        return items.stream()
+                .map(RocketHistoryItem::toAppliedEvent)
+                .toList();
+    }
+
+    private long historyCapacity() {
+        return trackerFactory.retention().maxEvents();
+    }
+}
@@ -0,0 +1,91 @@
+package com.lunar.challenge.rockets.repository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Timers of repository operations tagged with the repository kind:
+ * rockets.repository.apply, rockets.repository.save and rockets.repository.find (query: channel or fleet).
+ * Denied meters are no-ops, timing then costs a call.
+ * Reactive operations are timed from subscription to completion, error or cancellation.
+ */
+final class RepositoryMetrics {
+    private final Timer apply;
+    private final Timer save;
+    private final Timer findChannel;
+    private final Timer findFleet;
+
+    RepositoryMetrics(MeterRegistry registry, String repository) {
+        this.apply = Timer.builder("rockets.repository.apply")
+                .description("Load, mutate and persist one rocket")
+                .tag("repository", repository)
+                .register(registry);
+        this.save = Timer.builder("rockets.repository.save")
+                .description("Persist rockets")
+                .tag("repository", repository)
+                .register(registry);
+        this.findChannel = find(registry, repository, "channel");
+        this.findFleet = find(registry, repository, "fleet");
+    }
+
+    private static Timer find(MeterRegistry registry, String repository, String query) {
+        return Timer.builder("rockets.repository.find")
+                .description("Read one rocket or a part of the fleet")
+                .tag("repository", repository)
+                .tag("query", query)
+                .register(registry);
+    }
+
+    /**
+     * Rockets known to the repository, sampled when metrics are scraped
+     */
+    static <T> void channels(MeterRegistry registry, String repository, T source, ToDoubleFunction<T> count) {
+        Gauge.builder("rockets.channels", source, count)
+                .description("Rockets tracked")
+                .tag("repository", repository)
+                .register(registry);
+    }
+
+    <T> T apply(Supplier<T> operation) {
+        return apply.record(operation);
+    }
+
+    void save(Runnable operation) {
+        save.record(operation);
+    }
+
+    <T> T findChannel(Supplier<T> operation) {
+        return findChannel.record(operation);
+    }
+
+    <T> T findFleet(Supplier<T> operation) {
+        return findFleet.record(operation);
+    }
+
+    <T> Mono<T> apply(Mono<T> operation) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return operation.doFinally(signal -> sample.stop(apply));
+        });
+    }
+
+    <T> Mono<T> findChannel(Mono<T> operation) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return operation.doFinally(signal -> sample.stop(findChannel));
+        });
+    }
+
+    <T> Flux<T> findFleet(Flux<T> operation) {
+        return Flux.defer(() -> {
+            Timer.Sample sample = Timer.start();
+            return operation.doFinally(signal -> sample.stop(findFleet));
+        });
+    }
+}
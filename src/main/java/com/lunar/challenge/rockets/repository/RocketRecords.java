@@ -0,0 +1,456 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.SymbolTable;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Rocket states as fixed-width records outside of the Java heap, found by channel through an open-addressing index.
+ * A rocket costs one record, its channel bytes and an index slot, none of them an object the GC has to trace.
+ * <p>
+ * Record layout, history is a ring of the latest historySlots applied events:
+ * 0 int channel hash | 4 int channel length | 8 long channel address in the channel arena
+ * | 16 int type id | 20 int mission id | 24 int speed | 28 int lastApplied
+ * | 32 long lastMessageTime epoch nanos | 40 int offset seconds | 44 int flags | 48 long gapOpenedAt
+ * | 56 int next history slot | 60 int history size
+ * | 64 history entries: long epoch nanos | int speed after | int offset seconds << 8 | MessageType ordinal
+ * <p>
+ * Records and channels live in 16 MB chunks of direct memory, or of two files mapped into memory,
+ * so the page cache can hold a fleet larger than RAM. Chunks are added as the fleet grows, records are never freed.
+ * A type or mission past the SymbolTable limit is stored as OVERFLOW, its string is kept on the heap per record.
+ * The index holds record number + 1 per slot (0 is empty), probed linearly and doubled at half load.
+ * <p>
+ * find and insert are thread-safe. Fields of a record must be read and written under a lock of its channel
+ * held by the caller.
+ */
+final class RocketRecords implements AutoCloseable {
+    private static final int CHUNK_BYTES = 1 << 24;
+    private static final long NO_TIME = Long.MIN_VALUE;
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private static final int HASH = 0;
+    private static final int CHANNEL_LENGTH = 4;
+    private static final int CHANNEL_ADDRESS = 8;
+    private static final int TYPE = 16;
+    private static final int MISSION = 20;
+    private static final int SPEED = 24;
+    private static final int LAST_APPLIED = 28;
+    private static final int TIME = 32;
+    private static final int OFFSET = 40;
+    private static final int FLAGS = 44;
+    private static final int GAP_OPENED_AT = 48;
+    private static final int HISTORY_NEXT = 56;
+    private static final int HISTORY_SIZE = 60;
+    private static final int HISTORY = 64;
+    private static final int HISTORY_ENTRY_BYTES = 16;
+
+    private static final int EXPLODED = 1;
+
+    private final int historySlots;
+    private final int recordBytes;
+    private final int recordsPerChunk;
+    private final FileChannel recordFile; //null for direct memory
+    private final FileChannel channelFile;
+
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock(); //index, arena, chunk lists
+    private volatile ByteBuffer[] recordChunks = new ByteBuffer[0];
+    private final Map<Integer, String> overflowTypes = new ConcurrentHashMap<>(); //record -> type with OVERFLOW id
+    private final Map<Integer, String> overflowMissions = new ConcurrentHashMap<>();
+    private volatile ByteBuffer[] channelChunks = new ByteBuffer[0];
+    private long channelEnd; //next free arena address
+    private ByteBuffer index;
+    private int indexCapacity;
+    private volatile int size; //records below it are fully inserted
+
+    /**
+     * @param directory where to map records.bin and channels.bin, recreated empty; null for direct memory
+     */
+    RocketRecords(int historySlots, int initialCapacity, Path directory) {
+        if (historySlots < 1) {
+            throw new IllegalArgumentException("Records need at least one history slot, got " + historySlots);
+        }
+        this.historySlots = historySlots;
+        this.recordBytes = HISTORY + historySlots * HISTORY_ENTRY_BYTES;
+        if (recordBytes > CHUNK_BYTES) {
+            throw new IllegalArgumentException("Too many history slots for a record: " + historySlots);
+        }
+        this.recordsPerChunk = CHUNK_BYTES / recordBytes;
+        //at least twice the expected rockets, a power of two
+        this.indexCapacity = Integer.highestOneBit(Math.clamp(initialCapacity, 8, 1 << 26) * 4 - 1);
+        this.index = ByteBuffer.allocateDirect(indexCapacity * Integer.BYTES);
+        try {
+            if (directory != null) {
+                Files.createDirectories(directory);
+                this.recordFile = open(directory.resolve("records.bin"));
+                this.channelFile = open(directory.resolve("channels.bin"));
+            } else {
+                this.recordFile = null;
+                this.channelFile = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create rocket records in " + directory, e);
+        }
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    static int hash(String channel) {
+        int hash = channel.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Record of channel, -1 if it has none
+     */
+    int find(String channel) {
+        byte[] key = channel.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(channel);
+        structure.readLock().lock();
+        try {
+            int found = probe(key, hash);
+            return found >= 0 ? found : -1;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Record of channel, a new empty one if it has none
+     */
+    int insert(String channel) {
+        byte[] key = channel.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(channel);
+        structure.writeLock().lock();
+        try {
+            int found = probe(key, hash);
+            if (found >= 0) {
+                return found;
+            }
+            if ((size + 1) * 2L > indexCapacity) {
+                growIndex();
+                found = probe(key, hash);
+            }
+            int record = size;
+            ByteBuffer chunk = recordChunk(record);
+            int base = recordBase(record);
+            chunk.putInt(base + HASH, hash);
+            chunk.putInt(base + CHANNEL_LENGTH, key.length);
+            chunk.putLong(base + CHANNEL_ADDRESS, appendChannel(key));
+            chunk.putLong(base + TIME, NO_TIME);
+            index.putInt((-found - 1) * Integer.BYTES, record + 1);
+            size = record + 1;
+            return record;
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of records, every record below it can be read
+     */
+    int size() {
+        return size;
+    }
+
+    int historySlots() {
+        return historySlots;
+    }
+
+    /**
+     * Channel hash of a record, immutable once inserted
+     */
+    int hash(int record) {
+        return recordChunks[record / recordsPerChunk].getInt(recordBase(record) + HASH);
+    }
+
+    String channel(int record) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        byte[] key = new byte[chunk.getInt(base + CHANNEL_LENGTH)];
+        long address = chunk.getLong(base + CHANNEL_ADDRESS);
+        channelChunks[(int) (address / CHUNK_BYTES)].get((int) (address % CHUNK_BYTES), key);
+        return new String(key, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Status of a record without history and pending count
+     */
+    RocketSnapshotDTO readStatus(int record) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        return RocketSnapshotDTO.builder()
+                .channel(channel(record))
+                .type(symbol(chunk.getInt(base + TYPE), overflowTypes, record))
+                .mission(symbol(chunk.getInt(base + MISSION), overflowMissions, record))
+                .speed(chunk.getInt(base + SPEED))
+                .exploded((chunk.getInt(base + FLAGS) & EXPLODED) != 0)
+                .lastMessageTime(toTime(chunk.getLong(base + TIME), chunk.getInt(base + OFFSET)))
+                .lastApplied(chunk.getInt(base + LAST_APPLIED))
+                .gapOpenedAt(chunk.getLong(base + GAP_OPENED_AT))
+                .build();
+    }
+
+    void writeStatus(int record, RocketSnapshotDTO status) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        chunk.putInt(base + TYPE, intern(status.getType(), overflowTypes, record));
+        chunk.putInt(base + MISSION, intern(status.getMission(), overflowMissions, record));
+        chunk.putInt(base + SPEED, status.getSpeed());
+        chunk.putInt(base + FLAGS, status.isExploded() ? EXPLODED : 0);
+        chunk.putLong(base + TIME, toEpochNanos(status.getLastMessageTime()));
+        chunk.putInt(base + OFFSET, offsetSeconds(status.getLastMessageTime()));
+        chunk.putInt(base + LAST_APPLIED, status.getLastApplied());
+        chunk.putLong(base + GAP_OPENED_AT, status.getGapOpenedAt());
+    }
+
+    private static String symbol(int id, Map<Integer, String> overflow, int record) {
+        return id == SymbolTable.OVERFLOW ? overflow.get(record) : SymbolTable.SHARED.name(id);
+    }
+
+    private static int intern(String value, Map<Integer, String> overflow, int record) {
+        int id = SymbolTable.SHARED.intern(value);
+        if (id == SymbolTable.OVERFLOW) {
+            overflow.put(record, value);
+        } else {
+            overflow.remove(record);
+        }
+        return id;
+    }
+
+    /**
+     * Latest events of the record, oldest first
+     */
+    List<AppliedEvent> history(int record) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        int count = chunk.getInt(base + HISTORY_SIZE);
+        int slot = Math.floorMod(chunk.getInt(base + HISTORY_NEXT) - count, historySlots);
+        List<AppliedEvent> events = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int entry = base + HISTORY + slot * HISTORY_ENTRY_BYTES;
+            int packed = chunk.getInt(entry + 12);
+            events.add(new AppliedEvent(toTime(chunk.getLong(entry), packed >> 8), TYPES[packed & 0xFF],
+                    chunk.getInt(entry + 8)));
+            slot = (slot + 1) % historySlots;
+        }
+        return events;
+    }
+
+    /**
+     * Appends events to the history ring, overwriting the oldest ones
+     */
+    void appendHistory(int record, List<AppliedEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        int next = chunk.getInt(base + HISTORY_NEXT);
+        int count = chunk.getInt(base + HISTORY_SIZE);
+        for (AppliedEvent event : events) {
+            int entry = base + HISTORY + next * HISTORY_ENTRY_BYTES;
+            chunk.putLong(entry, toEpochNanos(event.time()));
+            chunk.putInt(entry + 8, event.speedAfter());
+            chunk.putInt(entry + 12, offsetSeconds(event.time()) << 8 | event.type().ordinal());
+            next = (next + 1) % historySlots;
+            count = Math.min(count + 1, historySlots);
+        }
+        chunk.putInt(base + HISTORY_NEXT, next);
+        chunk.putInt(base + HISTORY_SIZE, count);
+    }
+
+    void replaceHistory(int record, List<AppliedEvent> events) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        chunk.putInt(base + HISTORY_NEXT, 0);
+        chunk.putInt(base + HISTORY_SIZE, 0);
+        appendHistory(record, events);
+    }
+
+    /**
+     * Memory taken by chunks and the index, allocated or mapped
+     */
+    long allocatedBytes() {
+        structure.readLock().lock();
+        try {
+            return (long) (recordChunks.length + channelChunks.length) * CHUNK_BYTES + index.capacity();
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Memory taken by records, channels and the index, without the unused rest of the last chunks
+     */
+    long usedBytes() {
+        structure.readLock().lock();
+        try {
+            return (long) size * recordBytes + channelEnd + index.capacity();
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes mapped chunks out. Direct memory is released once the buffers are collected.
+     */
+    @Override
+    public void close() {
+        structure.writeLock().lock();
+        try {
+            for (ByteBuffer chunk : recordChunks) {
+                if (chunk instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                }
+            }
+            for (ByteBuffer chunk : channelChunks) {
+                if (chunk instanceof MappedByteBuffer mapped) {
+                    mapped.force();
+                }
+            }
+            if (recordFile != null) {
+                recordFile.close();
+                channelFile.close();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close rocket records", e);
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return record of key, or -(free slot + 1) if it has none
+     */
+    private int probe(byte[] key, int hash) {
+        int mask = indexCapacity - 1;
+        for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+            int entry = index.getInt(slot * Integer.BYTES);
+            if (entry == 0) {
+                return -slot - 1;
+            }
+            int record = entry - 1;
+            if (hash(record) == hash && channelEquals(record, key)) {
+                return record;
+            }
+        }
+    }
+
+    private boolean channelEquals(int record, byte[] key) {
+        ByteBuffer chunk = recordChunks[record / recordsPerChunk];
+        int base = recordBase(record);
+        if (chunk.getInt(base + CHANNEL_LENGTH) != key.length) {
+            return false;
+        }
+        long address = chunk.getLong(base + CHANNEL_ADDRESS);
+        ByteBuffer channels = channelChunks[(int) (address / CHUNK_BYTES)];
+        int offset = (int) (address % CHUNK_BYTES);
+        for (int i = 0; i < key.length; i++) {
+            if (channels.get(offset + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void growIndex() {
+        int capacity = indexCapacity * 2;
+        ByteBuffer grown = ByteBuffer.allocateDirect(capacity * Integer.BYTES);
+        int mask = capacity - 1;
+        for (int record = 0; record < size; record++) {
+            int slot = hash(record) & mask;
+            while (grown.getInt(slot * Integer.BYTES) != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown.putInt(slot * Integer.BYTES, record + 1);
+        }
+        index = grown;
+        indexCapacity = capacity;
+    }
+
+    private long appendChannel(byte[] key) {
+        if (key.length > CHUNK_BYTES) {
+            throw new IllegalArgumentException("Channel longer than " + CHUNK_BYTES + " bytes");
+        }
+        long offset = channelEnd % CHUNK_BYTES;
+        if (offset + key.length > CHUNK_BYTES) {
+            channelEnd += CHUNK_BYTES - offset; //a channel never spans two chunks
+        }
+        int chunk = (int) (channelEnd / CHUNK_BYTES);
+        if (chunk == channelChunks.length) {
+            channelChunks = grow(channelChunks, channelFile);
+        }
+        long address = channelEnd;
+        channelChunks[chunk].put((int) (address % CHUNK_BYTES), key);
+        channelEnd += key.length;
+        return address;
+    }
+
+    private ByteBuffer recordChunk(int record) {
+        int chunk = record / recordsPerChunk;
+        if (chunk == recordChunks.length) {
+            recordChunks = grow(recordChunks, recordFile);
+        }
+        return recordChunks[chunk];
+    }
+
+    //copy on write, readers of existing records never see the array change under them
+    private static ByteBuffer[] grow(ByteBuffer[] chunks, FileChannel file) {
+        ByteBuffer[] grown = Arrays.copyOf(chunks, chunks.length + 1);
+        try {
+            grown[chunks.length] = file != null
+                    ? file.map(FileChannel.MapMode.READ_WRITE, (long) chunks.length * CHUNK_BYTES, CHUNK_BYTES)
+                    : ByteBuffer.allocateDirect(CHUNK_BYTES);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map another chunk of rocket records", e);
+        }
+        return grown;
+    }
+
+    private int recordBase(int record) {
+        return (record % recordsPerChunk) * recordBytes;
+    }
+
+    private static long toEpochNanos(OffsetDateTime time) {
+        if (time == null) {
+            return NO_TIME;
+        }
+        return Math.addExact(Math.multiplyExact(time.toEpochSecond(), 1_000_000_000L), time.getNano());
+    }
+
+    private static int offsetSeconds(OffsetDateTime time) {
+        return time != null ? time.getOffset().getTotalSeconds() : 0;
+    }
+
+    private static OffsetDateTime toTime(long epochNanos, int offsetSeconds) {
+        if (epochNanos == NO_TIME) {
+            return null;
+        }
+        Instant instant = Instant.ofEpochSecond(Math.floorDiv(epochNanos, 1_000_000_000L),
+                Math.floorMod(epochNanos, 1_000_000_000L));
+        return OffsetDateTime.ofInstant(instant, ZoneOffset.ofTotalSeconds(offsetSeconds));
+    }
+}
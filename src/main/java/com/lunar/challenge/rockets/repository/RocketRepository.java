@@ -1,9 +1,13 @@
 package com.lunar.challenge.rockets.repository;
 
 import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.SymbolTable;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public interface RocketRepository {
     Optional<RocketTracker> findByChannel(String channel);
@@ -11,4 +15,101 @@ public interface RocketRepository {
     List<RocketTracker> findAll();
 
     void save(RocketTracker tracker);
+
+    /**
+     * Fleet version: changes whenever a rocket is added or a message is applied to one.
+     * Read before building a fleet listing, it tags the listing for conditional GETs.
+     */
+    long fleetVersion();
+
+    /**
+     * True if fleetVersion is one counter shared by all instances, false for a process-local one restarting at 0
+     */
+    default boolean isFleetVersionShared() {
+        return false;
+    }
+
+    /**
+     * Page of trackers in channel order (keyset pagination).
+     * Default implementation goes through findAll, repositories keeping trackers sorted by channel override it.
+     *
+     * @param afterChannel exclusive start of the page, null for the first page
+     * @param descending   walk channels from the last one
+     * @param limit        max trackers to return
+     * @param filter       trackers not matching it are skipped and don't count towards limit
+     */
+    default List<RocketTracker> findPage(String afterChannel, boolean descending, int limit,
+                                         Predicate<RocketTracker> filter) {
+        Comparator<RocketTracker> order = Comparator.comparing(RocketTracker::getChannel);
+        Comparator<RocketTracker> direction = descending ? order.reversed() : order;
+        return findAll().stream()
+                .filter(tracker -> afterChannel == null
+                        || (descending ? -1 : 1) * tracker.getChannel().compareTo(afterChannel) > 0)
+                .filter(filter)
+                .sorted(direction)
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Page of trackers in speed order, channel breaking ties (keyset pagination).
+     * Default implementation ranks the whole fleet for every page, a full findAll, and refuses fleets larger
+     * than TrackerPages.MAX_RANKED_FLEET; repositories keeping a FleetIndex walk it from the cursor.
+     *
+     * @param after  last rocket of the previous page, only its speed and channel are read; null for the first page
+     * @param filter trackers not matching it are skipped and don't count towards limit
+     * @throws com.lunar.challenge.rockets.exception.InvalidQueryException if the fleet is too large to rank
+     */
+    default List<RankedTracker> findPageBySpeed(RankedTracker after, boolean descending, int limit,
+                                                Predicate<RocketTracker> filter) {
+        return TrackerPages.rankBySpeed(findAll(), after, descending, limit, filter);
+    }
+
+    /**
+     * Fastest rockets, fastest first. Default implementation ranks the whole fleet.
+     */
+    default List<RocketTracker> findFastest(int limit) {
+        return findAll().stream()
+                .sorted(Comparator.comparingInt((RocketTracker tracker) -> tracker.snapshot().speed())
+                        .thenComparing(RocketTracker::getChannel)
+                        .reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    /**
+     * Rockets on a mission, in channel order
+     */
+    default List<RocketTracker> findByMission(String mission, int limit) {
+        int missionId = SymbolTable.SHARED.find(mission);
+        return findPage(null, false, limit, tracker -> tracker.snapshot().isOnMission(missionId, mission));
+    }
+
+    /**
+     * Rockets of a type, in channel order
+     */
+    default List<RocketTracker> findByType(String type, int limit) {
+        int typeId = SymbolTable.SHARED.find(type);
+        return findPage(null, false, limit, tracker -> tracker.snapshot().isOfType(typeId, type));
+    }
+
+    /**
+     * Exploded rockets, in channel order
+     */
+    default List<RocketTracker> findExploded(int limit) {
+        return findPage(null, false, limit, tracker -> tracker.snapshot().exploded());
+    }
+
+    /**
+     * Loads tracker of a channel (creating it on first message), applies mutation and persists the result.
+     * Implementations shared between threads or instances make this a single atomic step.
+     *
+     * @return tracker after mutation
+     */
+    default RocketTracker apply(String channel, Consumer<RocketTracker> mutation) {
+        RocketTracker tracker = findByChannel(channel).orElseGet(() -> new RocketTracker(channel));
+        mutation.accept(tracker);
+        save(tracker);
+        return tracker;
+    }
 }
@@ -0,0 +1,310 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Binary layout of snapshots and history items stored in Redis, version 1:
+ * snapshot: byte version | byte flags | channel | type | mission | speed | lastMessageTime
+ * | lastApplied | pendingCount | gapOpenedAt | [history count | items]
+ * history item: byte header | time | speedAfter
+ * <p>
+ * Integers are varints, signed ones zigzag encoded, so a speed or a small message number takes one or two bytes.
+ * Strings are varint length + 1 (0 for null) and UTF-8. A time is epoch millis as a delta to the previous time,
+ * followed by the nanos below a milli and the offset only when the item header flags them.
+ * The item header holds the MessageType ordinal in its low bits, no type name is repeated.
+ * <p>
+ * The version byte is never '{', the first byte of the JSON written before, so readers tell them apart.
+ */
+final class SnapshotCodec {
+    static final byte VERSION = 1;
+
+    //snapshot flags
+    private static final int EXPLODED = 1;
+    private static final int HAS_TIME = 1 << 1;
+    private static final int HAS_HISTORY = 1 << 2;
+
+    //history item header, bits 0-2 are the MessageType ordinal
+    private static final int TYPE_MASK = 0x07;
+    private static final int SUB_MILLI = 1 << 3; //nanos below a milli follow the millis
+    private static final int NEW_OFFSET = 1 << 4; //offset differs from the previous time
+    private static final int NO_TIME = 1 << 5;
+
+    private static final MessageType[] TYPES = MessageType.values();
+
+    private SnapshotCodec() {
+    }
+
+    static byte[] encode(RocketSnapshotDTO snapshot) {
+        List<RocketHistoryItem> history = snapshot.getHistory();
+        Output out = new Output(64 + (history != null ? history.size() * 4 : 0));
+        out.put(VERSION);
+        OffsetDateTime time = snapshot.getLastMessageTime();
+        out.put((snapshot.isExploded() ? EXPLODED : 0)
+                | (time != null ? HAS_TIME : 0)
+                | (history != null ? HAS_HISTORY : 0));
+        out.putString(snapshot.getChannel());
+        out.putString(snapshot.getType());
+        out.putString(snapshot.getMission());
+        out.putSigned(snapshot.getSpeed());
+        if (time != null) {
+            out.putSignedLong(millis(time));
+            out.putVarint(subMilli(time));
+            out.putSigned(time.getOffset().getTotalSeconds());
+        }
+        out.putVarint(snapshot.getLastApplied());
+        out.putVarint(snapshot.getPendingCount());
+        out.putVarlong(snapshot.getGapOpenedAt());
+        if (history != null) {
+            out.putVarint(history.size());
+            Cursor cursor = new Cursor(time);
+            for (RocketHistoryItem item : history) {
+                putItem(out, item, cursor);
+            }
+        }
+        return out.toArray();
+    }
+
+    static RocketSnapshotDTO decode(byte[] bytes) {
+        Input in = new Input(bytes);
+        checkVersion(in.get());
+        int flags = in.get();
+        RocketSnapshotDTO snapshot = new RocketSnapshotDTO();
+        snapshot.setExploded((flags & EXPLODED) != 0);
+        snapshot.setChannel(in.getString());
+        snapshot.setType(in.getString());
+        snapshot.setMission(in.getString());
+        snapshot.setSpeed(in.getSigned());
+        OffsetDateTime time = null;
+        if ((flags & HAS_TIME) != 0) {
+            long millis = in.getSignedLong();
+            int subMilli = in.getVarint();
+            time = time(millis, subMilli, ZoneOffset.ofTotalSeconds(in.getSigned()));
+        }
+        snapshot.setLastMessageTime(time);
+        snapshot.setLastApplied(in.getVarint());
+        snapshot.setPendingCount(in.getVarint());
+        snapshot.setGapOpenedAt(in.getVarlong());
+        if ((flags & HAS_HISTORY) != 0) {
+            int count = in.getVarint();
+            List<RocketHistoryItem> history = new ArrayList<>(count);
+            Cursor cursor = new Cursor(time);
+            for (int i = 0; i < count; i++) {
+                history.add(getItem(in, cursor));
+            }
+            snapshot.setHistory(history);
+        }
+        in.checkEnd();
+        return snapshot;
+    }
+
+    /**
+     * Single element of a history list
+     */
+    static byte[] encodeItem(RocketHistoryItem item) {
+        Output out = new Output(16);
+        out.put(VERSION);
+        putItem(out, item, new Cursor(null));
+        return out.toArray();
+    }
+
+    static RocketHistoryItem decodeItem(byte[] bytes) {
+        Input in = new Input(bytes);
+        checkVersion(in.get());
+        RocketHistoryItem item = getItem(in, new Cursor(null));
+        in.checkEnd();
+        return item;
+    }
+
+    private static void putItem(Output out, RocketHistoryItem item, Cursor cursor) {
+        int header = MessageType.valueOf(item.getType()).ordinal();
+        OffsetDateTime time = item.getTime();
+        if (time == null) {
+            out.put(header | NO_TIME);
+        } else {
+            int subMilli = subMilli(time);
+            ZoneOffset offset = time.getOffset();
+            boolean newOffset = !offset.equals(cursor.offset);
+            out.put(header | (subMilli != 0 ? SUB_MILLI : 0) | (newOffset ? NEW_OFFSET : 0));
+            long millis = millis(time);
+            out.putSignedLong(millis - cursor.millis);
+            if (subMilli != 0) {
+                out.putVarint(subMilli);
+            }
+            if (newOffset) {
+                out.putSigned(offset.getTotalSeconds());
+            }
+            cursor.millis = millis;
+            cursor.offset = offset;
+        }
+        out.putSigned(item.getSpeedAfter());
+    }
+
+    private static RocketHistoryItem getItem(Input in, Cursor cursor) {
+        int header = in.get();
+        int ordinal = header & TYPE_MASK;
+        if (ordinal >= TYPES.length) {
+            throw new IllegalArgumentException("Unknown message type " + ordinal);
+        }
+        OffsetDateTime time = null;
+        if ((header & NO_TIME) == 0) {
+            long millis = cursor.millis + in.getSignedLong();
+            int subMilli = (header & SUB_MILLI) != 0 ? in.getVarint() : 0;
+            if ((header & NEW_OFFSET) != 0) {
+                cursor.offset = ZoneOffset.ofTotalSeconds(in.getSigned());
+            }
+            cursor.millis = millis;
+            time = time(millis, subMilli, cursor.offset);
+        }
+        return new RocketHistoryItem(time, TYPES[ordinal].name(), in.getSigned());
+    }
+
+    private static void checkVersion(int version) {
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported value version " + version);
+        }
+    }
+
+    private static long millis(OffsetDateTime time) {
+        return time.toInstant().toEpochMilli();
+    }
+
+    private static int subMilli(OffsetDateTime time) {
+        return time.getNano() % 1_000_000;
+    }
+
+    private static OffsetDateTime time(long millis, int subMilli, ZoneOffset offset) {
+        return OffsetDateTime.ofInstant(Instant.ofEpochMilli(millis).plusNanos(subMilli), offset);
+    }
+
+    /**
+     * Previous time of a history, items are stored as deltas to it
+     */
+    private static final class Cursor {
+        long millis;
+        ZoneOffset offset;
+
+        Cursor(OffsetDateTime base) {
+            this.millis = base != null ? millis(base) : 0;
+            this.offset = base != null ? base.getOffset() : ZoneOffset.UTC;
+        }
+    }
+
+    private static final class Output {
+        private byte[] bytes;
+        private int size;
+
+        Output(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void put(int value) {
+            if (size == bytes.length) {
+                bytes = Arrays.copyOf(bytes, bytes.length * 2);
+            }
+            bytes[size++] = (byte) value;
+        }
+
+        void putVarint(int value) {
+            putVarlong(value & 0xFFFFFFFFL);
+        }
+
+        void putVarlong(long value) {
+            while ((value & ~0x7FL) != 0) {
+                put((int) (value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            put((int) value);
+        }
+
+        void putSigned(int value) {
+            putVarint((value << 1) ^ (value >> 31));
+        }
+
+        void putSignedLong(long value) {
+            putVarlong((value << 1) ^ (value >> 63));
+        }
+
+        void putString(String value) {
+            if (value == null) {
+                putVarint(0);
+                return;
+            }
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarint(utf8.length + 1);
+            if (bytes.length - size < utf8.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + utf8.length));
+            }
+            System.arraycopy(utf8, 0, bytes, size, utf8.length);
+            size += utf8.length;
+        }
+
+        byte[] toArray() {
+            return Arrays.copyOf(bytes, size);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] bytes;
+        private int position;
+
+        Input(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int get() {
+            return bytes[position++] & 0xFF;
+        }
+
+        int getVarint() {
+            return (int) getVarlong();
+        }
+
+        long getVarlong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int next = get();
+                value |= (long) (next & 0x7F) << shift;
+                if ((next & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint at " + position);
+        }
+
+        int getSigned() {
+            int value = getVarint();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        long getSignedLong() {
+            long value = getVarlong();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        String getString() {
+            int length = getVarint() - 1;
+            if (length < 0) {
+                return null;
+            }
+            String value = new String(bytes, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+
+        void checkEnd() {
+            if (position != bytes.length) {
+                throw new IllegalArgumentException((bytes.length - position) + " trailing bytes");
+            }
+        }
+    }
+}
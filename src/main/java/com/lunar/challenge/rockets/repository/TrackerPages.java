@@ -0,0 +1,105 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.exception.InvalidQueryException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Keyset pages over trackers:
+ * - by channel over a map sorted by channel, starting right after the cursor channel
+ * - by speed over the speed ranking of a FleetIndex, starting right after the cursor (speed, channel)
+ * Both cost O(log n + page size) for unfiltered listings.
+ * <p>
+ * Repositories without a sorted map or a FleetIndex rank the whole fleet for every page by speed,
+ * which is allowed up to MAX_RANKED_FLEET rockets.
+ */
+final class TrackerPages {
+    static final int MAX_RANKED_FLEET = 100_000;
+
+    private static final Comparator<RankedTracker> BY_SPEED = Comparator.comparingInt(RankedTracker::speed)
+            .thenComparing(RankedTracker::channel);
+
+    private TrackerPages() {
+    }
+
+    static List<RocketTracker> page(NavigableMap<String, RocketTracker> trackers, String afterChannel,
+                                    boolean descending, int limit, Predicate<RocketTracker> filter) {
+        NavigableMap<String, RocketTracker> view = descending ? trackers.descendingMap() : trackers;
+        if (afterChannel != null) {
+            view = view.tailMap(afterChannel, false);
+        }
+        List<RocketTracker> page = new ArrayList<>(Math.min(limit, 1024));
+        for (RocketTracker tracker : view.values()) {
+            if (page.size() >= limit) {
+                break;
+            }
+            if (filter.test(tracker)) {
+                page.add(tracker);
+            }
+        }
+        return page;
+    }
+
+    static List<RankedTracker> pageBySpeed(FleetIndex index, Function<String, RocketTracker> trackers,
+                                           RankedTracker after, boolean descending, int limit,
+                                           Predicate<RocketTracker> filter) {
+        List<RankedTracker> page = new ArrayList<>(Math.min(limit, 1024));
+        Iterator<FleetIndex.SpeedEntry> entries = index.bySpeed(after, descending).iterator();
+        while (page.size() < limit && entries.hasNext()) {
+            FleetIndex.SpeedEntry entry = entries.next();
+            RocketTracker tracker = trackers.apply(entry.channel());
+            if (tracker != null && filter.test(tracker)) {
+                page.add(new RankedTracker(entry.channel(), entry.speed(), tracker));
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Ranks every tracker keeping only limit of them in a heap, O(n log limit)
+     *
+     * @throws InvalidQueryException if the fleet is larger than MAX_RANKED_FLEET
+     */
+    static List<RankedTracker> rankBySpeed(List<RocketTracker> fleet, RankedTracker after, boolean descending,
+                                           int limit, Predicate<RocketTracker> filter) {
+        checkRankable(fleet.size());
+        Comparator<RankedTracker> order = descending ? BY_SPEED.reversed() : BY_SPEED;
+
+        //max-heap by page order: the root is the first one to drop when a better rocket shows up
+        PriorityQueue<RankedTracker> best = new PriorityQueue<>(limit + 1, order.reversed());
+        for (RocketTracker tracker : fleet) {
+            if (!filter.test(tracker)) {
+                continue;
+            }
+            RankedTracker entry = RankedTracker.of(tracker);
+            if (after != null && order.compare(entry, after) <= 0) {
+                continue;
+            }
+            best.add(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        return best.stream()
+                .sorted(order)
+                .toList();
+    }
+
+    /**
+     * @throws InvalidQueryException if a fleet of this size is too large to rank for every page
+     */
+    static void checkRankable(long fleetSize) {
+        if (fleetSize > MAX_RANKED_FLEET) {
+            throw new InvalidQueryException("sort=speed ranks the whole fleet in this profile and is limited to "
+                    + MAX_RANKED_FLEET + " rockets, page by channel instead");
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerChanges;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Write-behind cache over Redis:
+ * - hot trackers live in process, messages are acknowledged right after the in-memory apply
+ * - dirty channels are flushed to Redis in pipelined batches every flush-interval
+ *   or as soon as max-dirty channels are waiting
+ * - a cache miss rehydrates the tracker from Redis, loaded outside of any lock and then put if still absent
+ * - changes of a failed flush are kept and written by the next one
+ * - clean trackers not written for the Redis TTL are evicted, Redis has expired them as well
+ * <p>
+ * The process owns the state of its rockets, so only one backend instance may run with this profile.
+ */
+@Repository
+@Profile("writebehind")
+public class WriteBehindRocketRepository implements RocketRepository {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindRocketRepository.class);
+
+    private final RedisRocketRepository redis;
+    private final FleetIndex fleetIndex = new FleetIndex();
+    private final AtomicLong version = new AtomicLong();
+    private final RocketTrackerFactory trackerFactory;
+    private final ConcurrentNavigableMap<String, RocketTracker> cache = new ConcurrentSkipListMap<>();
+
+    //channel -> System.nanoTime() when it became dirty
+    private final Map<String, Long> dirty = new ConcurrentHashMap<>();
+
+    //channel -> System.nanoTime() of its last write to Redis or load from it, where its Redis TTL started at the latest
+    private final Map<String, Long> written = new ConcurrentHashMap<>();
+
+    //applies share it from reading the cache to marking the channel dirty, eviction takes it exclusively
+    private final ReentrantReadWriteLock evictionLock = new ReentrantReadWriteLock();
+
+    //the whole fleet is pulled from Redis once, afterwards this process is the only writer
+    private volatile boolean fleetLoaded = false;
+
+    //changes drained by a flush that failed, written together with the next ones; guarded by flushLock
+    private final Map<String, TrackerChanges> unflushed = new HashMap<>();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rockets-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final RepositoryMetrics metrics;
+    private final Duration flushInterval;
+    private final int maxDirty;
+    private final int batchSize;
+
+    public WriteBehindRocketRepository(RedisTemplate<String, RocketSnapshotDTO> redisTemplate,
+                                       RedisTemplate<String, RocketHistoryItem> historyRedisTemplate,
+                                       RedisTemplate<String, RocketPendingItem> pendingRedisTemplate,
+                                       StringRedisTemplate stringRedisTemplate,
+                                       RocketTrackerFactory trackerFactory,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${rockets.write-behind.flush-interval:1s}") Duration flushInterval,
+                                       @Value("${rockets.write-behind.max-dirty:1000}") int maxDirty,
+                                       @Value("${rockets.write-behind.batch-size:500}") int batchSize) {
+        //trackers rehydrated from Redis are indexed on restore and report their changes afterwards
+        this.trackerFactory = trackerFactory.withListener(fleetIndex);
+        this.redis = new RedisRocketRepository(redisTemplate, historyRedisTemplate, pendingRedisTemplate,
+                stringRedisTemplate, this.trackerFactory, meterRegistry, 1, Duration.ZERO);
+        this.flushInterval = flushInterval;
+        this.maxDirty = maxDirty;
+        this.batchSize = batchSize;
+
+        this.metrics = new RepositoryMetrics(meterRegistry, "writebehind");
+        RepositoryMetrics.channels(meterRegistry, "writebehind", fleetIndex, FleetIndex::size);
+        Gauge.builder("rockets.writebehind.dirty", dirty, Map::size)
+                .description("Channels changed in memory and not yet flushed to Redis")
+                .register(meterRegistry);
+        Gauge.builder("rockets.writebehind.flush.lag", this, WriteBehindRocketRepository::flushLagSeconds)
+                .description("Age of the oldest change not yet flushed to Redis")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        long intervalMs = flushInterval.toMillis();
+        flusher.scheduleWithFixedDelay(this::flush, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(flushInterval.toMillis() * 2, TimeUnit.MILLISECONDS);
+        flush();
+    }
+
+    @Override
+    public Optional<RocketTracker> findByChannel(String channel) {
+        return metrics.findChannel(() -> findCachedOrStored(channel));
+    }
+
+    private Optional<RocketTracker> findCachedOrStored(String channel) {
+        RocketTracker cached = cache.get(channel);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return redis.findByChannel(channel).map(this::cacheLoaded);
+    }
+
+    /**
+     * Caches a tracker read from Redis unless another thread cached the channel meanwhile
+     *
+     * @return the cached tracker
+     */
+    private RocketTracker cacheLoaded(RocketTracker loaded) {
+        RocketTracker cached = cache.putIfAbsent(loaded.getChannel(), loaded);
+        if (cached != null) {
+            return cached;
+        }
+        written.put(loaded.getChannel(), System.nanoTime());
+        return loaded;
+    }
+
+    @Override
+    public List<RocketTracker> findAll() {
+        return metrics.findFleet(() -> {
+            loadFleet();
+            return new ArrayList<>(cache.values());
+        });
+    }
+
+    private void loadFleet() {
+        if (!fleetLoaded) {
+            redis.findAll().forEach(this::cacheLoaded);
+            fleetLoaded = true;
+            version.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<RocketTracker> findPage(String afterChannel, boolean descending, int limit,
+                                        Predicate<RocketTracker> filter) {
+        return metrics.findFleet(() -> {
+            loadFleet();
+            return TrackerPages.page(cache, afterChannel, descending, limit, filter);
+        });
+    }
+
+    @Override
+    public List<RankedTracker> findPageBySpeed(RankedTracker after, boolean descending, int limit,
+                                               Predicate<RocketTracker> filter) {
+        return metrics.findFleet(() -> {
+            loadFleet();
+            return TrackerPages.pageBySpeed(fleetIndex, cache::get, after, descending, limit, filter);
+        });
+    }
+
+    @Override
+    public List<RocketTracker> findFastest(int limit) {
+        loadFleet();
+        return lookup(fleetIndex.fastest(limit));
+    }
+
+    @Override
+    public List<RocketTracker> findByMission(String mission, int limit) {
+        loadFleet();
+        return lookup(fleetIndex.byMission(mission, limit));
+    }
+
+    @Override
+    public List<RocketTracker> findByType(String type, int limit) {
+        loadFleet();
+        return lookup(fleetIndex.byType(type, limit));
+    }
+
+    @Override
+    public List<RocketTracker> findExploded(int limit) {
+        loadFleet();
+        return lookup(fleetIndex.exploded(limit));
+    }
+
+    private List<RocketTracker> lookup(List<String> channels) {
+        return metrics.findFleet(() -> channels.stream()
+                .map(cache::get)
+                .filter(Objects::nonNull)
+                .toList());
+    }
+
+    @Override
+    public void save(RocketTracker tracker) {
+        metrics.save(() -> {
+            evictionLock.readLock().lock();
+            try {
+                cache.put(tracker.getChannel(), tracker);
+                fleetIndex.statusChanged(tracker.getChannel(), tracker.statusKey());
+                version.incrementAndGet();
+                markDirty(tracker.getChannel());
+            } finally {
+                evictionLock.readLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Local counter: this process is the only writer of its rockets
+     */
+    @Override
+    public long fleetVersion() {
+        return version.get();
+    }
+
+    @Override
+    public RocketTracker apply(String channel, Consumer<RocketTracker> mutation) {
+        return metrics.apply(() -> applyNow(channel, mutation));
+    }
+
+    private RocketTracker applyNow(String channel, Consumer<RocketTracker> mutation) {
+        while (true) {
+            //a miss reads Redis before taking any lock, a thread that loses the race drops its copy
+            RocketTracker loaded = cache.containsKey(channel) ? null
+                    : redis.findByChannel(channel).orElseGet(() -> trackerFactory.create(channel));
+            evictionLock.readLock().lock();
+            try {
+                RocketTracker tracker = cache.get(channel);
+                if (tracker == null) {
+                    if (loaded == null) {
+                        continue; //evicted between the check and the lock
+                    }
+                    tracker = cacheLoaded(loaded);
+                }
+                int lastApplied = tracker.getLastApplied();
+                mutation.accept(tracker);
+                if (tracker == loaded || tracker.getLastApplied() != lastApplied) {
+                    version.incrementAndGet();
+                }
+                markDirty(channel);
+                return tracker;
+            } finally {
+                evictionLock.readLock().unlock();
+            }
+        }
+    }
+
+    private void markDirty(String channel) {
+        dirty.putIfAbsent(channel, System.nanoTime());
+        //one early flush at a time, it takes every channel dirty by then
+        if (dirty.size() >= maxDirty && flushScheduled.compareAndSet(false, true)) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    /**
+     * Writes all dirty channels to Redis. Concurrent calls coalesce into the one already running.
+     */
+    void flush() {
+        flushScheduled.set(false);
+        if (!flushLock.tryLock()) {
+            return;
+        }
+        List<String> failed = new ArrayList<>();
+        try {
+            List<TrackerChanges> batch = new ArrayList<>(Math.min(batchSize, dirty.size()));
+            for (String channel : dirty.keySet()) {
+                //removed before draining: a message applied meanwhile marks the channel dirty again
+                dirty.remove(channel);
+                RocketTracker tracker = cache.get(channel);
+                if (tracker != null) {
+                    batch.add(drain(channel, tracker));
+                }
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch, failed);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch, failed);
+            }
+            evictExpired(System.nanoTime());
+        } finally {
+            flushLock.unlock();
+        }
+        //retried by the next scheduled flush
+        failed.forEach(channel -> dirty.putIfAbsent(channel, System.nanoTime()));
+    }
+
+    /**
+     * Changes since the last successful write of the channel
+     */
+    private TrackerChanges drain(String channel, RocketTracker tracker) {
+        TrackerChanges changes = tracker.drainChanges();
+        TrackerChanges earlier = unflushed.remove(channel);
+        return earlier != null ? earlier.followedBy(changes, trackerFactory.retention().maxEvents()) : changes;
+    }
+
+    private void writeBatch(List<TrackerChanges> batch, List<String> failed) {
+        try {
+            redis.writeAll(batch);
+            long now = System.nanoTime();
+            batch.forEach(changes -> written.put(changes.status().getChannel(), now));
+            log.debug("Flushed {} rockets to Redis", batch.size());
+        } catch (RuntimeException e) {
+            //drained history and buffered messages are kept until a flush gets them to Redis;
+            //commands of the failed pipeline that did reach it are written again
+            log.error("Failed to flush {} rockets to Redis: {}", batch.size(), e.getMessage(), e);
+            for (TrackerChanges changes : batch) {
+                String channel = changes.status().getChannel();
+                unflushed.put(channel, changes);
+                failed.add(channel);
+            }
+        }
+    }
+
+    /**
+     * Drops clean trackers not written for the Redis TTL, so the cache holds what Redis holds.
+     * Must be called under flushLock, which guards unflushed.
+     *
+     * @param now System.nanoTime()
+     */
+    void evictExpired(long now) {
+        long ttl = RedisRocketRepository.TTL.toNanos();
+        List<String> expired = new ArrayList<>();
+        written.forEach((channel, at) -> {
+            if (now - at > ttl && !dirty.containsKey(channel) && !unflushed.containsKey(channel)) {
+                expired.add(channel);
+            }
+        });
+        if (expired.isEmpty()) {
+            return;
+        }
+        evictionLock.writeLock().lock();
+        try {
+            for (String channel : expired) {
+                //an apply since the scan marked it dirty; applies hold the read lock until they do
+                if (dirty.containsKey(channel)) {
+                    continue;
+                }
+                //index first: a reader that misses the cache afterwards loads and indexes the channel again
+                fleetIndex.remove(channel);
+                cache.remove(channel);
+                written.remove(channel);
+            }
+            version.incrementAndGet();
+        } finally {
+            evictionLock.writeLock().unlock();
+        }
+        log.debug("Evicted {} rockets expired in Redis", expired.size());
+    }
+
+    private double flushLagSeconds() {
+        long now = System.nanoTime();
+        return dirty.values().stream()
+                .mapToLong(since -> now - since)
+                .max()
+                .orElse(0) / 1e9;
+    }
+}
@@ -0,0 +1,25 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.domain.event.RocketEvent;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Incoming message after validation and mapping of its payload to a RocketEvent.
+ * Deserialized from JSON without the JsonNode tree, see RocketMessageDecoder.
+ */
+@JsonDeserialize(using = DecodedMessageDeserializer.class)
+public record DecodedMessage(
+        String channel,
+        int messageNumber,
+        OffsetDateTime messageTime,
+        MessageType messageType,
+        RocketEvent event
+) {
+    public PendingEvent toPendingEvent() {
+        return new PendingEvent(messageNumber, messageTime, event);
+    }
+}
@@ -0,0 +1,20 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+
+import java.io.IOException;
+
+/**
+ * Binds a request body straight to DecodedMessage through RocketMessageDecoder
+ */
+public class DecodedMessageDeserializer extends JsonDeserializer<DecodedMessage> {
+    @Override
+    public DecodedMessage deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+        if (!parser.isExpectedStartObjectToken()) {
+            return (DecodedMessage) context.handleUnexpectedToken(DecodedMessage.class, parser);
+        }
+        return new RocketMessageDecoder().readMessage(parser);
+    }
+}
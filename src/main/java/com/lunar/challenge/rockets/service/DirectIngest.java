@@ -0,0 +1,40 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Applies messages on the caller thread, concurrent callers of one channel meet on its tracker lock.
+ */
+@Service
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "rockets.ingest.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectIngest implements MessageIngest {
+    private final RocketService rocketService;
+
+    @Override
+    public CompletableFuture<RocketTracker> submit(DecodedMessage message) {
+        return execute(message.channel(), () -> rocketService.handleAsync(message))
+                .thenCompose(Function.identity());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> execute(String channel, Supplier<T> work) {
+        try {
+            return CompletableFuture.completedFuture(work.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public RocketTracker apply(DecodedMessage message) {
+        return rocketService.handle(message);
+    }
+}
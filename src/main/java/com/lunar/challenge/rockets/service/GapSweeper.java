@@ -0,0 +1,62 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.ReorderPolicy;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Releases rockets that stopped transmitting while waiting for a missing message: a tracker checks the gap timeout
+ * only when its next message arrives. Sweeps once per gap-timeout, so an overdue gap is skipped within two of them;
+ * a zero timeout waits forever and sweeps never.
+ */
+@Slf4j
+@Component
+public class GapSweeper {
+    private final RocketService rocketService;
+    private final MessageIngest ingest;
+    private final Duration interval;
+    private final ScheduledExecutorService sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rockets-gap-sweeper");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public GapSweeper(RocketService rocketService, MessageIngest ingest, ReorderPolicy reorderPolicy) {
+        this.rocketService = rocketService;
+        this.ingest = ingest;
+        this.interval = reorderPolicy.gapTimeout();
+    }
+
+    @PostConstruct
+    void start() {
+        if (interval.isZero()) {
+            return;
+        }
+        long intervalMs = interval.toMillis();
+        sweeper.scheduleWithFixedDelay(this::sweep, intervalMs, intervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        sweeper.shutdownNow();
+    }
+
+    void sweep() {
+        try {
+            int released = rocketService.releaseExpiredGaps(ingest);
+            if (released > 0) {
+                log.info("Skipped overdue gaps of {} silent rockets", released);
+            }
+        } catch (RuntimeException e) {
+            //a failed sweep must not cancel the next ones
+            log.warn("Gap sweep failed", e);
+        }
+    }
+}
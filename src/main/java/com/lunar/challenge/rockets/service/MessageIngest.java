@@ -0,0 +1,52 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Entry point for single messages: applies them on the caller thread or hands them to the shard owning the channel.
+ * Selected with rockets.ingest.mode: direct (default) or sharded.
+ */
+public interface MessageIngest {
+
+    /**
+     * @return future completed with the tracker once the message is applied and durable, or with the failure
+     * @throws com.lunar.challenge.rockets.exception.IngestOverloadedException if the message can't be queued
+     */
+    CompletableFuture<RocketTracker> submit(DecodedMessage message);
+
+    /**
+     * Runs work on the tracker of channel where its messages are applied: on the caller thread in direct mode,
+     * on the shard owning the channel in sharded mode. Batches and gap releases go through here,
+     * so in sharded mode a tracker is only ever changed by its shard once requests are served.
+     * Work only appends to the journal, the caller waits for durability.
+     *
+     * @return future completed with the result of work, or with its failure
+     * @throws com.lunar.challenge.rockets.exception.IngestOverloadedException if the work can't be queued
+     */
+    <T> CompletableFuture<T> execute(String channel, Supplier<T> work);
+
+    /**
+     * Submits and waits for the message to be applied, failures are rethrown as they were raised
+     */
+    default RocketTracker apply(DecodedMessage message) {
+        return await(submit(message));
+    }
+
+    /**
+     * Waits for submitted work, failures are rethrown as they were raised
+     */
+    static <T> T await(CompletableFuture<T> result) {
+        try {
+            return result.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
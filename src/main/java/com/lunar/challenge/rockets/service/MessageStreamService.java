@@ -0,0 +1,313 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.exception.IngestOverloadedException;
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Ingests a newline-delimited stream of rocket messages read with the streaming Jackson parser
+ * and periodically writes acknowledgements back: the highest contiguously applied messageNumber
+ * per channel changed since the previous acknowledgement.
+ * <p>
+ * Acknowledgement line: {"acks":{"channel":lastApplied,...},"received":n,"invalid":m,"failed":k}
+ * <p>
+ * Messages are submitted without waiting for each one. Every ack-every messages the stream waits for all of them
+ * and acknowledges; every ack-interval a timer acknowledges the ones applied by then, also while the client sends
+ * nothing and waits for acks. A message that fails to apply (a conflict in Redis, a journal that can't sync)
+ * is counted as failed like an invalid one is, the stream goes on.
+ * When the ingest is full the stream settles what it submitted and retries, slowing the sender down.
+ */
+@Slf4j
+@Service
+public class MessageStreamService {
+    private static final long OVERLOAD_BACKOFF_NANOS = Duration.ofMillis(1).toNanos();
+
+    private final MessageIngest ingest;
+    private final JsonFactory jsonFactory;
+    private final int ackEvery;
+    private final long ackIntervalMs;
+    private final ScheduledExecutorService ackTimer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "rockets-stream-acks");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public MessageStreamService(MessageIngest ingest,
+                                ObjectMapper objectMapper,
+                                @Value("${rockets.stream.ack-every:1000}") int ackEvery,
+                                @Value("${rockets.stream.ack-interval:1s}") Duration ackInterval) {
+        this.ingest = ingest;
+        this.jsonFactory = objectMapper.getFactory();
+        this.ackEvery = ackEvery;
+        this.ackIntervalMs = Math.max(1, ackInterval.toMillis());
+    }
+
+    @PreDestroy
+    void stop() {
+        ackTimer.shutdownNow();
+    }
+
+    /**
+     * Reads messages until the end of input, acknowledging every ack-every messages and every ack-interval.
+     * Invalid and failed messages are counted and skipped, malformed JSON ends the stream with an error line.
+     */
+    public void ingest(InputStream in, OutputStream out) throws IOException {
+        RocketMessageDecoder decoder = new RocketMessageDecoder();
+
+        try (JsonParser parser = jsonFactory.createParser(in);
+             JsonGenerator generator = jsonFactory.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            Acknowledgements acks = new Acknowledgements(generator);
+            ScheduledFuture<?> timer = ackTimer.scheduleWithFixedDelay(acks::timedAck,
+                    ackIntervalMs, ackIntervalMs, TimeUnit.MILLISECONDS);
+            try {
+                read(parser, decoder, acks);
+            } finally {
+                timer.cancel(false);
+                acks.close();
+            }
+        }
+    }
+
+    private void read(JsonParser parser, RocketMessageDecoder decoder, Acknowledgements acks) throws IOException {
+        while (true) {
+            DecodedMessage message;
+            try {
+                message = decoder.next(parser);
+            } catch (InvalidMessageException e) {
+                acks.invalid();
+                log.debug("Skipped invalid streamed message: {}", e.getMessage());
+                continue;
+            } catch (IOException e) {
+                log.warn("Malformed message stream after {} messages: {}", acks.received(), e.getMessage());
+                acks.settle();
+                acks.ack();
+                acks.error(e.getMessage());
+                return;
+            }
+            if (message == null) {
+                break;
+            }
+
+            if (acks.submitted(submit(message, acks)) % ackEvery == 0) {
+                acks.settle();
+                acks.ack();
+            }
+        }
+        acks.settle();
+        acks.ack();
+        log.debug("Message stream finished after {} messages", acks.received());
+    }
+
+    private CompletableFuture<RocketTracker> submit(DecodedMessage message, Acknowledgements acks) {
+        while (true) {
+            try {
+                return ingest.submit(message);
+            } catch (IngestOverloadedException e) {
+                if (!acks.settle()) {
+                    LockSupport.parkNanos(OVERLOAD_BACKOFF_NANOS);
+                }
+            }
+        }
+    }
+
+    /**
+     * Counters, submitted messages and the ack line writer of one stream, shared by its reader and the ack timer
+     */
+    private static final class Acknowledgements {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final JsonGenerator generator;
+        private final Map<String, Integer> acks = new LinkedHashMap<>();
+        private final List<CompletableFuture<RocketTracker>> pending = new ArrayList<>();
+        private long received;
+        private long invalid;
+        private long failed;
+        private long ackedReceived; //received as of the last ack line
+        private boolean closed;
+
+        Acknowledgements(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        long received() {
+            lock.lock();
+            try {
+                return received;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void invalid() {
+            lock.lock();
+            try {
+                received++;
+                invalid++;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * @return messages received so far
+         */
+        long submitted(CompletableFuture<RocketTracker> result) {
+            lock.lock();
+            try {
+                pending.add(result);
+                return ++received;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Waits for the submitted messages without holding the lock, then records them for the next ack line
+         *
+         * @return false if nothing was submitted
+         */
+        boolean settle() {
+            List<CompletableFuture<RocketTracker>> submitted;
+            lock.lock();
+            try {
+                submitted = List.copyOf(pending);
+            } finally {
+                lock.unlock();
+            }
+            for (CompletableFuture<RocketTracker> result : submitted) {
+                result.handle((tracker, failure) -> null).join();
+            }
+            lock.lock();
+            try {
+                collect();
+            } finally {
+                lock.unlock();
+            }
+            return !submitted.isEmpty();
+        }
+
+        void ack() throws IOException {
+            lock.lock();
+            try {
+                collect();
+                writeAck();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Acknowledges messages applied by now, if anything happened since the last ack line
+         */
+        void timedAck() {
+            lock.lock();
+            try {
+                if (closed || !collect() && received == ackedReceived) {
+                    return;
+                }
+                writeAck();
+            } catch (IOException e) {
+                //the client is gone, the reader fails on its next write or read
+                log.debug("Failed to write timed acknowledgement: {}", e.getMessage());
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void error(String error) throws IOException {
+            lock.lock();
+            try {
+                generator.writeStartObject();
+                generator.writeStringField("error", error);
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+                generator.flush();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Stops the timer from writing, the stream is answered by then
+         */
+        void close() {
+            lock.lock();
+            try {
+                closed = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Moves completed messages from pending to acks or failed, must be called under lock
+         *
+         * @return true if any completed
+         */
+        private boolean collect() {
+            boolean any = false;
+            for (Iterator<CompletableFuture<RocketTracker>> iterator = pending.iterator(); iterator.hasNext(); ) {
+                CompletableFuture<RocketTracker> result = iterator.next();
+                Future.State state = result.state();
+                if (state == Future.State.RUNNING) {
+                    continue;
+                }
+                if (state == Future.State.SUCCESS) {
+                    RocketTracker tracker = result.resultNow();
+                    acks.put(tracker.getChannel(), tracker.getLastApplied());
+                } else {
+                    failed++;
+                    log.debug("Streamed message failed: {}",
+                            state == Future.State.FAILED ? result.exceptionNow().getMessage() : state);
+                }
+                iterator.remove();
+                any = true;
+            }
+            return any;
+        }
+
+        private void writeAck() throws IOException {
+            generator.writeStartObject();
+            generator.writeObjectFieldStart("acks");
+            for (Map.Entry<String, Integer> ack : acks.entrySet()) {
+                generator.writeNumberField(ack.getKey(), ack.getValue());
+            }
+            generator.writeEndObject();
+            generator.writeNumberField("received", received);
+            generator.writeNumberField("invalid", invalid);
+            generator.writeNumberField("failed", failed);
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+            generator.flush();
+            acks.clear();
+            ackedReceived = received;
+        }
+    }
+}
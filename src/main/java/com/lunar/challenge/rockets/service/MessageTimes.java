@@ -0,0 +1,26 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+
+/**
+ * Range check of metadata.messageTime shared by all decoding paths.
+ * Histories and off-heap records keep times as epoch nanos in a long, 1677-09-21 to 2262-04-11.
+ */
+final class MessageTimes {
+    static final Instant MIN = Instant.ofEpochSecond(0, Long.MIN_VALUE + 1); //Long.MIN_VALUE stands for no time
+    static final Instant MAX = Instant.ofEpochSecond(0, Long.MAX_VALUE);
+
+    private MessageTimes() {
+    }
+
+    static OffsetDateTime check(OffsetDateTime messageTime) {
+        if (messageTime != null && (messageTime.toInstant().isBefore(MIN) || messageTime.toInstant().isAfter(MAX))) {
+            throw new InvalidMessageException(
+                    "metadata.messageTime must be between " + MIN + " and " + MAX + ": " + messageTime);
+        }
+        return messageTime;
+    }
+}
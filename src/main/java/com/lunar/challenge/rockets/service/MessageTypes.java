@@ -0,0 +1,23 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+
+/**
+ * Parsing of metadata.messageType shared by all decoding paths
+ */
+final class MessageTypes {
+    private MessageTypes() {
+    }
+
+    static MessageType parse(String messageType) {
+        if (messageType == null) {
+            throw new InvalidMessageException("metadata.messageType is required");
+        }
+        try {
+            return MessageType.valueOf(messageType);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidMessageException("Unknown messageType: " + messageType);
+        }
+    }
+}
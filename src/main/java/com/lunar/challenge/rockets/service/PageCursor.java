@@ -0,0 +1,37 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.exception.InvalidQueryException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a fleet listing: sort key of the last rocket of the previous page.
+ * Sent to clients as an opaque base64url token: "c:{channel}" for channel order, "s:{speed}:{channel}" for speed order.
+ */
+record PageCursor(boolean bySpeed, int speed, String channel) {
+
+    String encode() {
+        String raw = bySpeed ? "s:" + speed + ":" + channel : "c:" + channel;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @throws InvalidQueryException if token is malformed or was issued for another sort
+     */
+    static PageCursor decode(String token, boolean bySpeed) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            if (!bySpeed && raw.startsWith("c:")) {
+                return new PageCursor(false, 0, raw.substring(2));
+            }
+            if (bySpeed && raw.startsWith("s:")) {
+                int separator = raw.indexOf(':', 2);
+                return new PageCursor(true, Integer.parseInt(raw.substring(2, separator)), raw.substring(separator + 1));
+            }
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            //reported below
+        }
+        throw new InvalidQueryException("Malformed cursor or cursor of another sort: " + token);
+    }
+}
@@ -0,0 +1,81 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.StageOutcome;
+import com.lunar.challenge.rockets.dto.RocketStatusView;
+import com.lunar.challenge.rockets.exception.RocketNotFoundException;
+import com.lunar.challenge.rockets.repository.ReactiveRocketRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Non-blocking variant of the RocketService hot paths: applying a single message, reading one rocket and the fleet.
+ * Views and updates are built the same way as in RocketService.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveRocketService {
+    private final ReactiveRocketRepository repository;
+    private final RocketUpdatePublisher updates;
+
+    /**
+     * Apply already decoded message to rocket state
+     *
+     * @return tracker of the message channel after apply
+     */
+    public Mono<RocketTracker> handle(DecodedMessage message) {
+        //set again on every optimistic attempt, the last one wins
+        AtomicReference<StageOutcome> outcome = new AtomicReference<>();
+        return repository.apply(message.channel(), tracker -> outcome.set(tracker.stageAndApply(
+                        message.messageNumber(), message.messageTime(), message.messageType(), message.event())))
+                .doOnNext(tracker -> {
+                    log.debug("Applied message {} type {} to channel {}",
+                            message.messageNumber(), message.messageType(), message.channel());
+                    if (outcome.get() == StageOutcome.APPLIED && updates.hasSubscribers()) {
+                        updates.publish(RocketService.toUpdate(tracker));
+                    }
+                });
+    }
+
+    /**
+     * Same as RocketService.getVersionedRocket: the version comes from the status alone,
+     * history is read only when the view is asked for.
+     *
+     * @throws RocketNotFoundException (as error signal) if rocket not found
+     */
+    public Mono<Versioned<Mono<RocketStatusView>>> getVersionedRocket(String channel) {
+        return repository.findByChannel(channel, false)
+                .switchIfEmpty(Mono.error(() -> new RocketNotFoundException(channel)))
+                .map(tracker -> new Versioned<>(RocketService.rocketTag(tracker.snapshot()),
+                        () -> repository.findByChannel(channel, true)
+                                .switchIfEmpty(Mono.error(() -> new RocketNotFoundException(channel)))
+                                .map(RocketService::toView)));
+    }
+
+    /**
+     * Same as RocketService.getVersionedRockets, the list is read only when asked for.
+     * The version is the shared Redis counter, tagged alike by every instance.
+     */
+    public Mono<Versioned<Mono<List<RocketStatusView>>>> getVersionedRockets() {
+        return repository.fleetVersion()
+                .map(version -> new Versioned<>(RocketService.FLEET_TAG_PREFIX + version, this::getAllRockets));
+    }
+
+    /**
+     * Get list of all rockets sorted by channel, without history
+     */
+    public Mono<List<RocketStatusView>> getAllRockets() {
+        return repository.findAll()
+                .map(tracker -> RocketService.toView(tracker, 0))
+                .collectSortedList(Comparator.comparing(RocketStatusView::getChannel));
+    }
+}
@@ -0,0 +1,214 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketMessageFields;
+import com.lunar.challenge.rockets.domain.event.*;
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Reads rocket messages straight from the Jackson token stream into RocketEvent records,
+ * without binding metadata and payload to DTOs or a JsonNode tree.
+ * Payload fields are collected before dispatching on messageType, so field order in the message does not matter.
+ * <p>
+ * Metadata is read the way Jackson binds Metadata for /messages/batch, so every endpoint sees a message alike:
+ * messageTime is an ISO-8601 date-time or epoch seconds and is adjusted to UTC,
+ * messageNumber may also be a numeric string or a float, which is truncated.
+ * <p>
+ * Keeps scratch state between messages: one instance per stream or request, not thread-safe.
+ */
+public class RocketMessageDecoder {
+    private static final String METADATA = "metadata";
+    private static final String MESSAGE = "message";
+    private static final String CHANNEL = "channel";
+    private static final String MESSAGE_NUMBER = "messageNumber";
+    private static final String MESSAGE_TIME = "messageTime";
+    private static final String MESSAGE_TYPE = "messageType";
+    private static final String UNKNOWN = "Unknown";
+
+    private String channel;
+    private int messageNumber;
+    private String invalidNumber; //raw messageNumber that is no int, reported once the message is read
+    private String messageTime;
+    private boolean epochSeconds; //messageTime was a JSON number
+    private String messageType;
+
+    private String rocketType;
+    private String mission;
+    private String newMission;
+    private int launchSpeed;
+    private int by;
+
+    /**
+     * Reads the next message of the stream.
+     *
+     * @return decoded message or null at the end of the stream
+     * @throws InvalidMessageException if the message misses required metadata or has an unknown type,
+     *                                 the parser is positioned after that message so reading can go on
+     */
+    public DecodedMessage next(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == null) {
+            return null;
+        }
+        if (token != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            throw new InvalidMessageException("Rocket message must be a JSON object");
+        }
+        return readMessage(parser);
+    }
+
+    /**
+     * Reads one message, parser must be positioned at its START_OBJECT.
+     */
+    public DecodedMessage readMessage(JsonParser parser) throws IOException {
+        reset();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            if (value == JsonToken.START_OBJECT && METADATA.equals(field)) {
+                readMetadata(parser);
+            } else if (value == JsonToken.START_OBJECT && MESSAGE.equals(field)) {
+                readPayload(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return toDecodedMessage();
+    }
+
+    private void readMetadata(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case CHANNEL -> channel = text(parser, value, null);
+                case MESSAGE_NUMBER -> readMessageNumber(parser, value);
+                case MESSAGE_TIME -> {
+                    epochSeconds = value.isNumeric();
+                    messageTime = text(parser, value, null);
+                }
+                case MESSAGE_TYPE -> messageType = text(parser, value, null);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private void readPayload(JsonParser parser) throws IOException {
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String field = parser.currentName();
+            JsonToken value = parser.nextToken();
+            switch (field) {
+                case RocketMessageFields.TYPE -> rocketType = text(parser, value, UNKNOWN);
+                case RocketMessageFields.MISSION -> mission = text(parser, value, UNKNOWN);
+                case RocketMessageFields.NEW_MISSION -> newMission = text(parser, value, UNKNOWN);
+                case RocketMessageFields.LAUNCH_SPEED -> launchSpeed = number(parser, value);
+                case RocketMessageFields.BY -> by = number(parser, value);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    /**
+     * Same rules as JsonUtils.getText: any scalar as text, null or container as default.
+     */
+    private static String text(JsonParser parser, JsonToken value, String defaultValue) throws IOException {
+        if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return defaultValue;
+    }
+
+    /**
+     * Same rules as JsonUtils.getInt: int numbers only, anything else is 0.
+     */
+    private static int number(JsonParser parser, JsonToken value) throws IOException {
+        if (value == JsonToken.VALUE_NUMBER_INT && parser.getNumberType() == JsonParser.NumberType.INT) {
+            return parser.getIntValue();
+        }
+        parser.skipChildren();
+        return 0;
+    }
+
+    /**
+     * Jackson coercions to int: integral strings, floats truncated, null as 0
+     */
+    private void readMessageNumber(JsonParser parser, JsonToken value) throws IOException {
+        try {
+            messageNumber = switch (value) {
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT ->
+                        parser.getDecimalValue().setScale(0, RoundingMode.DOWN).intValueExact();
+                case VALUE_STRING -> parser.getText().isBlank() ? 0 : Integer.parseInt(parser.getText().trim());
+                case VALUE_NULL -> 0;
+                default -> throw new NumberFormatException();
+            };
+        } catch (ArithmeticException | NumberFormatException e) {
+            invalidNumber = value.isScalarValue() ? parser.getText() : value.asString();
+            parser.skipChildren();
+        }
+    }
+
+    private DecodedMessage toDecodedMessage() {
+        if (channel == null || channel.isBlank()) {
+            throw new InvalidMessageException("metadata.channel is required");
+        }
+        if (invalidNumber != null) {
+            throw new InvalidMessageException("metadata.messageNumber is not an int: " + invalidNumber);
+        }
+        if (messageNumber < 1) {
+            throw new InvalidMessageException("metadata.messageNumber must be greater than 0");
+        }
+        MessageType type = MessageTypes.parse(messageType);
+
+        RocketEvent event = switch (type) {
+            case RocketLaunched -> new RocketLaunched(rocketType, mission, launchSpeed);
+            case RocketSpeedIncreased -> new RocketSpeedIncreased(by);
+            case RocketSpeedDecreased -> new RocketSpeedDecreased(by);
+            case RocketMissionChanged -> new RocketMissionChanged(newMission);
+            case RocketExploded -> new RocketExploded();
+        };
+        return new DecodedMessage(channel, messageNumber, MessageTimes.check(parseTime(messageTime, epochSeconds)),
+                type, event);
+    }
+
+    private static OffsetDateTime parseTime(String messageTime, boolean epochSeconds) {
+        if (messageTime == null || messageTime.isEmpty()) {
+            return null;
+        }
+        try {
+            if (epochSeconds) {
+                BigDecimal seconds = new BigDecimal(messageTime);
+                long nanos = seconds.remainder(BigDecimal.ONE).movePointRight(9).longValue();
+                return Instant.ofEpochSecond(seconds.setScale(0, RoundingMode.DOWN).longValueExact(), nanos)
+                        .atOffset(ZoneOffset.UTC);
+            }
+            return OffsetDateTime.parse(messageTime).withOffsetSameInstant(ZoneOffset.UTC);
+        } catch (RuntimeException e) {
+            throw new InvalidMessageException(
+                    "metadata.messageTime is not an ISO-8601 date-time or epoch seconds: " + messageTime);
+        }
+    }
+
+    private void reset() {
+        channel = null;
+        messageNumber = 0;
+        invalidNumber = null;
+        messageTime = null;
+        epochSeconds = false;
+        messageType = null;
+        rocketType = UNKNOWN;
+        mission = UNKNOWN;
+        newMission = UNKNOWN;
+        launchSpeed = 0;
+        by = 0;
+    }
+}
@@ -2,54 +2,365 @@ package com.lunar.challenge.rockets.service;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketState;
 import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.StageOutcome;
+import com.lunar.challenge.rockets.domain.SymbolTable;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
 import com.lunar.challenge.rockets.domain.event.RocketEvent;
+import com.lunar.challenge.rockets.dto.MessageOutcome;
 import com.lunar.challenge.rockets.dto.Metadata;
+import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.dto.RocketPage;
+import com.lunar.challenge.rockets.dto.RocketQuery;
 import com.lunar.challenge.rockets.dto.RocketStatusView;
+import com.lunar.challenge.rockets.dto.RocketUpdate;
+import com.lunar.challenge.rockets.exception.IngestOverloadedException;
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+import com.lunar.challenge.rockets.exception.InvalidQueryException;
 import com.lunar.challenge.rockets.exception.RocketNotFoundException;
+import com.lunar.challenge.rockets.journal.MessageJournal;
+import com.lunar.challenge.rockets.repository.RankedTracker;
 import com.lunar.challenge.rockets.repository.RocketRepository;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class RocketService {
+    static final int MAX_PAGE_SIZE = 1000;
+    static final String FLEET_TAG_PREFIX = "fleet-";
+    //process-local fleet versions restart at 0, the start time keeps an ETag of a previous run from matching a new
+    //version; a shared version goes without it, so every instance tags the same version alike
+    static final String LOCAL_FLEET_TAG_PREFIX = FLEET_TAG_PREFIX + Long.toString(System.currentTimeMillis(), 36) + "-";
+
     private final RocketRepository repository;
+    private final RocketUpdatePublisher updates;
+    private final MessageJournal journal;
+    //channels whose rocket had buffered messages when this instance last changed it, the gap sweep visits only them
+    private final Set<String> waiting = ConcurrentHashMap.newKeySet();
+    //rockets restored with buffered messages are found by one walk over the fleet on the first sweep
+    private volatile boolean waitingFound;
+    //rockets.ingest per outcome: time from the message reaching the service to it being saved and durable
+    private final Map<StageOutcome, Timer> ingestTimers = new EnumMap<>(StageOutcome.class);
+
+    public RocketService(RocketRepository repository, RocketUpdatePublisher updates, MeterRegistry meterRegistry,
+                         MessageJournal journal) {
+        this.repository = repository;
+        this.updates = updates;
+        this.journal = journal;
+        for (StageOutcome outcome : StageOutcome.values()) {
+            ingestTimers.put(outcome, Timer.builder("rockets.ingest")
+                    .description("Apply one message to its rocket, including load, save and journal")
+                    .tag("outcome", outcome.name().toLowerCase())
+                    .register(meterRegistry));
+        }
+    }
 
     /**
      * Apply incoming message to rocket state
      */
     public void handleMessage(Metadata metadata, JsonNode payload) {
-        String channel = metadata.getChannel();
-        int messageNumber = metadata.getMessageNumber();
-        OffsetDateTime messageTime = metadata.getMessageTime();
-        MessageType messageType = MessageType.valueOf(metadata.getMessageType());
-
-        // JSON -> Rocket Event
-        RocketEvent event = EventMapper.from(messageType, payload);
+        handle(decode(metadata, payload));
+    }
 
-        // creating tracker
-        RocketTracker tracker = repository.findByChannel(channel)
-                .orElseGet(() -> {
-                    log.info("Creating new tracker for channel {}", channel);
-                    return new RocketTracker(channel);
-                });
-        
-        // applying events
-        tracker.stageAndApply(messageNumber, messageTime, messageType, event);
-        repository.save(tracker);
+    /**
+     * Apply already decoded message to rocket state and wait until it is durable
+     *
+     * @return tracker of the message channel after apply
+     */
+    public RocketTracker handle(DecodedMessage message) {
+        return MessageIngest.await(handleAsync(message));
+    }
 
+    /**
+     * Apply already decoded message to rocket state without waiting for the journal, as an ingest shard does.
+     * Readers of the rocket see the change once it is applied, subscribers get it once it is durable.
+     *
+     * @return future completed with the tracker of the message channel once the message is durable,
+     * by the journal sync thread if it had to wait
+     */
+    public CompletableFuture<RocketTracker> handleAsync(DecodedMessage message) {
+        long start = System.nanoTime();
+        // loading or creating tracker, applying events and saving as one step
+        AtomicReference<StageOutcome> outcome = new AtomicReference<>();
+        AtomicReference<List<SkippedGap>> skipped = new AtomicReference<>();
+        RocketTracker tracker = repository.apply(message.channel(), t -> {
+            outcome.set(t.stageAndApply(
+                    message.messageNumber(), message.messageTime(), message.messageType(), message.event()));
+            skipped.set(t.drainTimedOutGaps());
+            noteGap(t);
+        });
+        long journaled = 0;
+        if (accepted(outcome.get())) {
+            journaled = journal.append(message.channel(), message.toPendingEvent());
+        }
+        if (!skipped.get().isEmpty()) {
+            journaled = journal.appendSkipped(message.channel(), skipped.get());
+        }
         log.debug("Applied message {} type {} to channel {}",
-                messageNumber, event.getClass().getSimpleName(), channel);
+                message.messageNumber(), message.messageType(), message.channel());
+
+        CompletableFuture<Void> durable = journaled > 0
+                ? journal.whenDurable(journaled)
+                : CompletableFuture.completedFuture(null);
+        return durable.thenApply(ignored -> {
+            ingestTimers.get(outcome.get()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (outcome.get() == StageOutcome.APPLIED) {
+                publish(tracker);
+            }
+            return tracker;
+        });
+    }
+
+    /**
+     * Apply a batch of messages: grouped by channel, each group is staged under one tracker lock
+     * and saved once, by the ingest that applies single messages of its channel.
+     *
+     * @return outcome per message, in the order of messages
+     * @throws IngestOverloadedException if a group can't be queued, groups queued before it are still applied
+     */
+    public List<MessageOutcome> handleBatch(List<RocketMessage> messages, MessageIngest ingest) {
+        MessageOutcome[] outcomes = new MessageOutcome[messages.size()];
+        DecodedMessage[] decoded = new DecodedMessage[messages.size()];
+        Map<String, List<Integer>> byChannel = new LinkedHashMap<>();
+
+        for (int i = 0; i < messages.size(); i++) {
+            RocketMessage message = messages.get(i);
+            try {
+                decoded[i] = decode(message.getMetadata(), message.getPayload());
+                byChannel.computeIfAbsent(decoded[i].channel(), channel -> new ArrayList<>()).add(i);
+            } catch (InvalidMessageException e) {
+                Metadata metadata = message.getMetadata();
+                outcomes[i] = MessageOutcome.builder()
+                        .channel(metadata != null ? metadata.getChannel() : null)
+                        .messageNumber(metadata != null ? metadata.getMessageNumber() : 0)
+                        .status(MessageOutcome.Status.INVALID)
+                        .error(e.getMessage())
+                        .build();
+            }
+        }
+
+        //groups of different shards are applied in parallel
+        Map<String, CompletableFuture<GroupResult>> results = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Integer>> group : byChannel.entrySet()) {
+            List<PendingEvent> events = group.getValue().stream()
+                    .map(i -> decoded[i].toPendingEvent())
+                    .toList();
+            results.put(group.getKey(), ingest.execute(group.getKey(), () -> applyGroup(group.getKey(), events)));
+        }
+
+        long journaled = 0;
+        List<RocketTracker> changed = new ArrayList<>();
+        for (Map.Entry<String, List<Integer>> group : byChannel.entrySet()) {
+            String channel = group.getKey();
+            List<Integer> indexes = group.getValue();
+            GroupResult result = MessageIngest.await(results.get(channel));
+            journaled = Math.max(journaled, result.journaled());
+            if (result.outcomes().contains(StageOutcome.APPLIED)) {
+                changed.add(result.tracker());
+            }
+            for (int j = 0; j < indexes.size(); j++) {
+                int i = indexes.get(j);
+                outcomes[i] = MessageOutcome.builder()
+                        .channel(channel)
+                        .messageNumber(decoded[i].messageNumber())
+                        .status(MessageOutcome.Status.valueOf(result.outcomes().get(j).name()))
+                        .build();
+            }
+        }
+        //one wait for the whole batch, the journal syncs it as a group
+        //the shards applied the groups without waiting, the request thread waits once for the whole batch
+        journal.awaitDurable(journaled);
+        changed.forEach(this::publish);
+
+        log.debug("Applied batch of {} messages for {} channels", messages.size(), byChannel.size());
+        return List.of(outcomes);
     }
 
+    /**
+     * Outcomes of one channel of a batch, its tracker and the journal position covering them
+     */
+    private record GroupResult(List<StageOutcome> outcomes, RocketTracker tracker, long journaled) {
+    }
+
+    private GroupResult applyGroup(String channel, List<PendingEvent> events) {
+        AtomicReference<List<StageOutcome>> outcomes = new AtomicReference<>();
+        AtomicReference<List<SkippedGap>> skipped = new AtomicReference<>();
+        RocketTracker tracker = repository.apply(channel, t -> {
+            outcomes.set(t.stageAndApplyAll(events));
+            skipped.set(t.drainTimedOutGaps());
+            noteGap(t);
+        });
+        long journaled = 0;
+        for (int j = 0; j < events.size(); j++) {
+            if (accepted(outcomes.get().get(j))) {
+                journaled = journal.append(channel, events.get(j));
+            }
+        }
+        if (!skipped.get().isEmpty()) {
+            journaled = journal.appendSkipped(channel, skipped.get());
+        }
+        return new GroupResult(outcomes.get(), tracker, journaled);
+    }
+
+    /**
+     * Messages the tracker took, they are journaled to be replayed on restart
+     */
+    private static boolean accepted(StageOutcome outcome) {
+        return outcome == StageOutcome.APPLIED || outcome == StageOutcome.BUFFERED;
+    }
+
+    /**
+     * Remembers whether the tracker waits for a missing message, called under its lock
+     */
+    private void noteGap(RocketTracker tracker) {
+        if (tracker.gap() != null) {
+            waiting.add(tracker.getChannel());
+        } else {
+            waiting.remove(tracker.getChannel());
+        }
+    }
+
+    /**
+     * Skips overdue gaps of rockets that went silent, staging checks the gap timeout only when a message arrives.
+     * Visits only rockets that had buffered messages when this instance last changed them, each one on the ingest
+     * that applies its messages; only rockets with an overdue gap are written. A rocket whose shard is full
+     * is left for the next sweep.
+     *
+     * @return rockets whose buffered messages were applied
+     */
+    public int releaseExpiredGaps(MessageIngest ingest) {
+        if (!waitingFound) {
+            for (RocketTracker found : repository.findAll()) {
+                if (found.gap() != null) {
+                    waiting.add(found.getChannel());
+                }
+            }
+            waitingFound = true;
+        }
+        List<CompletableFuture<ReleasedGap>> releases = new ArrayList<>();
+        for (String channel : waiting) {
+            try {
+                releases.add(ingest.execute(channel, () -> releaseExpiredGap(channel)));
+            } catch (IngestOverloadedException e) {
+                log.debug("Gap release of {} postponed: {}", channel, e.getMessage());
+            }
+        }
+        List<RocketTracker> released = new ArrayList<>();
+        long journaled = 0;
+        for (CompletableFuture<ReleasedGap> release : releases) {
+            ReleasedGap gap = MessageIngest.await(release);
+            if (gap != null) {
+                released.add(gap.tracker());
+                journaled = Math.max(journaled, gap.journaled());
+            }
+        }
+        journal.awaitDurable(journaled);
+        released.forEach(this::publish);
+        return released.size();
+    }
+
+    /**
+     * Rocket whose overdue gap was skipped and the journal position of the skip
+     */
+    private record ReleasedGap(RocketTracker tracker, long journaled) {
+    }
+
+    /**
+     * @return the released gap, null if the gap is not overdue or was closed meanwhile
+     */
+    private ReleasedGap releaseExpiredGap(String channel) {
+        RocketTracker found = repository.findByChannel(channel).orElse(null);
+        if (found == null || found.gap() == null) {
+            waiting.remove(channel);
+            return null;
+        }
+        if (!found.hasExpiredGap()) {
+            return null;
+        }
+        AtomicReference<List<SkippedGap>> skipped = new AtomicReference<>();
+        RocketTracker tracker = repository.apply(channel, t -> {
+            t.releaseExpiredGap();
+            skipped.set(t.drainTimedOutGaps());
+            noteGap(t);
+        });
+        if (skipped.get().isEmpty()) {
+            return null;
+        }
+        return new ReleasedGap(tracker, journal.appendSkipped(channel, skipped.get()));
+    }
+
+    private void publish(RocketTracker tracker) {
+        if (updates.hasSubscribers()) {
+            updates.publish(toUpdate(tracker));
+        }
+    }
+
+    /**
+     * Subscribe to updates of one rocket (current state is sent first) or of the whole fleet
+     *
+     * @param channel rocket to follow, null for all rockets
+     */
+    public SseEmitter subscribe(String channel) {
+        RocketUpdate initial = channel != null
+                ? repository.findByChannel(channel).map(RocketService::toUpdate).orElse(null)
+                : null;
+        return updates.subscribe(channel, initial);
+    }
+
+    static RocketUpdate toUpdate(RocketTracker tracker) {
+        RocketState state = tracker.snapshot();
+        return RocketUpdate.builder()
+                .channel(state.channel())
+                .type(state.type())
+                .mission(state.mission())
+                .speed(state.speed())
+                .exploded(state.exploded())
+                .lastMessageTime(state.lastMessageTime())
+                .lastApplied(state.lastApplied())
+                .build();
+    }
+
+    /**
+     * Validates metadata and maps JSON payload to a Rocket Event
+     *
+     * @throws InvalidMessageException if channel, message number or type is missing or wrong, or time out of range
+     */
+    DecodedMessage decode(Metadata metadata, JsonNode payload) {
+        if (metadata == null || metadata.getChannel() == null || metadata.getChannel().isBlank()) {
+            throw new InvalidMessageException("metadata.channel is required");
+        }
+        if (metadata.getMessageNumber() < 1) {
+            throw new InvalidMessageException("metadata.messageNumber must be greater than 0");
+        }
+        MessageType messageType = MessageTypes.parse(metadata.getMessageType());
+
+        // JSON -> Rocket Event
+        RocketEvent event = EventMapper.from(messageType, payload);
+
+        return new DecodedMessage(metadata.getChannel(), metadata.getMessageNumber(),
+                MessageTimes.check(metadata.getMessageTime()), messageType, event);
+    }
 
     /**
      * Get current status of a given single rocket
@@ -66,29 +377,222 @@ public class RocketService {
     }
 
     /**
-     * Get list of all rockets sorted by channel
+     * Same as getRocket, the view is built only when asked for.
+     * Version is the last applied message number, it grows with every change of the rocket,
+     * followed by the incarnation, see rocketTag.
+     *
+     * @throws RocketNotFoundException if rocket not found
+     */
+    public Versioned<RocketStatusView> getVersionedRocket(String channel) {
+        RocketTracker tracker = repository.findByChannel(channel)
+                .orElseThrow(() -> new RocketNotFoundException(channel));
+
+        return new Versioned<>(rocketTag(tracker.snapshot()), () -> toView(tracker));
+    }
+
+    /**
+     * The last applied message number restarts at 1 when a rocket expires and launches again, or when a process-local
+     * fleet is rebuilt after a restart. A fingerprint of the state it reached tells such incarnations apart,
+     * and is the same on every instance reading the rocket from Redis.
+     */
+    static String rocketTag(RocketState state) {
+        int incarnation = Objects.hash(state.type(), state.mission(), state.speed(), state.exploded(),
+                state.lastMessageTime());
+        return state.lastApplied() + "-" + Integer.toUnsignedString(incarnation, 36);
+    }
+
+    /**
+     * Same as getAllRockets, the list is built only when asked for.
+     * Version is read before the list is built, so it never claims changes the list doesn't contain.
+     */
+    public Versioned<List<RocketStatusView>> getVersionedRockets() {
+        String prefix = repository.isFleetVersionShared() ? FLEET_TAG_PREFIX : LOCAL_FLEET_TAG_PREFIX;
+        return new Versioned<>(prefix + repository.fleetVersion(), this::getAllRockets);
+    }
+
+    /**
+     * Get list of all rockets sorted by channel, without history
      */
     public List<RocketStatusView> getAllRockets() {
         return repository.findAll().stream()
-                .map(this::toView)
+                .map(tracker -> toView(tracker, 0))
                 .sorted(Comparator.comparing(RocketStatusView::getChannel))
                 .toList();
     }
 
-    private RocketStatusView toView(RocketTracker tracker) {
-        var status = tracker.snapshot();
-        log.info("Building view for channel {}, status: type={}, mission={}, speed={}, time={}",
-                status.getChannel(), status.getType(), status.getMission(),
-                status.getSpeed(), status.getLastMessageTime());
+    /**
+     * Get one page of the fleet: filtered, sorted by channel or speed, with optional history.
+     * Both orders walk the repository from the cursor where it keeps them sorted, repositories without
+     * a fleet index rank the whole fleet for a page by speed.
+     *
+     * @throws InvalidQueryException if cursor, limit, sort, order or history option is wrong
+     */
+    public RocketPage getRocketPage(RocketQuery query) {
+        checkLimit(query.getLimit());
+        boolean bySpeed = parseSort(query.getSort());
+        boolean descending = parseOrder(query.getOrder());
+        int historyLimit = parseHistory(query.getHistory());
+        PageCursor cursor = query.getCursor() != null ? PageCursor.decode(query.getCursor(), bySpeed) : null;
+
+        //one extra rocket tells whether there is a next page
+        List<RankedTracker> ranked;
+        if (bySpeed) {
+            RankedTracker after = cursor != null ? new RankedTracker(cursor.channel(), cursor.speed(), null) : null;
+            ranked = repository.findPageBySpeed(after, descending, query.getLimit() + 1, filter(query));
+        } else {
+            ranked = repository.findPage(cursor != null ? cursor.channel() : null, descending,
+                            query.getLimit() + 1, filter(query)).stream()
+                    .map(RankedTracker::of)
+                    .toList();
+        }
+
+        boolean hasMore = ranked.size() > query.getLimit();
+        List<RankedTracker> page = hasMore ? ranked.subList(0, query.getLimit()) : ranked;
+        String nextCursor = null;
+        if (hasMore) {
+            RankedTracker last = page.get(page.size() - 1);
+            nextCursor = new PageCursor(bySpeed, last.speed(), last.channel()).encode();
+        }
+
+        return RocketPage.builder()
+                .items(page.stream()
+                        .map(entry -> toView(entry.tracker(), historyLimit))
+                        .toList())
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    /**
+     * Get fastest rockets, fastest first, without history
+     */
+    public List<RocketStatusView> getFastestRockets(int limit) {
+        checkLimit(limit);
+        return toViews(repository.findFastest(limit));
+    }
+
+    /**
+     * Get rockets on a mission sorted by channel, without history
+     */
+    public List<RocketStatusView> getRocketsByMission(String mission, int limit) {
+        checkLimit(limit);
+        return toViews(repository.findByMission(mission, limit));
+    }
+
+    /**
+     * Get rockets of a type sorted by channel, without history
+     */
+    public List<RocketStatusView> getRocketsByType(String type, int limit) {
+        checkLimit(limit);
+        return toViews(repository.findByType(type, limit));
+    }
+
+    /**
+     * Get exploded rockets sorted by channel, without history
+     */
+    public List<RocketStatusView> getExplodedRockets(int limit) {
+        checkLimit(limit);
+        return toViews(repository.findExploded(limit));
+    }
+
+    private List<RocketStatusView> toViews(List<RocketTracker> trackers) {
+        return trackers.stream()
+                .map(tracker -> toView(tracker, 0))
+                .toList();
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new InvalidQueryException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+    }
+
+    private static Predicate<RocketTracker> filter(RocketQuery query) {
+        //resolved to ids once, a value never seen is UNKNOWN and matches no rocket, OVERFLOW ones compare strings
+        boolean byMission = query.getMission() != null;
+        boolean byType = query.getType() != null;
+        int mission = byMission ? SymbolTable.SHARED.find(query.getMission()) : SymbolTable.UNKNOWN;
+        int type = byType ? SymbolTable.SHARED.find(query.getType()) : SymbolTable.UNKNOWN;
+        return tracker -> {
+            RocketState state = tracker.snapshot();
+            return (!byMission || state.isOnMission(mission, query.getMission()))
+                    && (!byType || state.isOfType(type, query.getType()))
+                    && (query.getExploded() == null || query.getExploded() == state.exploded())
+                    && (query.getMinSpeed() == null || state.speed() >= query.getMinSpeed())
+                    && (query.getMaxSpeed() == null || state.speed() <= query.getMaxSpeed());
+        };
+    }
+
+    private static boolean parseSort(String sort) {
+        if (sort == null || sort.equalsIgnoreCase("channel")) {
+            return false;
+        }
+        if (sort.equalsIgnoreCase("speed")) {
+            return true;
+        }
+        throw new InvalidQueryException("sort must be channel or speed, got " + sort);
+    }
+
+    private static boolean parseOrder(String order) {
+        if (order == null || order.equalsIgnoreCase("asc")) {
+            return false;
+        }
+        if (order.equalsIgnoreCase("desc")) {
+            return true;
+        }
+        throw new InvalidQueryException("order must be asc or desc, got " + order);
+    }
+
+    /**
+     * @return number of latest history events to embed: 0 for none, Integer.MAX_VALUE for full
+     */
+    private static int parseHistory(String history) {
+        if (history == null || history.equalsIgnoreCase("none")) {
+            return 0;
+        }
+        if (history.equalsIgnoreCase("full")) {
+            return Integer.MAX_VALUE;
+        }
+        try {
+            int limit = Integer.parseInt(history);
+            if (limit >= 0) {
+                return limit;
+            }
+        } catch (NumberFormatException e) {
+            //reported below
+        }
+        throw new InvalidQueryException("history must be none, full or a number of latest events, got " + history);
+    }
+
+    static RocketStatusView toView(RocketTracker tracker) {
+        return toView(tracker, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param historyLimit number of latest history events to embed: 0 for none, Integer.MAX_VALUE for full
+     */
+    static RocketStatusView toView(RocketTracker tracker, int historyLimit) {
+        //status and history of the view come from one published state
+        RocketState state = historyLimit > 0 ? tracker.snapshotWithHistory() : tracker.snapshot();
+        log.debug("Building view for channel {}, status: type={}, mission={}, speed={}, time={}",
+                state.channel(), state.type(), state.mission(), state.speed(), state.lastMessageTime());
 
         return RocketStatusView.builder()
-                .channel(status.getChannel())
-                .type(status.getType())
-                .speed(status.getSpeed())
-                .mission(status.getMission())
-                .exploded(status.isExploded())
-                .lastMessageTime(status.getLastMessageTime())
-                .history(tracker.getHistory())
+                .channel(state.channel())
+                .type(state.type())
+                .speed(state.speed())
+                .mission(state.mission())
+                .exploded(state.exploded())
+                .lastMessageTime(state.lastMessageTime())
+                .history(history(state, historyLimit))
                 .build();
     }
+
+    private static List<AppliedEvent> history(RocketState state, int historyLimit) {
+        if (historyLimit == 0) {
+            return null;
+        }
+        return historyLimit == Integer.MAX_VALUE
+                ? state.history().toList()
+                : state.history().latest(historyLimit);
+    }
 }
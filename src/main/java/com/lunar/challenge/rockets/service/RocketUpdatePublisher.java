@@ -0,0 +1,177 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.dto.RocketUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Pushes rocket updates to Server-Sent Events subscribers.
+ * - a subscriber follows one channel or the whole fleet
+ * - updates wait in a per-subscriber map keyed by channel, so a slow subscriber gets only the latest state
+ *   of every rocket instead of every intermediate one
+ * - each subscriber is drained by its own virtual thread, a slow connection never blocks ingestion or other subscribers
+ * - a subscriber with more than max-pending rockets waiting is disconnected, its client reconnects and reloads the fleet
+ * <p>
+ * Updates are published by the instance that applied the message.
+ */
+@Slf4j
+@Service
+public class RocketUpdatePublisher {
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Duration timeout;
+    private final int maxPending;
+    private final Counter dropped;
+
+    public RocketUpdatePublisher(MeterRegistry meterRegistry,
+                                 @Value("${rockets.updates.timeout:30m}") Duration timeout,
+                                 @Value("${rockets.updates.max-pending:10000}") int maxPending) {
+        this.timeout = timeout;
+        this.maxPending = maxPending;
+        Gauge.builder("rockets.updates.subscribers", subscribers, List::size)
+                .description("Open Server-Sent Events subscriptions")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("rockets.updates.dropped")
+                .description("Subscribers disconnected for falling behind")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param channel channel to follow, null for the whole fleet
+     * @param initial state sent right away, null for none
+     */
+    public SseEmitter subscribe(String channel, RocketUpdate initial) {
+        return subscribe(channel, initial, new SseEmitter(timeout.toMillis()));
+    }
+
+    SseEmitter subscribe(String channel, RocketUpdate initial, SseEmitter emitter) {
+        Subscriber subscriber = new Subscriber(channel, emitter);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(error -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        if (initial != null) {
+            subscriber.offer(initial);
+        }
+        log.debug("New subscriber for {}, {} subscribers", channel != null ? channel : "all rockets", subscribers.size());
+        return emitter;
+    }
+
+    /**
+     * Cheap check for publishers, so updates are not built when nobody listens
+     */
+    public boolean hasSubscribers() {
+        return !subscribers.isEmpty();
+    }
+
+    public void publish(RocketUpdate update) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.channel == null || subscriber.channel.equals(update.getChannel())) {
+                subscriber.offer(update);
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdown();
+    }
+
+    private final class Subscriber {
+        private final String channel;
+        private final SseEmitter emitter;
+
+        //latest update per channel not yet sent, guarded by lock
+        //a ReentrantLock rather than synchronized, so a virtual sender waiting for it does not pin its carrier
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<String, RocketUpdate> pending = new LinkedHashMap<>();
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        private Subscriber(String channel, SseEmitter emitter) {
+            this.channel = channel;
+            this.emitter = emitter;
+        }
+
+        void offer(RocketUpdate update) {
+            boolean overflow;
+            lock.lock();
+            try {
+                overflow = pending.size() >= maxPending && !pending.containsKey(update.getChannel());
+                if (overflow) {
+                    pending.clear();
+                } else {
+                    pending.put(update.getChannel(), update);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (overflow) {
+                //completing the emitter may write to the connection, never under the lock
+                drop();
+                return;
+            }
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                List<RocketUpdate> batch;
+                lock.lock();
+                try {
+                    if (pending.isEmpty()) {
+                        //cleared under the lock: an offer after this point starts a new drain
+                        sending.set(false);
+                        return;
+                    }
+                    batch = new ArrayList<>(pending.values());
+                    pending.clear();
+                } finally {
+                    lock.unlock();
+                }
+                try {
+                    for (RocketUpdate update : batch) {
+                        emitter.send(SseEmitter.event()
+                                .id(update.getChannel() + ":" + update.getLastApplied())
+                                .name("rocket")
+                                .data(update, MediaType.APPLICATION_JSON));
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    //client went away, the emitter callbacks may not fire for a broken connection
+                    log.debug("Subscriber for {} disconnected: {}", channel, e.getMessage());
+                    subscribers.remove(this);
+                    return;
+                }
+            }
+        }
+
+        private void drop() {
+            subscribers.remove(this);
+            dropped.increment();
+            log.warn("Disconnected slow subscriber for {}: more than {} rockets waiting",
+                    channel != null ? channel : "all rockets", maxPending);
+            emitter.complete();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.exception.IngestOverloadedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Single-writer ingest: every channel is owned by one of a fixed set of shards, picked by hash of the channel.
+ * - a shard is one platform thread draining its own bounded multi-producer single-consumer queue
+ * - messages of a channel are applied one after another by its shard, so no other writer contends for its tracker
+ *   lock and request threads never park on it; readers take it only for a moment
+ * - hot channels on different shards are applied in parallel, shards default to the number of cores
+ * - a full shard queue rejects the message right away instead of blocking the caller
+ * <p>
+ * The shard applies and journals a message without waiting for the fsync, the caller's future is completed
+ * once the message is durable: by the journal sync thread with GROUP sync, by the shard otherwise.
+ * Batches and gap releases run on the owning shard too (execute), journal replay is done before the shards start.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "rockets.ingest.mode", havingValue = "sharded")
+public class ShardedIngest implements MessageIngest {
+    private static final Duration SHUTDOWN_TIMEOUT = Duration.ofSeconds(10);
+
+    private final RocketService rocketService;
+    private final Shard[] shards;
+    private final int queueCapacity;
+    private final Counter rejected;
+
+    public ShardedIngest(RocketService rocketService,
+                         MeterRegistry meterRegistry,
+                         @Value("${rockets.ingest.shards:0}") int shards,
+                         @Value("${rockets.ingest.queue-capacity:10000}") int queueCapacity) {
+        if (queueCapacity < 1) {
+            throw new IllegalArgumentException("rockets.ingest.queue-capacity must be at least 1");
+        }
+        this.rocketService = rocketService;
+        this.queueCapacity = queueCapacity;
+        this.shards = new Shard[shards > 0 ? shards : Runtime.getRuntime().availableProcessors()];
+        for (int i = 0; i < this.shards.length; i++) {
+            Shard shard = new Shard(i);
+            this.shards[i] = shard;
+            Gauge.builder("rockets.ingest.queued", shard.size, AtomicInteger::get)
+                    .description("Messages waiting in an ingest shard")
+                    .tag("shard", String.valueOf(i))
+                    .register(meterRegistry);
+            shard.thread.start();
+        }
+        this.rejected = Counter.builder("rockets.ingest.rejected")
+                .description("Messages rejected because their ingest shard was full")
+                .register(meterRegistry);
+        log.info("Sharded ingest started with {} shards of {} messages", this.shards.length, queueCapacity);
+    }
+
+    @Override
+    public CompletableFuture<RocketTracker> submit(DecodedMessage message) {
+        return execute(message.channel(), () -> rocketService.handleAsync(message))
+                .thenCompose(Function.identity());
+    }
+
+    @Override
+    public <T> CompletableFuture<T> execute(String channel, Supplier<T> work) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        Runnable task = () -> {
+            try {
+                result.complete(work.get());
+            } catch (RuntimeException e) {
+                result.completeExceptionally(e);
+            }
+        };
+        if (!shardOf(channel).offer(task)) {
+            rejected.increment();
+            throw new IngestOverloadedException(channel, queueCapacity);
+        }
+        return result;
+    }
+
+    private Shard shardOf(String channel) {
+        int hash = channel.hashCode();
+        return shards[Math.floorMod(hash ^ (hash >>> 16), shards.length)];
+    }
+
+    /**
+     * Shards finish every queued message before their threads end, the web server stops taking requests before this.
+     */
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.running = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards) {
+            if (!shard.thread.join(SHUTDOWN_TIMEOUT)) {
+                log.warn("Ingest shard {} did not drain in {}, {} messages left",
+                        shard.thread.getName(), SHUTDOWN_TIMEOUT, shard.size.get());
+            }
+        }
+    }
+
+    private final class Shard implements Runnable {
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger size = new AtomicInteger();
+        private final Thread thread;
+        private volatile boolean running = true;
+        //set by the shard before it parks, producers unpark it only then
+        private volatile boolean parked;
+
+        Shard(int index) {
+            this.thread = Thread.ofPlatform()
+                    .name("rockets-ingest-" + index)
+                    .daemon()
+                    .unstarted(this);
+        }
+
+        boolean offer(Runnable task) {
+            if (size.incrementAndGet() > queueCapacity) {
+                size.decrementAndGet();
+                return false;
+            }
+            queue.offer(task);
+            if (parked) {
+                LockSupport.unpark(thread);
+            }
+            return true;
+        }
+
+        @Override
+        public void run() {
+            while (running || !queue.isEmpty()) {
+                Runnable task = queue.poll();
+                if (task == null) {
+                    //parked is written before the queue is checked again, a producer either sees it or its task is seen
+                    parked = true;
+                    if (running && queue.isEmpty()) {
+                        LockSupport.park(this);
+                    }
+                    parked = false;
+                    continue;
+                }
+                size.decrementAndGet();
+                task.run();
+            }
+        }
+    }
+}
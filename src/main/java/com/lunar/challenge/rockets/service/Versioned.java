@@ -0,0 +1,12 @@
+package com.lunar.challenge.rockets.service;
+
+import java.util.function.Supplier;
+
+/**
+ * Version of a resource with a body built only if the client doesn't have that version yet.
+ *
+ * @param etag version, sent as ETag and compared with If-None-Match
+ * @param body builds the response body
+ */
+public record Versioned<T>(String etag, Supplier<T> body) {
+}
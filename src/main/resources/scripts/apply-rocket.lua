@@ -0,0 +1,40 @@
+-- Compare-and-set write of one rocket, used by ReactiveRedisRocketRepository.
+-- Writes only if the status key still holds what the caller read, otherwise returns 0 and the caller retries.
+--
+-- KEYS: status, history list, pending sorted set, channels index, fleet version
+-- ARGV: 1 status read by the caller ('' if there was none), 2 new status, 3 channel, 4 ttl in ms,
+--       5 history capacity, 6 release pending messages up to this number (-1 for none),
+--       7 keep pending messages alive (0/1), 8 bump fleet version (0/1),
+--       9 number of new history items, then the items, then score/member pairs of new pending messages
+local current = redis.call('GET', KEYS[1])
+if (current or '') ~= ARGV[1] then
+    return 0
+end
+
+local ttl = tonumber(ARGV[4])
+local events = tonumber(ARGV[9])
+for i = 10, 9 + events do
+    redis.call('RPUSH', KEYS[2], ARGV[i])
+end
+if events > 0 then
+    redis.call('LTRIM', KEYS[2], -tonumber(ARGV[5]), -1)
+end
+redis.call('PEXPIRE', KEYS[2], ttl)
+
+local release = tonumber(ARGV[6])
+if release >= 0 then
+    redis.call('ZREMRANGEBYSCORE', KEYS[3], 0, release)
+end
+for i = 10 + events, #ARGV, 2 do
+    redis.call('ZADD', KEYS[3], ARGV[i], ARGV[i + 1])
+end
+if ARGV[7] == '1' then
+    redis.call('PEXPIRE', KEYS[3], ttl)
+end
+
+redis.call('SET', KEYS[1], ARGV[2], 'PX', ttl)
+redis.call('SADD', KEYS[4], ARGV[3])
+if ARGV[8] == '1' then
+    redis.call('INCR', KEYS[5])
+end
+return 1
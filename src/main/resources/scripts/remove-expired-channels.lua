@@ -0,0 +1,17 @@
+-- Removes channels whose status expired from the channel index, used by the Redis repositories while listing
+-- and by the periodic expiry sweep.
+-- A channel is removed only if its status key is still missing: one written again since the caller's MGET stays.
+-- The fleet version is bumped if any channel was removed, so a listing cached before the expiry no longer matches.
+--
+-- KEYS: channels index, fleet version, then the status key of every channel in ARGV
+-- ARGV: channels seen without a status
+local removed = 0
+for i = 1, #ARGV do
+    if redis.call('EXISTS', KEYS[i + 2]) == 0 then
+        removed = removed + redis.call('SREM', KEYS[1], ARGV[i])
+    end
+end
+if removed > 0 then
+    redis.call('INCR', KEYS[2])
+end
+return removed
@@ -0,0 +1,26 @@
+package com.lunar.challenge.rockets.controller;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalResponsesTest {
+
+    @Test
+    @DisplayName("Should match If-None-Match weakly: any listed tag, W/ or not, or *")
+    void shouldMatchListedTags() {
+        assertThat(ConditionalResponses.matches("\"2-k3\"", "2-k3")).isTrue();
+        assertThat(ConditionalResponses.matches("W/\"2-k3\"", "2-k3")).isTrue();
+        assertThat(ConditionalResponses.matches("\"1-a\", W/\"2-k3\"", "2-k3")).isTrue();
+        assertThat(ConditionalResponses.matches("*", "2-k3")).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should not match a missing header or another tag")
+    void shouldNotMatchOtherTags() {
+        assertThat(ConditionalResponses.matches(null, "2-k3")).isFalse();
+        assertThat(ConditionalResponses.matches("\"1-k3\"", "2-k3")).isFalse();
+        assertThat(ConditionalResponses.matches("\"2-k3x\"", "2-k3")).isFalse();
+    }
+}
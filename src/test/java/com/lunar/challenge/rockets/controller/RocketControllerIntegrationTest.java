@@ -11,12 +11,18 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.OffsetDateTime;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -108,4 +114,135 @@ class RocketControllerIntegrationTest {
         int idx2 = response.indexOf("ch-2");
         assertThat(idx1).isLessThan(idx2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should ingest NDJSON stream and acknowledge last applied message per channel")
+    void shouldAcknowledgeStreamedMessages() throws Exception {
+        String stream = """
+                {"metadata":{"channel":"stream-1","messageNumber":1,"messageTime":"2025-09-19T15:40:00Z","messageType":"RocketLaunched"},"message":{"type":"Falcon-9","mission":"STREAM","launchSpeed":100}}
+                {"message":{"by":50},"metadata":{"channel":"stream-1","messageNumber":2,"messageTime":"2025-09-19T15:40:01Z","messageType":"RocketSpeedIncreased"}}
+                {"metadata":{"channel":"stream-1","messageNumber":3,"messageType":"RocketLanded"}}
+                """;
+
+        String response = mockMvc.perform(post("/messages/stream")
+                        .contentType("application/x-ndjson")
+                        .content(stream))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertThat(response).contains("\"stream-1\":2").contains("\"received\":3").contains("\"invalid\":1");
+
+        mockMvc.perform(get("/rockets/stream-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.speed").value(150));
+    }
+
+    @Test
+    @DisplayName("Should answer fleet queries from indexes as statuses change")
+    void shouldQueryIndexedFleet() throws Exception {
+        String stream = """
+                {"metadata":{"channel":"index-1","messageNumber":1,"messageType":"RocketLaunched"},"message":{"type":"Index-Rocket","mission":"INDEX","launchSpeed":900000}}
+                {"metadata":{"channel":"index-2","messageNumber":1,"messageType":"RocketLaunched"},"message":{"type":"Index-Rocket","mission":"INDEX","launchSpeed":800000}}
+                {"metadata":{"channel":"index-2","messageNumber":2,"messageType":"RocketSpeedIncreased"},"message":{"by":200000}}
+                {"metadata":{"channel":"index-1","messageNumber":2,"messageType":"RocketMissionChanged"},"message":{"newMission":"INDEX-MOVED"}}
+                {"metadata":{"channel":"index-1","messageNumber":3,"messageType":"RocketExploded"},"message":{"reason":"PRESSURE_VESSEL_FAILURE"}}
+                """;
+        mockMvc.perform(post("/messages/stream")
+                        .contentType("application/x-ndjson")
+                        .content(stream))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rockets/fastest").param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].channel").value("index-2"))
+                .andExpect(jsonPath("$[1].channel").value("index-1"));
+        mockMvc.perform(get("/rockets/missions/INDEX"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].channel").value("index-2"));
+        mockMvc.perform(get("/rockets/types/Index-Rocket"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2));
+        mockMvc.perform(get("/rockets/exploded").param("limit", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.channel == 'index-1')]").exists());
+        mockMvc.perform(get("/rockets/fastest").param("limit", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 while rocket and fleet versions are unchanged")
+    void shouldAnswerNotModifiedForKnownVersion() throws Exception {
+        String launch = """
+                {"metadata":{"channel":"etag-1","messageNumber":1,"messageType":"RocketLaunched"},"message":{"type":"Falcon-9","mission":"ETAG","launchSpeed":100}}
+                """;
+        mockMvc.perform(post("/messages/stream").contentType("application/x-ndjson").content(launch))
+                .andExpect(status().isOk());
+
+        String rocketVersion = mockMvc.perform(get("/rockets/etag-1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"1-")))
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        mockMvc.perform(get("/rockets/etag-1").header("If-None-Match", rocketVersion))
+                .andExpect(status().isNotModified());
+
+        String fleetVersion = mockMvc.perform(get("/rockets"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader("ETag");
+        mockMvc.perform(get("/rockets").header("If-None-Match", fleetVersion))
+                .andExpect(status().isNotModified());
+
+        String speedUp = """
+                {"metadata":{"channel":"etag-1","messageNumber":2,"messageType":"RocketSpeedIncreased"},"message":{"by":50}}
+                """;
+        mockMvc.perform(post("/messages/stream").contentType("application/x-ndjson").content(speedUp))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/rockets/etag-1").header("If-None-Match", rocketVersion))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("\"2-")))
+                .andExpect(jsonPath("$.speed").value(150));
+        mockMvc.perform(get("/rockets").header("If-None-Match", fleetVersion))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    @DisplayName("Should push current state and every change of a followed rocket via /rockets/updates")
+    void shouldStreamRocketUpdates() throws Exception {
+        String launch = """
+                {"metadata":{"channel":"sse-1","messageNumber":1,"messageType":"RocketLaunched"},"message":{"type":"Falcon-9","mission":"SSE","launchSpeed":100}}
+                """;
+        mockMvc.perform(post("/messages/stream").contentType("application/x-ndjson").content(launch))
+                .andExpect(status().isOk());
+
+        MvcResult subscription = mockMvc.perform(get("/rockets/updates").param("channel", "sse-1"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        awaitContent(subscription, "\"lastApplied\":1");
+
+        String speedUp = """
+                {"metadata":{"channel":"sse-1","messageNumber":2,"messageType":"RocketSpeedIncreased"},"message":{"by":50}}
+                """;
+        mockMvc.perform(post("/messages/stream").contentType("application/x-ndjson").content(speedUp))
+                .andExpect(status().isOk());
+
+        awaitContent(subscription, "\"lastApplied\":2");
+        assertThat(subscription.getResponse().getContentType()).startsWith(MediaType.TEXT_EVENT_STREAM_VALUE);
+        assertThat(subscription.getResponse().getContentAsString())
+                .contains("id:sse-1:1", "id:sse-1:2", "event:rocket", "\"speed\":150");
+    }
+
+    private static void awaitContent(MvcResult result, String expected) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!result.getResponse().getContentAsString().contains(expected) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(result.getResponse().getContentAsString()).contains(expected);
+    }
+}
@@ -0,0 +1,55 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReorderWindowTest {
+
+    @Test
+    @DisplayName("Should keep messages far apart in the window after growing its ring")
+    void shouldGrowAndKeepMessages() {
+        ReorderWindow window = new ReorderWindow(100);
+        window.put(0, pending(3));
+        window.put(0, pending(100));
+        window.put(0, pending(40));
+
+        assertThat(window.size()).isEqualTo(3);
+        assertThat(window.get(3).messageNumber()).isEqualTo(3);
+        assertThat(window.get(40).messageNumber()).isEqualTo(40);
+        assertThat(window.get(100).messageNumber()).isEqualTo(100);
+        assertThat(window.first(0).messageNumber()).isEqualTo(3);
+        assertThat(window.first(3).messageNumber()).isEqualTo(40);
+    }
+
+    @Test
+    @DisplayName("Should not mistake a number sharing a ring slot for a buffered one")
+    void shouldCheckNumberOfSlot() {
+        ReorderWindow window = new ReorderWindow(8);
+        window.put(0, pending(2));
+
+        assertThat(window.get(10)).isNull();
+        assertThat(window.remove(10)).isNull();
+        assertThat(window.remove(2).messageNumber()).isEqualTo(2);
+        assertThat(window.isEmpty()).isTrue();
+        assertThat(window.first(0)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should accept numbers up to window after the last applied one")
+    void shouldBoundWindow() {
+        ReorderWindow window = new ReorderWindow(8);
+
+        assertThat(window.fits(10, 18)).isTrue();
+        assertThat(window.fits(10, 19)).isFalse();
+    }
+
+    private static PendingEvent pending(int messageNumber) {
+        return new PendingEvent(messageNumber, OffsetDateTime.now(), new RocketSpeedIncreased(1));
+    }
+}
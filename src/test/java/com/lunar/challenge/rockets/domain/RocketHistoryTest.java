@@ -0,0 +1,115 @@
+package com.lunar.challenge.rockets.domain;
+
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RocketHistoryTest {
+    private static final OffsetDateTime START = OffsetDateTime.of(2022, 2, 2, 19, 39, 5, 123_456_789, ZoneOffset.ofHours(3));
+
+    @Test
+    @DisplayName("Should keep only the newest events with LAST_N retention")
+    void shouldKeepLastN() {
+        RocketHistory history = new RocketHistory(retention(HistoryRetention.Policy.LAST_N, 3));
+        for (int i = 0; i < 5; i++) {
+            history.append(new AppliedEvent(START.plusSeconds(i), MessageType.RocketSpeedIncreased, i));
+        }
+
+        assertThat(history.size()).isEqualTo(3);
+        assertThat(history.nextSeq()).isEqualTo(5);
+        assertThat(history.toList()).extracting(AppliedEvent::speedAfter).containsExactly(2, 3, 4);
+        assertThat(history.since(4)).extracting(AppliedEvent::speedAfter).containsExactly(4);
+        assertThat(history.since(0)).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should evict events older than the window relative to the newest event")
+    void shouldKeepTimeWindow() {
+        RocketHistory history = new RocketHistory(new HistoryRetention(
+                HistoryRetention.Policy.TIME_WINDOW, 100, Duration.ofMinutes(1), Duration.ofSeconds(1)));
+        history.append(new AppliedEvent(START, MessageType.RocketLaunched, 100));
+        history.append(new AppliedEvent(START.plusSeconds(30), MessageType.RocketSpeedIncreased, 200));
+        history.append(new AppliedEvent(START.plusSeconds(75), MessageType.RocketSpeedIncreased, 300));
+
+        assertThat(history.toList()).extracting(AppliedEvent::speedAfter).containsExactly(200, 300);
+    }
+
+    @Test
+    @DisplayName("Should keep the first speed change per bucket and every other event")
+    void shouldDownsampleSpeedChanges() {
+        RocketHistory history = new RocketHistory(new HistoryRetention(
+                HistoryRetention.Policy.DOWNSAMPLE, 100, Duration.ofHours(1), Duration.ofSeconds(10)));
+        OffsetDateTime bucketStart = START.withSecond(0).withNano(0);
+        history.append(new AppliedEvent(bucketStart, MessageType.RocketLaunched, 100));
+        history.append(new AppliedEvent(bucketStart.plusSeconds(1), MessageType.RocketSpeedIncreased, 200));
+        history.append(new AppliedEvent(bucketStart.plusSeconds(2), MessageType.RocketSpeedIncreased, 300));
+        history.append(new AppliedEvent(bucketStart.plusSeconds(3), MessageType.RocketMissionChanged, 300));
+        history.append(new AppliedEvent(bucketStart.plusSeconds(12), MessageType.RocketSpeedDecreased, 250));
+
+        assertThat(history.toList()).extracting(AppliedEvent::type).containsExactly(
+                MessageType.RocketLaunched,
+                MessageType.RocketSpeedIncreased,
+                MessageType.RocketMissionChanged,
+                MessageType.RocketSpeedDecreased);
+    }
+
+    @Test
+    @DisplayName("Should restore event time with offset and nanoseconds")
+    void shouldPreserveTime() {
+        RocketHistory history = new RocketHistory(HistoryRetention.DEFAULT);
+        history.append(new AppliedEvent(START, MessageType.RocketLaunched, 100));
+        history.append(new AppliedEvent(null, MessageType.RocketExploded, 100));
+
+        assertThat(history.toList().get(0).time()).isEqualTo(START);
+        assertThat(history.toList().get(1).time()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should allocate slots as events arrive, doubling up to max-events")
+    void shouldGrowToCapacity() {
+        RocketHistory empty = new RocketHistory(HistoryRetention.DEFAULT);
+        RocketHistory history = new RocketHistory(retention(HistoryRetention.Policy.LAST_N, 20));
+        for (int i = 0; i < 3; i++) {
+            history.append(new AppliedEvent(START.plusSeconds(i), MessageType.RocketSpeedIncreased, i));
+        }
+        HistoryView view = history.view();
+
+        assertThat(empty.allocatedSlots()).isLessThan(HistoryRetention.DEFAULT.maxEvents());
+        assertThat(history.allocatedSlots()).isLessThan(20);
+
+        for (int i = 3; i < 12; i++) {
+            history.append(new AppliedEvent(START.plusSeconds(i), MessageType.RocketSpeedIncreased, i));
+        }
+        assertThat(view.toList()).extracting(AppliedEvent::speedAfter).containsExactly(0, 1, 2);
+
+        for (int i = 12; i < 25; i++) {
+            history.append(new AppliedEvent(START.plusSeconds(i), MessageType.RocketSpeedIncreased, i));
+        }
+        assertThat(history.allocatedSlots()).isEqualTo(20);
+        assertThat(history.toList()).extracting(AppliedEvent::speedAfter)
+                .containsExactlyElementsOf(IntStream.range(5, 25).boxed().toList());
+    }
+
+    @Test
+    @DisplayName("Should allocate a restored history at its length")
+    void shouldSizeFromExpectedEvents() {
+        RocketHistory history = new RocketHistory(HistoryRetention.DEFAULT, 40);
+        for (int i = 0; i < 40; i++) {
+            history.append(new AppliedEvent(START.plusSeconds(i), MessageType.RocketSpeedIncreased, i));
+        }
+
+        assertThat(history.allocatedSlots()).isEqualTo(40);
+        assertThat(history.toList()).hasSize(40);
+    }
+
+    private static HistoryRetention retention(HistoryRetention.Policy policy, int maxEvents) {
+        return new HistoryRetention(policy, maxEvents, Duration.ofHours(1), Duration.ofSeconds(1));
+    }
+}
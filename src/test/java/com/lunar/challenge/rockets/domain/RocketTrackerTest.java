@@ -5,6 +5,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -23,9 +24,24 @@ class RocketTrackerTest {
         tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
                 new RocketLaunched("Falcon-9", "STARLINK", 0));
 
-        assertThat(tracker.getStatus().getType()).isEqualTo("Falcon-9");
-        assertThat(tracker.getStatus().getMission()).isEqualTo("STARLINK");
-        assertThat(tracker.getStatus().getSpeed()).isEqualTo(0);
+        assertThat(tracker.snapshot().type()).isEqualTo("Falcon-9");
+        assertThat(tracker.snapshot().mission()).isEqualTo("STARLINK");
+        assertThat(tracker.snapshot().speed()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Should share type and mission between rockets as symbol ids")
+    void shouldShareSymbols() {
+        RocketTracker other = new RocketTracker("channel-456");
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched(new String("Falcon-9"), new String("STARLINK"), 0));
+        other.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched(new String("Falcon-9"), new String("STARLINK"), 0));
+
+        assertThat(other.snapshot().typeId()).isEqualTo(tracker.snapshot().typeId());
+        assertThat(other.snapshot().missionId()).isEqualTo(tracker.snapshot().missionId());
+        assertThat(other.snapshot().type()).isSameAs(tracker.snapshot().type());
+        assertThat(other.toSnapshot().getMission()).isSameAs(tracker.snapshot().mission());
     }
 
     @Test
@@ -36,7 +52,7 @@ class RocketTrackerTest {
         tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
                 new RocketSpeedIncreased(5000));
 
-        assertThat(tracker.getStatus().getSpeed()).isEqualTo(5000);
+        assertThat(tracker.snapshot().speed()).isEqualTo(5000);
     }
 
     @Test
@@ -49,7 +65,7 @@ class RocketTrackerTest {
         tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedDecreased,
                 new RocketSpeedDecreased(2000));
 
-        assertThat(tracker.getStatus().getSpeed()).isEqualTo(3000);
+        assertThat(tracker.snapshot().speed()).isEqualTo(3000);
     }
 
     @Test
@@ -60,7 +76,7 @@ class RocketTrackerTest {
         tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketMissionChanged,
                 new RocketMissionChanged("MARS"));
 
-        assertThat(tracker.getStatus().getMission()).isEqualTo("MARS");
+        assertThat(tracker.snapshot().mission()).isEqualTo("MARS");
     }
 
     @Test
@@ -71,7 +87,7 @@ class RocketTrackerTest {
         tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketExploded,
                 new RocketExploded());
 
-        assertThat(tracker.getStatus().isExploded()).isTrue();
+        assertThat(tracker.snapshot().exploded()).isTrue();
     }
 
     @Test
@@ -84,7 +100,7 @@ class RocketTrackerTest {
         tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
                 new RocketSpeedIncreased(7000)); // duplicate
 
-        assertThat(tracker.getStatus().getSpeed()).isEqualTo(5000);
+        assertThat(tracker.snapshot().speed()).isEqualTo(5000);
     }
 
     @Test
@@ -97,6 +113,279 @@ class RocketTrackerTest {
         tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
                 new RocketSpeedIncreased(10000)); //old message
 
-        assertThat(tracker.getStatus().getSpeed()).isEqualTo(5000);
+        assertThat(tracker.snapshot().speed()).isEqualTo(5000);
+    }
+
+    @Test
+    @DisplayName("Should hand over only events applied since the previous drain")
+    void shouldDrainOnlyNewEvents() {
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 0));
+        assertThat(tracker.drainChanges().newEvents()).hasSize(1);
+
+        tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(5000));
+        TrackerChanges changes = tracker.drainChanges();
+
+        assertThat(changes.newEvents()).extracting(AppliedEvent::type)
+                .containsExactly(MessageType.RocketSpeedIncreased);
+        assertThat(changes.status().getLastApplied()).isEqualTo(2);
+        assertThat(changes.status().getHistory()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should load persisted history lazily and keep new events unsaved")
+    void shouldRestoreWithLazyHistory() {
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        TrackerChanges persisted = tracker.drainChanges();
+
+        RocketTracker restored = new RocketTracker("channel-123");
+        restored.restoreFromSnapshot(persisted.status(), persisted::newEvents);
+        restored.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(50));
+
+        assertThat(restored.snapshot().speed()).isEqualTo(150);
+        assertThat(restored.getHistory()).extracting(AppliedEvent::speedAfter)
+                .containsExactly(100, 150);
+        assertThat(restored.drainChanges().newEvents()).extracting(AppliedEvent::speedAfter)
+                .containsExactly(150);
+    }
+
+    @Test
+    @DisplayName("Should keep out-of-order messages across persistence and release them once the gap is closed")
+    void shouldRestorePendingMessages() {
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+        TrackerChanges persisted = tracker.drainChanges();
+
+        assertThat(persisted.newPending()).extracting(PendingEvent::messageNumber).containsExactly(3);
+        assertThat(persisted.status().getPendingCount()).isEqualTo(1);
+
+        RocketTracker restored = new RocketTracker("channel-123");
+        restored.restoreFromSnapshot(persisted.status(), persisted::newEvents);
+        restored.restorePending(persisted.newPending());
+        restored.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(5));
+
+        assertThat(restored.snapshot().speed()).isEqualTo(115);
+        TrackerChanges changes = restored.drainChanges();
+        assertThat(changes.status().getLastApplied()).isEqualTo(3);
+        assertThat(changes.newPending()).isEmpty();
+        assertThat(changes.releasePending()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should keep a published state unchanged while later messages are applied")
+    void shouldPublishImmutableState() {
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        RocketState launched = tracker.snapshot();
+
+        tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(50));
+
+        assertThat(launched.speed()).isEqualTo(100);
+        assertThat(launched.lastApplied()).isEqualTo(1);
+        assertThat(launched.history().toList()).extracting(AppliedEvent::speedAfter).containsExactly(100);
+        assertThat(tracker.snapshot().speed()).isEqualTo(150);
+        assertThat(tracker.snapshot().history().toList()).extracting(AppliedEvent::speedAfter)
+                .containsExactly(100, 150);
+    }
+
+    @Test
+    @DisplayName("Should report out-of-order, duplicate and post-explosion messages and the buffer they left")
+    void shouldReportReorderingMetrics() {
+        RecordingMetrics metrics = new RecordingMetrics();
+        tracker = new RocketTracker("channel-123", HistoryRetention.DEFAULT, ReorderPolicy.DEFAULT, null, metrics);
+
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 0));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+        tracker.stageAndApply(4, OffsetDateTime.now(), MessageType.RocketExploded,
+                new RocketExploded());
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10)); // duplicate of a buffered message
+        tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(5));
+        tracker.stageAndApply(5, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(5)); // after explosion
+
+        assertThat(metrics.outOfOrderDepths).isEqualTo("1,2,");
+        assertThat(metrics.duplicates).isEqualTo(1);
+        assertThat(metrics.droppedAfterExplosion).isEqualTo(1);
+        assertThat(metrics.buffered).isZero();
+        assertThat(metrics.gapsClosed).isEqualTo(1);
+        assertThat(metrics.locksHeld).isEqualTo(6);
+    }
+
+    @Test
+    @DisplayName("Should skip missing messages when a message arrives beyond the reorder window")
+    void shouldSkipGapOnOverflow() {
+        tracker = trackerWith(new ReorderPolicy(2, Duration.ZERO, ReorderPolicy.Overflow.SKIP_GAP));
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+
+        StageOutcome outcome = tracker.stageAndApply(5, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1));
+
+        assertThat(outcome).isEqualTo(StageOutcome.BUFFERED);
+        assertThat(tracker.snapshot().speed()).isEqualTo(110);
+        assertThat(tracker.getLastApplied()).isEqualTo(3);
+        assertThat(tracker.gap().awaitedNumber()).isEqualTo(4);
+        assertThat(tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1000))).isEqualTo(StageOutcome.DUPLICATE);
+    }
+
+    @Test
+    @DisplayName("Should drop a message beyond the reorder window when told to")
+    void shouldDropOnOverflow() {
+        tracker = trackerWith(new ReorderPolicy(2, Duration.ZERO, ReorderPolicy.Overflow.DROP));
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+
+        StageOutcome outcome = tracker.stageAndApply(4, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+
+        assertThat(outcome).isEqualTo(StageOutcome.DROPPED);
+        assertThat(tracker.gap()).isNull();
+        assertThat(tracker.getLastApplied()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply buffered messages once the missing one times out")
+    void shouldSkipGapOnTimeout() throws InterruptedException {
+        tracker = trackerWith(new ReorderPolicy(16, Duration.ofMillis(1), ReorderPolicy.Overflow.SKIP_GAP));
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+        assertThat(tracker.gap().since()).isNotNull();
+
+        Thread.sleep(5);
+        StageOutcome outcome = tracker.stageAndApply(6, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1));
+
+        assertThat(outcome).isEqualTo(StageOutcome.APPLIED);
+        assertThat(tracker.snapshot().speed()).isEqualTo(111);
+        assertThat(tracker.getLastApplied()).isEqualTo(6);
+        assertThat(tracker.gap()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should await the next missing message from the time the previous gap closed")
+    void shouldRestartGapClockWhenGapCloses() throws InterruptedException {
+        tracker = trackerWith(new ReorderPolicy(16, Duration.ofMillis(200), ReorderPolicy.Overflow.SKIP_GAP));
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+        tracker.stageAndApply(5, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1));
+
+        Thread.sleep(250);
+        //2 arrives late, 4 is awaited from now on and not skipped right away
+        StageOutcome outcome = tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(5));
+
+        assertThat(outcome).isEqualTo(StageOutcome.APPLIED);
+        assertThat(tracker.getLastApplied()).isEqualTo(3);
+        assertThat(tracker.gap().awaitedNumber()).isEqualTo(4);
+        assertThat(tracker.hasExpiredGap()).isFalse();
+        assertThat(tracker.drainTimedOutGaps()).isEmpty();
+
+        Thread.sleep(250);
+
+        assertThat(tracker.releaseExpiredGap()).isTrue();
+        assertThat(tracker.getLastApplied()).isEqualTo(5);
+        assertThat(tracker.drainTimedOutGaps()).containsExactly(new SkippedGap(4, 4));
+    }
+
+    @Test
+    @DisplayName("Should release a rocket that stopped transmitting once its gap times out")
+    void shouldReleaseSilentGap() throws InterruptedException {
+        tracker = trackerWith(new ReorderPolicy(16, Duration.ofMillis(200), ReorderPolicy.Overflow.SKIP_GAP));
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+
+        assertThat(tracker.hasExpiredGap()).isFalse();
+        assertThat(tracker.releaseExpiredGap()).isFalse();
+        assertThat(tracker.getLastApplied()).isEqualTo(1);
+
+        Thread.sleep(250);
+
+        assertThat(tracker.hasExpiredGap()).isTrue();
+        assertThat(tracker.releaseExpiredGap()).isTrue();
+        assertThat(tracker.getLastApplied()).isEqualTo(3);
+        assertThat(tracker.snapshot().speed()).isEqualTo(110);
+        assertThat(tracker.gap()).isNull();
+        assertThat(tracker.releaseExpiredGap()).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep waiting for a gap across persistence from the time it opened")
+    void shouldRestoreGapClock() {
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 100));
+        tracker.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10));
+        TrackerChanges persisted = tracker.drainChanges();
+
+        RocketTracker restored = new RocketTracker("channel-123");
+        restored.restoreFromSnapshot(persisted.status(), persisted::newEvents);
+        restored.restorePending(persisted.newPending());
+
+        assertThat(persisted.status().getGapOpenedAt()).isPositive();
+        assertThat(restored.gap()).isEqualTo(tracker.gap());
+    }
+
+    private static RocketTracker trackerWith(ReorderPolicy reorder) {
+        return new RocketTracker("channel-123", HistoryRetention.DEFAULT, reorder, null, TrackerMetrics.NOOP);
+    }
+
+    private static final class RecordingMetrics implements TrackerMetrics {
+        private String outOfOrderDepths = "";
+        private int duplicates;
+        private int droppedAfterExplosion;
+        private int buffered;
+        private int gapsClosed;
+        private int locksHeld;
+
+        @Override
+        public void duplicate() {
+            duplicates++;
+        }
+
+        @Override
+        public void outOfOrder(int bufferDepth) {
+            outOfOrderDepths += bufferDepth + ",";
+        }
+
+        @Override
+        public void droppedAfterExplosion() {
+            droppedAfterExplosion++;
+        }
+
+        @Override
+        public void bufferChanged(int delta) {
+            buffered += delta;
+        }
+
+        @Override
+        public void gapClosed(long waitedMillis) {
+            gapsClosed++;
+        }
+
+        @Override
+        public void lockHeld(long nanos) {
+            locksHeld++;
+        }
     }
-}
\ No newline at end of file
+}
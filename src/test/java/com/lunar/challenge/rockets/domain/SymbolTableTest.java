@@ -0,0 +1,68 @@
+package com.lunar.challenge.rockets.domain;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SymbolTableTest {
+    private final SymbolTable symbols = new SymbolTable(SymbolTable.DEFAULT_LIMIT);
+
+    @Test
+    @DisplayName("Should give equal values one id and hand out the first instance for it")
+    void shouldInternEqualValues() {
+        String first = new String("Falcon-9");
+        int id = symbols.intern(first);
+
+        assertThat(symbols.intern(new String("Falcon-9"))).isEqualTo(id);
+        assertThat(symbols.intern("ARTEMIS")).isNotEqualTo(id);
+        assertThat(symbols.name(id)).isSameAs(first);
+        assertThat(symbols.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Should map null to NULL and not add values on find")
+    void shouldFindWithoutAdding() {
+        assertThat(symbols.intern(null)).isEqualTo(SymbolTable.NULL);
+        assertThat(symbols.name(SymbolTable.NULL)).isNull();
+        assertThat(symbols.find("MARS")).isEqualTo(SymbolTable.UNKNOWN);
+        assertThat(symbols.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should stop adding values at its limit and keep the ones it has")
+    void shouldOverflowPastLimit() {
+        SymbolTable limited = new SymbolTable(2);
+        int falcon = limited.intern("Falcon-9");
+        limited.intern("ARTEMIS");
+        assertThat(limited.find("APOLLO")).isEqualTo(SymbolTable.UNKNOWN);
+
+        assertThat(limited.intern("APOLLO")).isEqualTo(SymbolTable.OVERFLOW);
+        assertThat(limited.find("APOLLO")).isEqualTo(SymbolTable.OVERFLOW);
+        assertThat(limited.intern("Falcon-9")).isEqualTo(falcon);
+        assertThat(limited.size()).isEqualTo(2);
+        String apollo = new String("APOLLO");
+        assertThat(limited.name(SymbolTable.OVERFLOW, apollo)).isSameAs(apollo);
+    }
+
+    @Test
+    @DisplayName("Should hand out one id per value when interned concurrently, past the initial capacity")
+    void shouldInternConcurrently() {
+        List<String> values = IntStream.range(0, 1000).mapToObj(i -> "MISSION-" + i).toList();
+        Set<Integer> ids = ConcurrentHashMap.newKeySet();
+
+        IntStream.range(0, 8).parallel().forEach(thread -> values.forEach(value -> {
+            int id = symbols.intern(value);
+            ids.add(id);
+            assertThat(symbols.name(id)).isEqualTo(value);
+        }));
+
+        assertThat(ids).hasSize(1000);
+        assertThat(symbols.size()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,194 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.ReorderPolicy;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.StageOutcome;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.repository.InMemoryRocketRepository;
+import com.lunar.challenge.rockets.service.DecodedMessage;
+import com.lunar.challenge.rockets.service.RocketService;
+import com.lunar.challenge.rockets.service.RocketUpdatePublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class FileMessageJournalTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Should rebuild rockets from journaled messages across segments after a restart")
+    void shouldReplayAfterRestart() throws InterruptedException {
+        InMemoryRocketRepository before = repository();
+        FileMessageJournal journal = journal(before);
+        long position = journal.append("a", new PendingEvent(1, OffsetDateTime.now(),
+                new RocketLaunched("Falcon-9", "ARTEMIS", 100)));
+        for (int i = 2; i <= 200; i++) {
+            position = journal.append(i % 2 == 0 ? "a" : "b", new PendingEvent(i, OffsetDateTime.now(),
+                    i == 3 ? new RocketLaunched("Falcon-9", "APOLLO", 0) : new RocketSpeedIncreased(1)));
+        }
+        journal.awaitDurable(position);
+        journal.close();
+
+        InMemoryRocketRepository after = repository();
+        journal(after).close();
+
+        assertThat(after.findByChannel("a").orElseThrow().snapshot().speed()).isEqualTo(101);
+        assertThat(after.findByChannel("a").orElseThrow().gap().awaitedNumber()).isEqualTo(3);
+        assertThat(after.findByChannel("b").orElseThrow().gap().buffered()).isEqualTo(99);
+        assertThat(JournalSegment.list(directory)).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("Should complete durability futures once the sync thread forced their position")
+    void shouldCompleteDurabilityFutures() throws InterruptedException {
+        FileMessageJournal journal = journal(repository());
+        long first = journal.append("a", new PendingEvent(1, OffsetDateTime.now(),
+                new RocketLaunched("Falcon-9", "ARTEMIS", 100)));
+        long second = journal.append("a", new PendingEvent(2, OffsetDateTime.now(), new RocketSpeedIncreased(1)));
+
+        CompletableFuture<Void> later = journal.whenDurable(second);
+        CompletableFuture<Void> earlier = journal.whenDurable(first);
+
+        later.orTimeout(5, TimeUnit.SECONDS).join();
+        earlier.orTimeout(5, TimeUnit.SECONDS).join();
+        assertThat(journal.whenDurable(second)).isDone();
+        journal.close();
+    }
+
+    @Test
+    @DisplayName("Should recover a large fleet from a checkpoint and the journal tail in bounded time")
+    void shouldRecoverFromCheckpoint() throws InterruptedException {
+        int rockets = 20_000;
+        InMemoryRocketRepository before = repository();
+        FileMessageJournal journal = journal(before, DataSize.ofMegabytes(1));
+        for (int i = 0; i < rockets; i++) {
+            accept(before, journal, "rocket-" + i, new PendingEvent(1, OffsetDateTime.now(),
+                    new RocketLaunched("Falcon-9", "ARTEMIS", i)));
+            for (int number = 2; number <= 10; number++) {
+                accept(before, journal, "rocket-" + i, new PendingEvent(number, OffsetDateTime.now(),
+                        new RocketSpeedIncreased(1)));
+            }
+        }
+        journal.checkpoint();
+        //journal tail: one more applied message and one buffered ahead of a gap
+        accept(before, journal, "rocket-0", new PendingEvent(11, OffsetDateTime.now(), new RocketSpeedIncreased(100)));
+        accept(before, journal, "rocket-1", new PendingEvent(13, OffsetDateTime.now(), new RocketSpeedIncreased(100)));
+        journal.close();
+
+        assertThat(JournalSegment.list(directory)).allMatch(index -> index > 0);
+
+        InMemoryRocketRepository after = repository();
+        long start = System.nanoTime();
+        journal(after, DataSize.ofMegabytes(1)).close();
+        Duration recovery = Duration.ofNanos(System.nanoTime() - start);
+
+        assertThat(recovery).isLessThan(Duration.ofSeconds(10));
+        assertThat(after.findAll()).hasSize(rockets);
+        assertThat(after.findByChannel("rocket-0").orElseThrow().snapshot().speed()).isEqualTo(109);
+        assertThat(after.findByChannel("rocket-1").orElseThrow().gap().awaitedNumber()).isEqualTo(11);
+        assertThat(after.findByChannel("rocket-777").orElseThrow().getHistory()).hasSize(10);
+        assertThat(after.findByChannel("rocket-777").orElseThrow().snapshot().speed()).isEqualTo(786);
+    }
+
+    @Test
+    @DisplayName("Should skip on replay the gap that timed out before the restart")
+    void shouldReplayTimedOutGap() throws InterruptedException {
+        InMemoryRocketRepository before = repository(Duration.ofMillis(100));
+        FileMessageJournal journal = journal(before);
+        RocketService service = service(before, journal);
+        service.handle(launched("a", 1));
+        service.handle(increased("a", 3));
+        Thread.sleep(150);
+        service.handle(increased("a", 4)); //skips 2 and applies 3 and 4
+        journal.close();
+
+        InMemoryRocketRepository after = repository(Duration.ofSeconds(30));
+        FileMessageJournal replayed = journal(after);
+
+        RocketTracker tracker = after.findByChannel("a").orElseThrow();
+        assertThat(tracker.getLastApplied()).isEqualTo(4);
+        assertThat(tracker.snapshot().speed()).isEqualTo(102);
+        assertThat(tracker.gap()).isNull();
+        assertThat(tracker.stageAndApply(2, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1))).isEqualTo(StageOutcome.DUPLICATE);
+        replayed.close();
+    }
+
+    @Test
+    @DisplayName("Should skip a journaled gap once the messages before it are replayed")
+    void shouldDeferSkipUntilEarlierMessages() throws InterruptedException {
+        FileMessageJournal journal = journal(repository());
+        journal.append("a", new PendingEvent(1, OffsetDateTime.now(), new RocketLaunched("Falcon-9", "ARTEMIS", 100)));
+        //message 3 was staged before the gaps were skipped, its record came after them
+        journal.appendSkipped("a", List.of(new SkippedGap(2, 2), new SkippedGap(4, 4)));
+        journal.append("a", new PendingEvent(3, OffsetDateTime.now(), new RocketSpeedIncreased(1)));
+        journal.append("a", new PendingEvent(5, OffsetDateTime.now(), new RocketSpeedIncreased(1)));
+        journal.close();
+
+        InMemoryRocketRepository after = repository();
+        journal(after).close();
+
+        assertThat(after.findByChannel("a").orElseThrow().getLastApplied()).isEqualTo(5);
+        assertThat(after.findByChannel("a").orElseThrow().snapshot().speed()).isEqualTo(102);
+    }
+
+    private static RocketService service(InMemoryRocketRepository repository, MessageJournal journal) {
+        return new RocketService(repository, mock(RocketUpdatePublisher.class), new SimpleMeterRegistry(), journal);
+    }
+
+    private static DecodedMessage launched(String channel, int number) {
+        return new DecodedMessage(channel, number, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "ARTEMIS", 100));
+    }
+
+    private static DecodedMessage increased(String channel, int number) {
+        return new DecodedMessage(channel, number, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(1));
+    }
+
+    private static void accept(InMemoryRocketRepository repository, MessageJournal journal,
+                               String channel, PendingEvent message) {
+        repository.apply(channel, tracker -> tracker.stageAndApplyAll(List.of(message)));
+        journal.append(channel, message);
+    }
+
+    private FileMessageJournal journal(InMemoryRocketRepository repository) {
+        return journal(repository, DataSize.ofKilobytes(4));
+    }
+
+    private FileMessageJournal journal(InMemoryRocketRepository repository, DataSize segmentSize) {
+        FileMessageJournal journal = new FileMessageJournal(repository, new SimpleMeterRegistry(), directory,
+                segmentSize, FileMessageJournal.Sync.GROUP, Duration.ofMillis(100), Duration.ZERO);
+        journal.replay();
+        return journal;
+    }
+
+    private static InMemoryRocketRepository repository() {
+        return new InMemoryRocketRepository(new RocketTrackerFactory(HistoryRetention.DEFAULT), new SimpleMeterRegistry());
+    }
+
+    private static InMemoryRocketRepository repository(Duration gapTimeout) {
+        RocketTrackerFactory factory = new RocketTrackerFactory(HistoryRetention.DEFAULT,
+                new ReorderPolicy(16, gapTimeout, ReorderPolicy.Overflow.SKIP_GAP));
+        return new InMemoryRocketRepository(factory, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,65 @@
+package com.lunar.challenge.rockets.journal;
+
+import com.lunar.challenge.rockets.domain.SkippedGap;
+import com.lunar.challenge.rockets.domain.event.PendingEvent;
+import com.lunar.challenge.rockets.domain.event.RocketExploded;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketMissionChanged;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedDecreased;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JournalCodecTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2022, 2, 2, 19, 39, 5, 123_456_789, ZoneOffset.ofHours(3));
+
+    @Test
+    @DisplayName("Should read back every kind of event with its time and offset")
+    void shouldRoundTripEvents() {
+        List<PendingEvent> messages = List.of(
+                new PendingEvent(1, TIME, new RocketLaunched("Falcon-9", "ARTEMIS", 500)),
+                new PendingEvent(2, TIME, new RocketMissionChanged(null)),
+                new PendingEvent(3, null, new RocketSpeedDecreased(20)),
+                new PendingEvent(4, TIME, new RocketExploded()));
+        ByteBuffer buffer = ByteBuffer.allocate(1024);
+        messages.forEach(message -> buffer.put(JournalCodec.encode("channel-ü", message)));
+        buffer.flip();
+
+        for (PendingEvent message : messages) {
+            assertThat(JournalCodec.decode(buffer)).isEqualTo(new JournalRecord("channel-ü", message));
+        }
+        assertThat(JournalCodec.decode(buffer)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should read back skipped gaps between messages")
+    void shouldRoundTripSkippedGaps() {
+        PendingEvent message = new PendingEvent(5, TIME, new RocketSpeedDecreased(20));
+        List<SkippedGap> gaps = List.of(new SkippedGap(2, 2), new SkippedGap(4, 1000));
+        ByteBuffer buffer = ByteBuffer.allocate(1024)
+                .put(JournalCodec.encodeSkipped("channel", gaps))
+                .put(JournalCodec.encode("channel", message))
+                .flip();
+
+        assertThat(JournalCodec.decode(buffer)).isEqualTo(new JournalRecord("channel", null, gaps));
+        assertThat(JournalCodec.decode(buffer)).isEqualTo(new JournalRecord("channel", message));
+        assertThat(JournalCodec.decode(buffer)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should stop at a torn record without moving past it")
+    void shouldStopAtTornRecord() {
+        byte[] record = JournalCodec.encode("channel", new PendingEvent(1, TIME, new RocketSpeedDecreased(20)));
+        record[record.length - 1] ^= 1;
+        ByteBuffer buffer = ByteBuffer.allocate(1024).put(record).position(0);
+
+        assertThat(JournalCodec.decode(buffer)).isNull();
+        assertThat(buffer.position()).isZero();
+    }
+}
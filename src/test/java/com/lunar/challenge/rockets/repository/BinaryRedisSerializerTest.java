@@ -0,0 +1,117 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.config.RedisConfig;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BinaryRedisSerializerTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2022, 2, 2, 19, 39, 5, 123_000_000, ZoneOffset.ofHours(2));
+
+    private final BinaryRedisSerializer<RocketSnapshotDTO> snapshots = BinaryRedisSerializer.snapshots(RedisConfig.valueMapper());
+    private final BinaryRedisSerializer<RocketHistoryItem> historyItems = BinaryRedisSerializer.historyItems(RedisConfig.valueMapper());
+    private final Jackson2JsonRedisSerializer<RocketSnapshotDTO> json =
+            new Jackson2JsonRedisSerializer<>(RedisConfig.valueMapper(), RocketSnapshotDTO.class);
+
+    @Test
+    @DisplayName("Should read back a snapshot with its history, times keeping nanos and offsets")
+    void shouldRoundTripSnapshot() {
+        RocketSnapshotDTO snapshot = snapshot(List.of(
+                new RocketHistoryItem(TIME.minusHours(3), "RocketLaunched", 500),
+                new RocketHistoryItem(TIME.minusSeconds(1).plusNanos(456_789), "RocketSpeedIncreased", 3500),
+                new RocketHistoryItem(TIME.withOffsetSameInstant(ZoneOffset.ofHoursMinutes(-3, -30)), "RocketSpeedDecreased", -20),
+                new RocketHistoryItem(null, "RocketMissionChanged", -20),
+                new RocketHistoryItem(TIME, "RocketExploded", 0)));
+
+        RocketSnapshotDTO read = snapshots.deserialize(snapshots.serialize(snapshot));
+
+        assertThat(read).usingRecursiveComparison().isEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Should read back a status without time, strings or history")
+    void shouldRoundTripEmptySnapshot() {
+        RocketSnapshotDTO snapshot = new RocketSnapshotDTO();
+        snapshot.setChannel("channel-ü");
+        snapshot.setLastApplied(-1);
+
+        RocketSnapshotDTO read = snapshots.deserialize(snapshots.serialize(snapshot));
+
+        assertThat(read).isEqualTo(snapshot);
+    }
+
+    @Test
+    @DisplayName("Should read JSON written by the previous serializer")
+    void shouldReadJson() {
+        RocketSnapshotDTO snapshot = snapshot(List.of(new RocketHistoryItem(TIME, "RocketLaunched", 500)));
+
+        RocketSnapshotDTO read = snapshots.deserialize(json.serialize(snapshot));
+
+        //Jackson adjusts times to UTC on read
+        assertThat(read).usingRecursiveComparison()
+                .withComparatorForType(OffsetDateTime.timeLineOrder(), OffsetDateTime.class)
+                .isEqualTo(snapshot);
+        assertThat(historyItems.deserialize("{\"time\":\"2022-02-02T19:39:05.123+02:00\",\"type\":\"RocketExploded\",\"speedAfter\":7}".getBytes()))
+                .usingRecursiveComparison()
+                .withComparatorForType(OffsetDateTime.timeLineOrder(), OffsetDateTime.class)
+                .isEqualTo(new RocketHistoryItem(TIME, "RocketExploded", 7));
+    }
+
+    @Test
+    @DisplayName("Should read back a single history list element")
+    void shouldRoundTripHistoryItem() {
+        RocketHistoryItem item = new RocketHistoryItem(TIME.plusNanos(1), "RocketSpeedIncreased", 3000);
+
+        assertThat(historyItems.deserialize(historyItems.serialize(item))).usingRecursiveComparison().isEqualTo(item);
+        assertThat(historyItems.serialize(item)).hasSizeLessThan(16);
+    }
+
+    @Test
+    @DisplayName("Should write a fraction of the JSON size, for the status key and for embedded history")
+    void shouldBeSmallerThanJson() {
+        List<RocketHistoryItem> history = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            history.add(new RocketHistoryItem(TIME.plusSeconds(i), "RocketSpeedIncreased", 500 + i));
+        }
+        RocketSnapshotDTO snapshot = snapshot(history);
+
+        assertThat(snapshots.serialize(snapshot).length * 5).isLessThan(json.serialize(snapshot).length);
+        RocketSnapshotDTO status = snapshot(null);
+        assertThat(snapshots.serialize(status).length * 2).isLessThan(json.serialize(status).length);
+    }
+
+    @Test
+    @DisplayName("Should reject a value of an unknown version")
+    void shouldRejectUnknownVersion() {
+        byte[] bytes = snapshots.serialize(snapshot(null));
+        bytes[0] = 2;
+
+        assertThatThrownBy(() -> snapshots.deserialize(bytes)).isInstanceOf(SerializationException.class);
+    }
+
+    private static RocketSnapshotDTO snapshot(List<RocketHistoryItem> history) {
+        return RocketSnapshotDTO.builder()
+                .channel("193270a9-c9cf-404a-8f83-838e71d9ae67")
+                .type("Falcon-9")
+                .speed(3480)
+                .mission("ARTEMIS")
+                .exploded(true)
+                .lastMessageTime(TIME)
+                .lastApplied(1234)
+                .pendingCount(2)
+                .gapOpenedAt(1_643_823_545_123L)
+                .history(history)
+                .build();
+    }
+}
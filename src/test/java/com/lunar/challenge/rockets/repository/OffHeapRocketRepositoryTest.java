@@ -0,0 +1,222 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.event.AppliedEvent;
+import com.lunar.challenge.rockets.domain.event.RocketExploded;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OffHeapRocketRepositoryTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.of(2025, 9, 19, 15, 40, 0, 123_456_789, ZoneOffset.ofHours(2));
+    private static final HistoryRetention LAST_16 =
+            new HistoryRetention(HistoryRetention.Policy.LAST_N, 16, Duration.ofHours(1), Duration.ofSeconds(1));
+
+    @TempDir
+    Path dir;
+
+    private final List<OffHeapRocketRepository> opened = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        opened.forEach(OffHeapRocketRepository::close);
+    }
+
+    @Test
+    @DisplayName("Should store status and history of a rocket and read it back")
+    void shouldApplyAndFind() {
+        OffHeapRocketRepository repository = repository(16, 64, OffHeapRocketRepository.Backing.DIRECT);
+
+        launch(repository, "channel-1", 500);
+        repository.apply("channel-1", tracker -> tracker.stageAndApply(2, TIME.plusSeconds(2),
+                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(3000)));
+        repository.apply("channel-1", tracker -> tracker.stageAndApply(3, TIME.plusSeconds(3),
+                MessageType.RocketExploded, new RocketExploded()));
+
+        RocketTracker found = repository.findByChannel("channel-1").orElseThrow();
+        assertThat(found.snapshot().type()).isEqualTo("Falcon-9");
+        assertThat(found.snapshot().mission()).isEqualTo("ARTEMIS");
+        assertThat(found.snapshot().speed()).isEqualTo(3500);
+        assertThat(found.snapshot().exploded()).isTrue();
+        assertThat(found.snapshot().lastApplied()).isEqualTo(3);
+        assertThat(found.snapshot().lastMessageTime()).isEqualTo(TIME.plusSeconds(3));
+        assertThat(found.getHistory()).containsExactly(
+                new AppliedEvent(TIME.plusSeconds(1), MessageType.RocketLaunched, 500),
+                new AppliedEvent(TIME.plusSeconds(2), MessageType.RocketSpeedIncreased, 3500),
+                new AppliedEvent(TIME.plusSeconds(3), MessageType.RocketExploded, 3500));
+        assertThat(repository.findByChannel("channel-2")).isEmpty();
+        assertThat(repository.fleetVersion()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should keep out-of-order messages until the gap closes")
+    void shouldBufferUntilGapCloses() {
+        OffHeapRocketRepository repository = repository(16, 64, OffHeapRocketRepository.Backing.DIRECT);
+
+        repository.apply("channel-1", tracker -> tracker.stageAndApply(3, TIME.plusSeconds(3),
+                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100)));
+        repository.apply("channel-1", tracker -> tracker.stageAndApply(2, TIME.plusSeconds(2),
+                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(1000)));
+        assertThat(repository.findByChannel("channel-1").orElseThrow().snapshot().lastApplied()).isZero();
+
+        launch(repository, "channel-1", 500);
+
+        RocketTracker found = repository.findByChannel("channel-1").orElseThrow();
+        assertThat(found.snapshot().lastApplied()).isEqualTo(3);
+        assertThat(found.snapshot().speed()).isEqualTo(1600);
+        assertThat(found.toSnapshot().getPendingCount()).isZero();
+        assertThat(found.getHistory()).extracting(AppliedEvent::speedAfter).containsExactly(500, 1500, 1600);
+    }
+
+    @Test
+    @DisplayName("Should keep only the latest events in the history slots of a record")
+    void shouldCapHistoryToSlots() {
+        OffHeapRocketRepository repository = repository(4, 64, OffHeapRocketRepository.Backing.DIRECT);
+
+        launch(repository, "channel-1", 0);
+        for (int number = 2; number <= 10; number++) {
+            int message = number;
+            repository.apply("channel-1", tracker -> tracker.stageAndApply(message, TIME.plusSeconds(message),
+                    MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(1)));
+        }
+
+        assertThat(repository.findByChannel("channel-1").orElseThrow().getHistory())
+                .extracting(AppliedEvent::speedAfter)
+                .containsExactly(6, 7, 8, 9);
+    }
+
+    @Test
+    @DisplayName("Should find every rocket after the channel index grew")
+    void shouldGrowIndex() {
+        OffHeapRocketRepository repository = repository(16, 8, OffHeapRocketRepository.Backing.DIRECT);
+
+        for (int i = 0; i < 5000; i++) {
+            launch(repository, "channel-" + i, i);
+        }
+
+        assertThat(repository.findAll()).hasSize(5000);
+        for (int i = 0; i < 5000; i++) {
+            assertThat(repository.findByChannel("channel-" + i).orElseThrow().snapshot().speed()).isEqualTo(i);
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep records in memory-mapped files")
+    void shouldUseMappedFiles() {
+        OffHeapRocketRepository repository = repository(16, 64, OffHeapRocketRepository.Backing.MAPPED);
+
+        launch(repository, "channel-ü", 700);
+
+        assertThat(repository.findByChannel("channel-ü").orElseThrow().snapshot().speed()).isEqualTo(700);
+        assertThat(dir.resolve("records.bin")).exists();
+        assertThat(dir.resolve("channels.bin")).exists();
+    }
+
+    @Test
+    @DisplayName("Should write the whole tracker on save")
+    void shouldSave() {
+        OffHeapRocketRepository repository = repository(16, 64, OffHeapRocketRepository.Backing.DIRECT);
+        RocketTracker tracker = new RocketTracker("channel-1", LAST_16);
+        tracker.stageAndApply(1, TIME, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", 500));
+        tracker.stageAndApply(3, TIME.plusSeconds(3), MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(10));
+
+        repository.save(tracker);
+
+        RocketTracker found = repository.findByChannel("channel-1").orElseThrow();
+        assertThat(found.toSnapshot().getPendingCount()).isEqualTo(1);
+        assertThat(found.getHistory()).isEqualTo(tracker.getHistory());
+    }
+
+    @Test
+    @DisplayName("Should apply concurrent messages of many rockets without losing any")
+    void shouldApplyConcurrently() {
+        OffHeapRocketRepository repository = repository(16, 8, OffHeapRocketRepository.Backing.DIRECT);
+        int rockets = 200;
+        int messages = 50;
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(8)) {
+            for (int i = 0; i < rockets; i++) {
+                String channel = "channel-" + i;
+                IntStream.rangeClosed(1, messages).forEach(number -> executor.submit(() ->
+                        repository.apply(channel, tracker -> tracker.stageAndApply(number, TIME.plusSeconds(number),
+                                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(1)))));
+            }
+        }
+
+        assertThat(repository.findAll())
+                .hasSize(rockets)
+                .allSatisfy(tracker -> {
+                    assertThat(tracker.snapshot().lastApplied()).isEqualTo(messages);
+                    assertThat(tracker.snapshot().speed()).isEqualTo(messages);
+                });
+    }
+
+    @Test
+    @DisplayName("Should take a fraction of the in-memory footprint per rocket, almost none of it on heap")
+    void shouldBeSmallerThanInMemory() {
+        int rockets = 10_000;
+        RocketTrackerFactory factory = new RocketTrackerFactory(LAST_16);
+        InMemoryRocketRepository inMemory = new InMemoryRocketRepository(factory, new SimpleMeterRegistry());
+        OffHeapRocketRepository offHeap = repository(16, 65536, OffHeapRocketRepository.Backing.DIRECT);
+
+        long inMemoryBefore = GraphLayout.parseInstance(inMemory).totalSize();
+        long offHeapBefore = GraphLayout.parseInstance(offHeap).totalSize();
+        long usedBefore = offHeap.usedBytes();
+        for (int i = 0; i < rockets; i++) {
+            fly(inMemory, "channel-" + i);
+            fly(offHeap, "channel-" + i);
+        }
+        long inMemoryPerRocket = (GraphLayout.parseInstance(inMemory).totalSize() - inMemoryBefore) / rockets;
+        long offHeapHeapPerRocket = (GraphLayout.parseInstance(offHeap).totalSize() - offHeapBefore) / rockets;
+        long offHeapPerRocket = offHeapHeapPerRocket + (offHeap.usedBytes() - usedBefore) / rockets;
+
+        assertThat(offHeapHeapPerRocket)
+                .as("off-heap bytes per rocket on heap, %d in total", offHeapPerRocket)
+                .isLessThan(8);
+        assertThat(offHeapPerRocket * 2)
+                .as("twice off-heap %d bytes per rocket against in-memory %d", offHeapPerRocket, inMemoryPerRocket)
+                .isLessThan(inMemoryPerRocket);
+    }
+
+    private OffHeapRocketRepository repository(int historySlots, int initialCapacity,
+                                               OffHeapRocketRepository.Backing backing) {
+        OffHeapRocketRepository repository = new OffHeapRocketRepository(new RocketTrackerFactory(LAST_16),
+                new SimpleMeterRegistry(), historySlots, initialCapacity, backing, dir);
+        opened.add(repository);
+        return repository;
+    }
+
+    private static void launch(RocketRepository repository, String channel, int speed) {
+        repository.apply(channel, tracker -> tracker.stageAndApply(1, TIME.plusSeconds(1),
+                MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", speed)));
+    }
+
+    private static void fly(RocketRepository repository, String channel) {
+        launch(repository, channel, 500);
+        for (int number = 2; number <= 16; number++) {
+            int message = number;
+            repository.apply(channel, tracker -> tracker.stageAndApply(message, TIME.plusSeconds(message),
+                    MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100)));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.config.RedisConfig;
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import com.lunar.challenge.rockets.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class ReactiveRedisRocketRepositoryTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.parse("2025-09-19T15:40:00.123+02:00");
+    private static final ObjectMapper MAPPER = RedisConfig.valueMapper();
+
+    private final ReactiveStringRedisTemplate redis = mock(ReactiveStringRedisTemplate.class);
+    private final ReactiveValueOperations<String, String> values = mock(ReactiveValueOperations.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private ReactiveRedisRocketRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(redis.opsForValue()).thenReturn(values);
+        repository = new ReactiveRedisRocketRepository(redis, new RocketTrackerFactory(HistoryRetention.DEFAULT),
+                registry, 3);
+    }
+
+    @Test
+    @DisplayName("Should pass status, history and pending messages to the apply script in its KEYS/ARGV layout")
+    void shouldWriteWithScript() throws JsonProcessingException {
+        when(values.get("rocket:channel-1")).thenReturn(Mono.empty());
+        doReturn(Flux.just(1L)).when(redis).execute(any(), anyList(), anyList());
+
+        RocketTracker tracker = repository.apply("channel-1", rocket -> {
+            rocket.stageAndApply(1, TIME, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", 500));
+            rocket.stageAndApply(3, TIME.plusSeconds(3), MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100));
+        }).block();
+
+        assertThat(tracker.getLastApplied()).isEqualTo(1);
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redis).execute(eq(ReactiveRedisRocketRepository.APPLY_SCRIPT), keys.capture(), args.capture());
+        assertThat(keys.getValue()).containsExactly("rocket:channel-1", "rocket-history:channel-1",
+                "rocket-pending:channel-1", "rockets:channels", "rockets:version");
+
+        List<String> argv = args.getValue();
+        assertThat(argv).hasSize(12);
+        assertThat(argv.get(0)).isEmpty(); //no status read
+        assertThat(MAPPER.readValue(argv.get(1), RocketSnapshotDTO.class).getLastApplied()).isEqualTo(1);
+        assertThat(argv.subList(2, 9)).containsExactly("channel-1", String.valueOf(RedisRocketRepository.TTL.toMillis()),
+                "1000", "-1", "1", "1", "1");
+        assertThat(MAPPER.readValue(argv.get(9), RocketHistoryItem.class).getSpeedAfter()).isEqualTo(500);
+        assertThat(argv.get(10)).isEqualTo("3");
+        assertThat(MAPPER.readValue(argv.get(11), RocketPendingItem.class).getMessageNumber()).isEqualTo(3);
+        assertThat(registry.get("rockets.repository.apply").tag("repository", "reactive").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply the message again to a fresh read when the script finds the status changed")
+    void shouldRetryOnConcurrentWrite() {
+        String status = status(1);
+        when(values.get("rocket:channel-1")).thenReturn(Mono.just(status));
+        doReturn(Flux.just(0L)).doReturn(Flux.just(1L)).when(redis).execute(any(), anyList(), anyList());
+        AtomicInteger mutations = new AtomicInteger();
+
+        RocketTracker tracker = repository.apply("channel-1", rocket -> {
+            mutations.incrementAndGet();
+            rocket.stageAndApply(2, TIME.plusSeconds(2), MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100));
+        }).block();
+
+        assertThat(tracker.getLastApplied()).isEqualTo(2);
+        assertThat(tracker.snapshot().speed()).isEqualTo(600);
+        assertThat(mutations).hasValue(2);
+        ArgumentCaptor<List<String>> args = ArgumentCaptor.forClass(List.class);
+        verify(redis, times(2)).execute(eq(ReactiveRedisRocketRepository.APPLY_SCRIPT), anyList(), args.capture());
+        assertThat(args.getAllValues()).allSatisfy(argv -> assertThat(argv.get(0)).isEqualTo(status));
+        assertThat(registry.get("rockets.redis.apply.retries").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should give up with a conflict after max-apply-attempts lost writes")
+    void shouldRejectAfterMaxAttempts() {
+        when(values.get("rocket:channel-1")).thenReturn(Mono.just(status(1)));
+        doReturn(Flux.just(0L)).when(redis).execute(any(), anyList(), anyList());
+
+        Mono<RocketTracker> applied = repository.apply("channel-1", rocket -> rocket.stageAndApply(2,
+                TIME.plusSeconds(2), MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100)));
+
+        assertThatThrownBy(applied::block)
+                .isInstanceOf(ConcurrentUpdateException.class)
+                .hasMessageContaining("3 attempts");
+        verify(redis, times(3)).execute(any(), anyList(), anyList());
+        assertThat(registry.get("rockets.redis.apply.retries").counter().count()).isEqualTo(2);
+        assertThat(registry.get("rockets.redis.apply.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    private static String status(int lastApplied) {
+        try {
+            return MAPPER.writeValueAsString(RocketSnapshotDTO.builder()
+                    .channel("channel-1")
+                    .type("Falcon-9")
+                    .mission("ARTEMIS")
+                    .speed(500)
+                    .lastMessageTime(TIME)
+                    .lastApplied(lastApplied)
+                    .build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import com.lunar.challenge.rockets.exception.ConcurrentUpdateException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class RedisRocketRepositoryTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.parse("2025-09-19T15:40:00.123+02:00");
+
+    private final RedisTemplate<String, RocketSnapshotDTO> redisTemplate = mock(RedisTemplate.class);
+    private final RedisTemplate<String, RocketHistoryItem> historyTemplate = mock(RedisTemplate.class);
+    private final RedisTemplate<String, RocketPendingItem> pendingTemplate = mock(RedisTemplate.class);
+    private final StringRedisTemplate stringTemplate = mock(StringRedisTemplate.class);
+    private final ValueOperations<String, RocketSnapshotDTO> statuses = mock(ValueOperations.class);
+    private final ListOperations<String, RocketHistoryItem> history = mock(ListOperations.class);
+    private final ZSetOperations<String, RocketPendingItem> pending = mock(ZSetOperations.class);
+    private final SetOperations<String, String> channels = mock(SetOperations.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private RedisRocketRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(statuses);
+        when(historyTemplate.opsForList()).thenReturn(history);
+        when(pendingTemplate.opsForZSet()).thenReturn(pending);
+        when(stringTemplate.opsForSet()).thenReturn(channels);
+        doAnswer(invocation -> {
+            invocation.<SessionCallback<?>>getArgument(0).execute(redisTemplate);
+            return List.of();
+        }).when(redisTemplate).executePipelined(any(SessionCallback.class));
+        repository = new RedisRocketRepository(redisTemplate, historyTemplate, pendingTemplate, stringTemplate,
+                new RocketTrackerFactory(HistoryRetention.DEFAULT), registry, 4, Duration.ofMillis(20));
+    }
+
+    @Test
+    @DisplayName("Should add a written rocket to the channel index")
+    void shouldIndexChannel() {
+        RocketTracker tracker = new RocketTracker("channel-1");
+        tracker.stageAndApply(1, TIME, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "ARTEMIS", 500));
+
+        repository.save(tracker);
+
+        verify(statuses).set(eq("rocket:channel-1"), any(), eq(RedisRocketRepository.TTL));
+        verify(channels).add("rockets:channels", "channel-1");
+    }
+
+    @Test
+    @DisplayName("Should walk the channel index with SSCAN and read statuses with one MGET per page")
+    void shouldListFleetByPage() {
+        List<String> indexed = new ArrayList<>();
+        for (int i = 0; i < 1200; i++) {
+            indexed.add("channel-" + i);
+        }
+        indexed.add("channel-7"); //SSCAN may repeat an element
+        scan(indexed);
+        when(statuses.multiGet(any())).thenAnswer(invocation -> found(invocation.getArgument(0), Set.of()));
+
+        List<RocketTracker> fleet = repository.findAll();
+
+        assertThat(fleet).hasSize(1200);
+        assertThat(fleet).extracting(RocketTracker::getChannel).doesNotHaveDuplicates();
+        ArgumentCaptor<Collection<String>> pages = ArgumentCaptor.forClass(Collection.class);
+        verify(statuses, times(3)).multiGet(pages.capture());
+        assertThat(pages.getAllValues()).extracting(Collection::size).containsExactly(500, 500, 200);
+        assertThat(pages.getAllValues().get(0)).first().isEqualTo("rocket:channel-0");
+        verify(stringTemplate, never()).execute(any(RedisScript.class), anyList(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should skip expired rockets, remove them from the index only if still missing and bump the version")
+    void shouldRemoveExpiredChannels() {
+        List<String> indexed = List.of("channel-1", "channel-2", "channel-3", "channel-4");
+        scan(indexed);
+        when(statuses.multiGet(any())).thenAnswer(invocation ->
+                found(invocation.getArgument(0), Set.of("rocket:channel-2", "rocket:channel-4")));
+
+        List<RocketTracker> fleet = repository.findAll();
+
+        assertThat(fleet).extracting(RocketTracker::getChannel).containsExactly("channel-1", "channel-3");
+        //the script re-checks each status key, KEYS[i + 2] belongs to ARGV[i]
+        verify(stringTemplate).execute(RedisRocketRepository.REMOVE_EXPIRED_SCRIPT,
+                List.of("rockets:channels", "rockets:version", "rocket:channel-2", "rocket:channel-4"),
+                "channel-2", "channel-4");
+        verify(channels, never()).remove(any(), any(Object[].class));
+    }
+
+    @Test
+    @DisplayName("Should sweep the whole index through the expiry script page by page without reading statuses")
+    void shouldSweepExpiredChannels() {
+        List<String> indexed = new ArrayList<>();
+        for (int i = 0; i < 700; i++) {
+            indexed.add("channel-" + i);
+        }
+        scan(indexed);
+        doReturn(2L).when(stringTemplate).execute(eq(RedisRocketRepository.REMOVE_EXPIRED_SCRIPT), anyList(),
+                any(Object[].class));
+
+        assertThat(repository.removeExpired()).isEqualTo(4);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        verify(stringTemplate, times(2)).execute(eq(RedisRocketRepository.REMOVE_EXPIRED_SCRIPT), keys.capture(),
+                any(Object[].class));
+        assertThat(keys.getAllValues()).extracting(List::size).containsExactly(502, 202);
+        assertThat(keys.getAllValues().get(1)).startsWith("rockets:channels", "rockets:version", "rocket:channel-500");
+        verify(statuses, never()).multiGet(any());
+        assertThat(repository.isFleetVersionShared()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should back off longer after every lost round and give up with a conflict after max-apply-attempts")
+    void shouldBackOffBetweenAttempts() {
+        doReturn(null).when(redisTemplate).execute(any(SessionCallback.class));
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> repository.apply("channel-1", tracker -> { }))
+                .isInstanceOf(ConcurrentUpdateException.class);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        //at least half of 20 + 40 + 80 ms, no wait after the last attempt
+        assertThat(elapsedMs).isGreaterThanOrEqualTo(70);
+        verify(redisTemplate, times(4)).execute(any(SessionCallback.class));
+        assertThat(registry.get("rockets.redis.apply.retries").counter().count()).isEqualTo(3);
+        assertThat(registry.get("rockets.redis.apply.conflicts").counter().count()).isEqualTo(1);
+    }
+
+    private void scan(List<String> indexed) {
+        Iterator<String> iterator = indexed.iterator();
+        Cursor<String> cursor = mock(Cursor.class);
+        when(cursor.hasNext()).thenAnswer(invocation -> iterator.hasNext());
+        when(cursor.next()).thenAnswer(invocation -> iterator.next());
+        when(channels.scan(eq("rockets:channels"), any(ScanOptions.class))).thenReturn(cursor);
+    }
+
+    private static List<RocketSnapshotDTO> found(Collection<String> keys, Set<String> expired) {
+        List<RocketSnapshotDTO> values = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            values.add(expired.contains(key) ? null : RocketSnapshotDTO.builder()
+                    .channel(key.substring("rocket:".length()))
+                    .type("Falcon-9")
+                    .mission("ARTEMIS")
+                    .speed(500)
+                    .lastMessageTime(TIME)
+                    .lastApplied(1)
+                    .build());
+        }
+        return values;
+    }
+}
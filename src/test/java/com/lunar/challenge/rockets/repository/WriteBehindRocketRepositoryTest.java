@@ -0,0 +1,203 @@
+package com.lunar.challenge.rockets.repository;
+
+import com.lunar.challenge.rockets.domain.HistoryRetention;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.dto.RocketHistoryItem;
+import com.lunar.challenge.rockets.dto.RocketPendingItem;
+import com.lunar.challenge.rockets.dto.RocketSnapshotDTO;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.ListOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.data.redis.core.ZSetOperations.TypedTuple;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@SuppressWarnings("unchecked")
+class WriteBehindRocketRepositoryTest {
+    private static final OffsetDateTime TIME = OffsetDateTime.parse("2025-09-19T15:40:00.123+02:00");
+
+    private final RedisTemplate<String, RocketSnapshotDTO> redisTemplate = mock(RedisTemplate.class);
+    private final RedisTemplate<String, RocketHistoryItem> historyTemplate = mock(RedisTemplate.class);
+    private final RedisTemplate<String, RocketPendingItem> pendingTemplate = mock(RedisTemplate.class);
+    private final StringRedisTemplate stringTemplate = mock(StringRedisTemplate.class);
+    private final ValueOperations<String, RocketSnapshotDTO> statuses = mock(ValueOperations.class);
+    private final ListOperations<String, RocketHistoryItem> history = mock(ListOperations.class);
+    private final ZSetOperations<String, RocketPendingItem> pending = mock(ZSetOperations.class);
+    private final SetOperations<String, String> channels = mock(SetOperations.class);
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(statuses);
+        when(historyTemplate.opsForList()).thenReturn(history);
+        when(pendingTemplate.opsForZSet()).thenReturn(pending);
+        when(stringTemplate.opsForSet()).thenReturn(channels);
+        doAnswer(invocation -> runPipeline(invocation.getArgument(0)))
+                .when(redisTemplate).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @DisplayName("Should write a channel changed by several messages once per flush")
+    void shouldCoalesceUpdates() {
+        WriteBehindRocketRepository repository = repository(1000);
+
+        launch(repository, "channel-1");
+        increase(repository, "channel-1", 2);
+        increase(repository, "channel-1", 3);
+        launch(repository, "channel-2");
+        verify(statuses, never()).set(anyString(), any(), any(Duration.class));
+
+        repository.flush();
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+        ArgumentCaptor<RocketSnapshotDTO> status = ArgumentCaptor.forClass(RocketSnapshotDTO.class);
+        verify(statuses).set(eq("rocket:channel-1"), status.capture(), eq(RedisRocketRepository.TTL));
+        assertThat(status.getValue().getLastApplied()).isEqualTo(3);
+        assertThat(status.getValue().getSpeed()).isEqualTo(700);
+        verify(statuses).set(eq("rocket:channel-2"), any(), eq(RedisRocketRepository.TTL));
+        assertThat(pushedHistory("channel-1")).extracting(RocketHistoryItem::getSpeedAfter).containsExactly(500, 600, 700);
+
+        repository.flush();
+
+        verify(redisTemplate, times(1)).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    @DisplayName("Should flush early once max-dirty channels wait, scheduling one flush at a time")
+    void shouldFlushAtMaxDirty() throws InterruptedException {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return runPipeline(invocation.getArgument(0));
+        }).when(redisTemplate).executePipelined(any(SessionCallback.class));
+        WriteBehindRocketRepository repository = repository(2);
+
+        launch(repository, "channel-1");
+        verify(redisTemplate, after(100).never()).executePipelined(any(SessionCallback.class));
+        launch(repository, "channel-2");
+        assertThat(flushing.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //every message above the threshold while the first flush runs
+        for (int i = 3; i <= 100; i++) {
+            launch(repository, "channel-" + i);
+        }
+        release.countDown();
+
+        verify(redisTemplate, timeout(5000).times(2)).executePipelined(any(SessionCallback.class));
+        verify(redisTemplate, after(300).times(2)).executePipelined(any(SessionCallback.class));
+        verify(statuses, times(100)).set(anyString(), any(), eq(RedisRocketRepository.TTL));
+    }
+
+    @Test
+    @DisplayName("Should write dirty channels on shutdown")
+    void shouldFlushOnShutdown() throws InterruptedException {
+        WriteBehindRocketRepository repository = repository(1000);
+        repository.start();
+        launch(repository, "channel-1");
+
+        repository.stop();
+
+        verify(statuses).set(eq("rocket:channel-1"), any(), eq(RedisRocketRepository.TTL));
+        assertThat(pushedHistory("channel-1")).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Should keep history and buffered messages of a failed flush and write them with the next one")
+    void shouldRetryFailedFlush() {
+        doThrow(new RedisConnectionFailureException("Redis is down"))
+                .doAnswer(invocation -> runPipeline(invocation.getArgument(0)))
+                .when(redisTemplate).executePipelined(any(SessionCallback.class));
+        WriteBehindRocketRepository repository = repository(1000);
+
+        launch(repository, "channel-1");
+        increase(repository, "channel-1", 2);
+        increase(repository, "channel-1", 5);
+        repository.flush();
+        verify(statuses, never()).set(anyString(), any(), any(Duration.class));
+
+        increase(repository, "channel-1", 3);
+        repository.flush();
+
+        ArgumentCaptor<RocketSnapshotDTO> status = ArgumentCaptor.forClass(RocketSnapshotDTO.class);
+        verify(statuses).set(eq("rocket:channel-1"), status.capture(), eq(RedisRocketRepository.TTL));
+        assertThat(status.getValue().getLastApplied()).isEqualTo(3);
+        assertThat(status.getValue().getPendingCount()).isEqualTo(1);
+        assertThat(pushedHistory("channel-1")).extracting(RocketHistoryItem::getSpeedAfter).containsExactly(500, 600, 700);
+        ArgumentCaptor<Set<TypedTuple<RocketPendingItem>>> buffered = ArgumentCaptor.forClass(Set.class);
+        verify(pending).add(eq("rocket-pending:channel-1"), buffered.capture());
+        assertThat(buffered.getValue()).extracting(tuple -> tuple.getValue().getMessageNumber()).containsExactly(5);
+    }
+
+    @Test
+    @DisplayName("Should evict clean rockets not written for the Redis TTL and keep dirty ones")
+    void shouldEvictExpiredRockets() {
+        WriteBehindRocketRepository repository = repository(1000);
+        launch(repository, "channel-1");
+        launch(repository, "channel-2");
+        repository.flush();
+        increase(repository, "channel-2", 2);
+        long version = repository.fleetVersion();
+
+        repository.evictExpired(System.nanoTime() + RedisRocketRepository.TTL.toNanos() + 1);
+
+        assertThat(repository.fleetVersion()).isGreaterThan(version);
+        assertThat(repository.findByChannel("channel-2")).map(tracker -> tracker.snapshot().lastApplied()).hasValue(2);
+        //read again from Redis, where it expired as well; both were first looked up by their launch
+        assertThat(repository.findByChannel("channel-1")).isEmpty();
+        verify(statuses, times(2)).get("rocket:channel-1");
+        verify(statuses, times(1)).get("rocket:channel-2");
+    }
+
+    private WriteBehindRocketRepository repository(int maxDirty) {
+        RocketTrackerFactory factory = new RocketTrackerFactory(HistoryRetention.DEFAULT);
+        return new WriteBehindRocketRepository(redisTemplate, historyTemplate, pendingTemplate, stringTemplate,
+                factory, new SimpleMeterRegistry(), Duration.ofHours(1), maxDirty, 500);
+    }
+
+    private List<Object> runPipeline(SessionCallback<?> callback) {
+        callback.execute(redisTemplate);
+        return List.of();
+    }
+
+    private List<RocketHistoryItem> pushedHistory(String channel) {
+        ArgumentCaptor<Collection<RocketHistoryItem>> items = ArgumentCaptor.forClass(Collection.class);
+        verify(history).rightPushAll(eq("rocket-history:" + channel), items.capture());
+        return List.copyOf(items.getValue());
+    }
+
+    private static void launch(WriteBehindRocketRepository repository, String channel) {
+        repository.apply(channel, tracker -> tracker.stageAndApply(1, TIME, MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "ARTEMIS", 500)));
+    }
+
+    private static void increase(WriteBehindRocketRepository repository, String channel, int number) {
+        repository.apply(channel, tracker -> tracker.stageAndApply(number, TIME.plusSeconds(number),
+                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(100)));
+    }
+}
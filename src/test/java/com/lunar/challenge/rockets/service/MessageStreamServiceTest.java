@@ -0,0 +1,90 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.exception.ConcurrentUpdateException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MessageStreamServiceTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, RocketTracker> trackers = new ConcurrentHashMap<>();
+    private MessageStreamService service;
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void shouldAcknowledgeOnTimerWhileClientWaits() throws Exception {
+        service = new MessageStreamService(this::apply, MAPPER, 1000, Duration.ofMillis(50));
+        PipedOutputStream client = new PipedOutputStream();
+        PipedInputStream in = new PipedInputStream(client);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Thread reader = Thread.ofVirtual().start(() -> {
+            try {
+                service.ingest(in, out);
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        client.write(message(1).getBytes(StandardCharsets.UTF_8));
+        client.flush();
+
+        //no further message arrives, the ack comes from the timer
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!out.toString(StandardCharsets.UTF_8).contains("\"channel-1\":1") && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .startsWith("{\"acks\":{\"channel-1\":1},\"received\":1,\"invalid\":0,\"failed\":0}\n");
+
+        client.close();
+        reader.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(reader.isAlive()).isFalse();
+    }
+
+    @Test
+    void shouldReportFailedMessageAndGoOn() throws IOException {
+        service = new MessageStreamService(message -> message.messageNumber() == 2
+                ? CompletableFuture.failedFuture(new ConcurrentUpdateException(message.channel(), 16))
+                : apply(message), MAPPER, 1000, Duration.ofHours(1));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.ingest(new ByteArrayInputStream((message(1) + message(2) + message(3))
+                .getBytes(StandardCharsets.UTF_8)), out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"acks\":{\"channel-1\":1},\"received\":3,\"invalid\":0,\"failed\":1}\n");
+    }
+
+    private CompletableFuture<RocketTracker> apply(DecodedMessage message) {
+        RocketTracker tracker = trackers.computeIfAbsent(message.channel(), RocketTracker::new);
+        tracker.stageAndApply(message.messageNumber(), message.messageTime(), message.messageType(), message.event());
+        return CompletableFuture.completedFuture(tracker);
+    }
+
+    private static String message(int number) {
+        String type = number == 1 ? "RocketLaunched" : "RocketSpeedIncreased";
+        return """
+                {"metadata":{"channel":"channel-1","messageNumber":%d,"messageTime":"2022-02-02T19:39:05Z","messageType":"%s"},"message":{"type":"Falcon-9","mission":"ARTEMIS","launchSpeed":500,"by":10}}
+                """.formatted(number, type);
+    }
+}
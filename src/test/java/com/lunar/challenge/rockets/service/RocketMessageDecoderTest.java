@@ -0,0 +1,142 @@
+package com.lunar.challenge.rockets.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketMissionChanged;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.exception.InvalidMessageException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RocketMessageDecoderTest {
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final RocketMessageDecoder decoder = new RocketMessageDecoder();
+
+    @Test
+    @DisplayName("Should decode a message whose metadata comes after the payload")
+    void shouldDecodeAnyFieldOrder() throws IOException {
+        DecodedMessage message = decode("""
+                {"message":{"launchSpeed":500,"mission":"ARTEMIS","type":"Falcon-9"},
+                 "metadata":{"messageType":"RocketLaunched","messageNumber":1,"messageTime":"2022-02-02T19:39:05.86337Z","channel":"channel-1"}}
+                """);
+
+        assertThat(message.channel()).isEqualTo("channel-1");
+        assertThat(message.messageNumber()).isEqualTo(1);
+        assertThat(message.messageType()).isEqualTo(MessageType.RocketLaunched);
+        assertThat(message.messageTime()).isEqualTo(OffsetDateTime.of(2022, 2, 2, 19, 39, 5, 863_370_000, ZoneOffset.UTC));
+        assertThat(message.event()).isEqualTo(new RocketLaunched("Falcon-9", "ARTEMIS", 500));
+    }
+
+    @Test
+    @DisplayName("Should default missing payload fields and time like the JsonNode path")
+    void shouldApplyDefaults() throws IOException {
+        DecodedMessage launched = decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageType":"RocketLaunched"},"message":{"launchSpeed":"fast"}}
+                """);
+        DecodedMessage changed = decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":2,"messageType":"RocketMissionChanged"},"message":{"newMission":null}}
+                """);
+        DecodedMessage increased = decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":3,"messageType":"RocketSpeedIncreased"},"extra":[1,{"a":2}]}
+                """);
+
+        assertThat(launched.messageTime()).isNull();
+        assertThat(launched.event()).isEqualTo(new RocketLaunched("Unknown", "Unknown", 0));
+        assertThat(changed.event()).isEqualTo(new RocketMissionChanged("Unknown"));
+        assertThat(increased.event()).isEqualTo(new RocketSpeedIncreased(0));
+    }
+
+    @Test
+    @DisplayName("Should adjust messageTime to UTC and accept epoch seconds, as Jackson binds Metadata")
+    void shouldReadTimeLikeJackson() throws IOException {
+        DecodedMessage withOffset = decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":"2022-02-02T21:39:05.5+02:00","messageType":"RocketExploded"}}
+                """);
+        DecodedMessage epochSeconds = decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":1643830745.5,"messageType":"RocketExploded"}}
+                """);
+
+        OffsetDateTime expected = OffsetDateTime.of(2022, 2, 2, 19, 39, 5, 500_000_000, ZoneOffset.UTC);
+        assertThat(withOffset.messageTime()).isEqualTo(expected);
+        assertThat(epochSeconds.messageTime()).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("Should coerce messageNumber from a numeric string or a float")
+    void shouldCoerceMessageNumber() throws IOException {
+        assertThat(decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":"42","messageType":"RocketExploded"}}
+                """).messageNumber()).isEqualTo(42);
+        assertThat(decode("""
+                {"metadata":{"channel":"channel-1","messageNumber":7.9,"messageType":"RocketExploded"}}
+                """).messageNumber()).isEqualTo(7);
+    }
+
+    @Test
+    @DisplayName("Should reject an unknown type and go on with the next message of the stream")
+    void shouldRejectUnknownType() throws IOException {
+        JsonParser parser = JSON.createParser("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageType":"RocketLanded"},"message":{"by":1}}
+                {"metadata":{"channel":"channel-1","messageNumber":2,"messageType":"RocketSpeedIncreased"},"message":{"by":1}}
+                """);
+
+        assertThatThrownBy(() -> decoder.next(parser))
+                .isInstanceOf(InvalidMessageException.class)
+                .hasMessageContaining("RocketLanded");
+        assertThat(decoder.next(parser).messageNumber()).isEqualTo(2);
+        assertThat(decoder.next(parser)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject an invalid messageTime or messageNumber after reading the whole message")
+    void shouldRejectInvalidMetadata() throws IOException {
+        JsonParser parser = JSON.createParser("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":"yesterday","messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":"one","messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":{"value":1},"messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":3000000000,"messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":0,"messageType":"RocketExploded"}}
+                {"metadata":{"messageNumber":1,"messageType":"RocketExploded"}}
+                """);
+
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("messageTime");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("not an int: one");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("not an int");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("not an int: 3000000000");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("greater than 0");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("channel is required");
+        assertThat(decoder.next(parser)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should reject a messageTime that epoch nanos can't hold")
+    void shouldRejectTimeOutOfRange() throws IOException {
+        JsonParser parser = JSON.createParser("""
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":"1500-01-01T00:00:00Z","messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":1e11,"messageType":"RocketExploded"}}
+                {"metadata":{"channel":"channel-1","messageNumber":1,"messageTime":"2262-04-11T23:47:16Z","messageType":"RocketExploded"}}
+                """);
+
+        assertThatThrownBy(() -> decoder.next(parser))
+                .isInstanceOf(InvalidMessageException.class)
+                .hasMessageContaining("must be between");
+        assertThatThrownBy(() -> decoder.next(parser)).hasMessageContaining("must be between");
+        assertThat(decoder.next(parser).messageTime()).isEqualTo("2262-04-11T23:47:16Z");
+    }
+
+    private DecodedMessage decode(String json) throws IOException {
+        try (JsonParser parser = JSON.createParser(json)) {
+            return decoder.next(parser);
+        }
+    }
+}
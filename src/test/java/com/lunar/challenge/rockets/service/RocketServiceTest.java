@@ -2,16 +2,33 @@ package com.lunar.challenge.rockets.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.lunar.challenge.rockets.domain.HistoryRetention;
 import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.ReorderPolicy;
 import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.RocketTrackerFactory;
+import com.lunar.challenge.rockets.domain.TrackerMetrics;
+import com.lunar.challenge.rockets.domain.event.RocketLaunched;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.dto.MessageOutcome;
 import com.lunar.challenge.rockets.dto.Metadata;
+import com.lunar.challenge.rockets.dto.RocketMessage;
+import com.lunar.challenge.rockets.dto.RocketPage;
+import com.lunar.challenge.rockets.dto.RocketQuery;
 import com.lunar.challenge.rockets.dto.RocketStatusView;
+import com.lunar.challenge.rockets.dto.RocketUpdate;
+import com.lunar.challenge.rockets.exception.InvalidQueryException;
 import com.lunar.challenge.rockets.exception.RocketNotFoundException;
+import com.lunar.challenge.rockets.journal.MessageJournal;
+import com.lunar.challenge.rockets.repository.InMemoryRocketRepository;
 import com.lunar.challenge.rockets.repository.RocketRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -21,13 +38,17 @@ import static org.mockito.Mockito.*;
 class RocketServiceTest {
 
     private RocketRepository repository;
+    private RocketUpdatePublisher updates;
     private RocketService service;
+    private MessageIngest ingest;
     private ObjectMapper mapper;
 
     @BeforeEach
     void setUp() {
-        repository = mock(RocketRepository.class);
-        service = new RocketService(repository);
+        repository = mock(RocketRepository.class, CALLS_REAL_METHODS);
+        updates = mock(RocketUpdatePublisher.class);
+        service = new RocketService(repository, updates, new SimpleMeterRegistry(), MessageJournal.NONE);
+        ingest = new DirectIngest(service);
         mapper = new ObjectMapper();
     }
 
@@ -81,4 +102,225 @@ class RocketServiceTest {
         assertThat(view.getSpeed()).isEqualTo(1000);
         assertThat(view.isExploded()).isFalse();
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldTagRocketLaunchedAgainDifferently() {
+        OffsetDateTime launchTime = OffsetDateTime.parse("2025-01-01T10:00:00Z");
+        RocketTracker first = new RocketTracker("channel-1");
+        first.stageAndApply(1, launchTime, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "STARLINK", 1000));
+        RocketTracker again = new RocketTracker("channel-1");
+        again.stageAndApply(1, launchTime.plusMinutes(10), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "STARLINK", 1000));
+        RocketTracker same = new RocketTracker("channel-1");
+        same.stageAndApply(1, launchTime, MessageType.RocketLaunched, new RocketLaunched("Falcon-9", "STARLINK", 1000));
+
+        when(repository.findByChannel("channel-1")).thenReturn(Optional.of(first), Optional.of(again),
+                Optional.of(same));
+
+        String tag = service.getVersionedRocket("channel-1").etag();
+        assertThat(tag).startsWith("1-");
+        assertThat(service.getVersionedRocket("channel-1").etag()).isNotEqualTo(tag);
+        assertThat(service.getVersionedRocket("channel-1").etag()).isEqualTo(tag);
+    }
+
+    @Test
+    void shouldReturnOutcomePerMessageOfBatch() {
+        when(repository.findByChannel("channel-3")).thenReturn(Optional.empty());
+
+        List<MessageOutcome> outcomes = service.handleBatch(List.of(
+                message("channel-3", 3, MessageType.RocketSpeedIncreased.name()),
+                message("channel-3", 2, MessageType.RocketSpeedIncreased.name()),
+                message("channel-3", 1, MessageType.RocketLaunched.name()),
+                message("channel-3", 1, MessageType.RocketLaunched.name()),
+                message("channel-3", 5, "RocketLanded")
+        ), ingest);
+
+        assertThat(outcomes).extracting(MessageOutcome::getStatus).containsExactly(
+                MessageOutcome.Status.APPLIED,
+                MessageOutcome.Status.APPLIED,
+                MessageOutcome.Status.APPLIED,
+                MessageOutcome.Status.DUPLICATE,
+                MessageOutcome.Status.INVALID);
+        verify(repository, times(1)).save(any(RocketTracker.class));
+    }
+
+    @Test
+    void shouldRejectMessageTimeOutOfRange() {
+        RocketMessage message = message("channel-5", 1, MessageType.RocketLaunched.name());
+        message.getMetadata().setMessageTime(OffsetDateTime.parse("3000-01-01T00:00:00Z"));
+
+        List<MessageOutcome> outcomes = service.handleBatch(List.of(message), ingest);
+
+        assertThat(outcomes).extracting(MessageOutcome::getStatus).containsExactly(MessageOutcome.Status.INVALID);
+        assertThat(outcomes.get(0).getError()).contains("metadata.messageTime must be between");
+        verify(repository, never()).save(any(RocketTracker.class));
+    }
+
+    @Test
+    void shouldPublishUpdateOnlyWhenMessageIsApplied() {
+        RocketTracker tracker = new RocketTracker("channel-4");
+        when(repository.findByChannel("channel-4")).thenReturn(Optional.of(tracker));
+        when(updates.hasSubscribers()).thenReturn(true);
+
+        service.handleBatch(List.of(message("channel-4", 2, MessageType.RocketSpeedIncreased.name())), ingest);
+        verify(updates, never()).publish(any());
+
+        service.handleBatch(List.of(message("channel-4", 1, MessageType.RocketLaunched.name())), ingest);
+        verify(updates).publish(argThat((RocketUpdate update) ->
+                update.getChannel().equals("channel-4") && update.getLastApplied() == 2));
+    }
+
+    @Test
+    void shouldWalkFleetPagesBySpeed() {
+        List<RocketTracker> fleet = List.of(
+                launched("a", "ARTEMIS", 300),
+                launched("b", "STARLINK", 100),
+                launched("c", "ARTEMIS", 200),
+                launched("d", "ARTEMIS", 200),
+                launched("e", "ARTEMIS", 500));
+        when(repository.findAll()).thenReturn(fleet);
+
+        RocketQuery.RocketQueryBuilder query = RocketQuery.builder()
+                .limit(2)
+                .sort("speed")
+                .order("desc")
+                .mission("ARTEMIS");
+        RocketPage first = service.getRocketPage(query.build());
+        RocketPage second = service.getRocketPage(query.cursor(first.getNextCursor()).build());
+
+        assertThat(first.getItems()).extracting(RocketStatusView::getChannel).containsExactly("e", "a");
+        assertThat(second.getItems()).extracting(RocketStatusView::getChannel).containsExactly("d", "c");
+        assertThat(second.getNextCursor()).isNull();
+        assertThat(second.getItems()).allSatisfy(view -> assertThat(view.getHistory()).isNull());
+    }
+
+    @Test
+    void shouldWalkSpeedIndexWithoutListingFleet() {
+        InMemoryRocketRepository inMemory = spy(new InMemoryRocketRepository(
+                new RocketTrackerFactory(HistoryRetention.DEFAULT), new SimpleMeterRegistry()));
+        service = new RocketService(inMemory, updates, new SimpleMeterRegistry(), MessageJournal.NONE);
+        launch(inMemory, "a", "ARTEMIS", 300);
+        launch(inMemory, "b", "STARLINK", 100);
+        launch(inMemory, "c", "ARTEMIS", 200);
+        launch(inMemory, "d", "ARTEMIS", 200);
+        launch(inMemory, "e", "ARTEMIS", 500);
+
+        RocketQuery.RocketQueryBuilder query = RocketQuery.builder()
+                .limit(2)
+                .sort("speed")
+                .order("desc")
+                .mission("ARTEMIS");
+        RocketPage first = service.getRocketPage(query.build());
+        RocketPage second = service.getRocketPage(query.cursor(first.getNextCursor()).build());
+
+        assertThat(first.getItems()).extracting(RocketStatusView::getChannel).containsExactly("e", "a");
+        assertThat(second.getItems()).extracting(RocketStatusView::getChannel).containsExactly("d", "c");
+        assertThat(second.getNextCursor()).isNull();
+        verify(inMemory, never()).findAll();
+    }
+
+    @Test
+    void shouldPageByChannelWithLatestHistory() {
+        when(repository.findAll()).thenReturn(List.of(
+                launched("b", "ARTEMIS", 100),
+                launched("a", "ARTEMIS", 100),
+                launched("c", "ARTEMIS", 100)));
+
+        RocketPage page = service.getRocketPage(RocketQuery.builder()
+                .limit(2)
+                .history("1")
+                .build());
+        RocketPage last = service.getRocketPage(RocketQuery.builder()
+                .limit(2)
+                .cursor(page.getNextCursor())
+                .build());
+
+        assertThat(page.getItems()).extracting(RocketStatusView::getChannel).containsExactly("a", "b");
+        assertThat(page.getItems().get(0).getHistory()).hasSize(1);
+        assertThat(last.getItems()).extracting(RocketStatusView::getChannel).containsExactly("c");
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void shouldRejectCursorOfAnotherSort() {
+        when(repository.findAll()).thenReturn(List.of(
+                launched("a", "ARTEMIS", 100),
+                launched("b", "ARTEMIS", 100)));
+        RocketPage page = service.getRocketPage(RocketQuery.builder().limit(1).build());
+
+        assertThatThrownBy(() -> service.getRocketPage(RocketQuery.builder()
+                .limit(1)
+                .sort("speed")
+                .cursor(page.getNextCursor())
+                .build()))
+                .isInstanceOf(InvalidQueryException.class);
+    }
+
+    @Test
+    void shouldReleaseSilentRocketAfterGapTimeout() throws InterruptedException {
+        RocketTracker silent = new RocketTracker("channel-5", HistoryRetention.DEFAULT,
+                new ReorderPolicy(16, Duration.ofMillis(100), ReorderPolicy.Overflow.SKIP_GAP), null, TrackerMetrics.NOOP);
+        silent.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "ARTEMIS", 100));
+        silent.stageAndApply(3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(10));
+        when(repository.findAll()).thenReturn(List.of(silent, launched("channel-6", "ARTEMIS", 100)));
+        when(repository.findByChannel("channel-5")).thenReturn(Optional.of(silent));
+        when(updates.hasSubscribers()).thenReturn(true);
+
+        assertThat(service.releaseExpiredGaps(ingest)).isZero();
+        Thread.sleep(150);
+        assertThat(service.releaseExpiredGaps(ingest)).isEqualTo(1);
+
+        assertThat(silent.getLastApplied()).isEqualTo(3);
+        assertThat(silent.snapshot().speed()).isEqualTo(110);
+        verify(repository, times(1)).save(silent);
+        verify(repository, never()).findByChannel("channel-6");
+        verify(updates).publish(argThat((RocketUpdate update) ->
+                update.getChannel().equals("channel-5") && update.getLastApplied() == 3));
+    }
+
+    @Test
+    void shouldSweepOnlyRocketsLeftWaitingForGap() throws InterruptedException {
+        RocketTracker waiting = new RocketTracker("channel-7", HistoryRetention.DEFAULT,
+                new ReorderPolicy(16, Duration.ofMillis(100), ReorderPolicy.Overflow.SKIP_GAP), null, TrackerMetrics.NOOP);
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.findByChannel("channel-7")).thenReturn(Optional.of(waiting));
+
+        assertThat(service.releaseExpiredGaps(ingest)).isZero();
+        service.handle(new DecodedMessage("channel-7", 1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", "ARTEMIS", 100)));
+        service.handle(new DecodedMessage("channel-7", 3, OffsetDateTime.now(), MessageType.RocketSpeedIncreased,
+                new RocketSpeedIncreased(10)));
+        Thread.sleep(150);
+
+        assertThat(service.releaseExpiredGaps(ingest)).isEqualTo(1);
+        assertThat(waiting.getLastApplied()).isEqualTo(3);
+        //nothing is left waiting, the next sweep has no rocket to visit
+        clearInvocations(repository);
+        assertThat(service.releaseExpiredGaps(ingest)).isZero();
+        verify(repository, never()).findAll();
+        verify(repository, never()).findByChannel(any());
+    }
+
+    private RocketTracker launched(String channel, String mission, int speed) {
+        RocketTracker tracker = new RocketTracker(channel);
+        tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", mission, speed));
+        return tracker;
+    }
+
+    private static void launch(RocketRepository repository, String channel, String mission, int speed) {
+        repository.apply(channel, tracker -> tracker.stageAndApply(1, OffsetDateTime.now(), MessageType.RocketLaunched,
+                new RocketLaunched("Falcon-9", mission, speed)));
+    }
+
+    private RocketMessage message(String channel, int messageNumber, String messageType) {
+        Metadata metadata = Metadata.builder()
+                .channel(channel)
+                .messageNumber(messageNumber)
+                .messageTime(OffsetDateTime.now())
+                .messageType(messageType)
+                .build();
+        return new RocketMessage(metadata, mapper.createObjectNode().put("by", 10));
+    }
+}
@@ -0,0 +1,173 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.dto.RocketUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RocketUpdatePublisherTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private RocketUpdatePublisher publisher;
+
+    @AfterEach
+    void tearDown() {
+        publisher.stop();
+    }
+
+    @Test
+    void shouldSendOnlyLatestStateOfRocketsWaitingForSlowSubscriber() throws InterruptedException {
+        publisher = new RocketUpdatePublisher(registry, Duration.ofMinutes(1), 100);
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(1));
+        publisher.subscribe(null, null, emitter);
+
+        publisher.publish(update("channel-1", 1));
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        //the sender is stuck on the first update, the next ones wait
+        publisher.publish(update("channel-1", 2));
+        publisher.publish(update("channel-2", 1));
+        publisher.publish(update("channel-1", 3));
+        emitter.release.countDown();
+
+        awaitSent(emitter, sent -> sent.size() >= 3);
+        assertThat(emitter.sent)
+                .extracting(update -> update.getChannel() + ":" + update.getLastApplied())
+                .containsExactly("channel-1:1", "channel-1:3", "channel-2:1");
+    }
+
+    @Test
+    void shouldSendOnlyFollowedRocket() throws InterruptedException {
+        publisher = new RocketUpdatePublisher(registry, Duration.ofMinutes(1), 100);
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe("channel-2", update("channel-2", 1), emitter);
+
+        publisher.publish(update("channel-1", 1));
+        publisher.publish(update("channel-2", 2));
+
+        awaitSent(emitter, sent -> sent.size() >= 2);
+        assertThat(emitter.sent)
+                .extracting(update -> update.getChannel() + ":" + update.getLastApplied())
+                .containsExactly("channel-2:1", "channel-2:2");
+    }
+
+    @Test
+    void shouldDisconnectSubscriberWithTooManyRocketsWaiting() throws InterruptedException {
+        publisher = new RocketUpdatePublisher(registry, Duration.ofMinutes(1), 2);
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(1));
+        publisher.subscribe(null, null, emitter);
+
+        publisher.publish(update("channel-1", 1));
+        assertThat(emitter.sending.await(5, TimeUnit.SECONDS)).isTrue();
+        publisher.publish(update("channel-2", 1));
+        publisher.publish(update("channel-3", 1));
+        //a newer state of a waiting rocket takes no room
+        publisher.publish(update("channel-2", 2));
+        assertThat(emitter.completed).isFalse();
+        assertThat(publisher.hasSubscribers()).isTrue();
+
+        publisher.publish(update("channel-4", 1));
+
+        assertThat(emitter.completed).isTrue();
+        assertThat(publisher.hasSubscribers()).isFalse();
+        assertThat(registry.counter("rockets.updates.dropped").count()).isEqualTo(1);
+        emitter.release.countDown();
+        publisher.publish(update("channel-5", 1));
+        awaitSent(emitter, sent -> !sent.isEmpty());
+        assertThat(emitter.sent).extracting(RocketUpdate::getChannel).containsExactly("channel-1");
+    }
+
+    @Test
+    void shouldDeliverUpdateOfferedWhileSenderFinishes() throws InterruptedException {
+        publisher = new RocketUpdatePublisher(registry, Duration.ofMinutes(1), 100);
+        RecordingEmitter emitter = new RecordingEmitter(new CountDownLatch(0));
+        publisher.subscribe(null, null, emitter);
+
+        //publishers race the sender going idle, a lost handoff leaves the last updates unsent
+        int publishers = 4;
+        int updates = 2_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < publishers; p++) {
+            String channel = "channel-" + p;
+            threads.add(Thread.ofVirtual().start(() -> {
+                for (int i = 1; i <= updates; i++) {
+                    publisher.publish(update(channel, i));
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        for (int p = 0; p < publishers; p++) {
+            String channel = "channel-" + p;
+            awaitSent(emitter, sent -> sent.stream()
+                    .anyMatch(update -> update.getChannel().equals(channel) && update.getLastApplied() == updates));
+        }
+    }
+
+    private static void awaitSent(RecordingEmitter emitter, Predicate<List<RocketUpdate>> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test(emitter.sent) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.test(emitter.sent)).as("sent %s", emitter.sent).isTrue();
+    }
+
+    private static RocketUpdate update(String channel, int lastApplied) {
+        return RocketUpdate.builder()
+                .channel(channel)
+                .type("Falcon-9")
+                .mission("ARTEMIS")
+                .speed(lastApplied * 100)
+                .lastApplied(lastApplied)
+                .build();
+    }
+
+    /**
+     * Records sent updates; every send waits for release, like a client that stopped reading
+     */
+    private static class RecordingEmitter extends SseEmitter {
+        private final List<RocketUpdate> sent = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending = new CountDownLatch(1);
+        private final CountDownLatch release;
+        private volatile boolean completed;
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) {
+            sending.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+            for (ResponseBodyEmitter.DataWithMediaType data : builder.build()) {
+                if (data.getData() instanceof RocketUpdate update) {
+                    sent.add(update);
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            completed = true;
+            super.complete();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.lunar.challenge.rockets.service;
+
+import com.lunar.challenge.rockets.domain.MessageType;
+import com.lunar.challenge.rockets.domain.RocketTracker;
+import com.lunar.challenge.rockets.domain.event.RocketSpeedIncreased;
+import com.lunar.challenge.rockets.exception.IngestOverloadedException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ShardedIngestTest {
+
+    private final RocketService rocketService = mock(RocketService.class);
+    private ShardedIngest ingest;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        ingest.shutdown();
+    }
+
+    @Test
+    void shouldApplyMessagesOfChannelInOrderOnOneThread() {
+        List<Integer> applied = new CopyOnWriteArrayList<>();
+        List<String> threads = new CopyOnWriteArrayList<>();
+        RocketTracker tracker = new RocketTracker("channel-1");
+        when(rocketService.handleAsync(any())).thenAnswer(invocation -> {
+            DecodedMessage message = invocation.getArgument(0);
+            applied.add(message.messageNumber());
+            threads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(tracker);
+        });
+        ingest = new ShardedIngest(rocketService, new SimpleMeterRegistry(), 4, 100);
+
+        List<CompletableFuture<RocketTracker>> results = new ArrayList<>();
+        for (int number = 1; number <= 50; number++) {
+            results.add(ingest.submit(message("channel-1", number)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).join();
+
+        assertThat(applied).isSorted().hasSize(50);
+        assertThat(threads).containsOnly(threads.get(0));
+        assertThat(threads.get(0)).startsWith("rockets-ingest-");
+    }
+
+    @Test
+    void shouldRunChannelWorkOnShardOfItsMessages() {
+        List<String> threads = new CopyOnWriteArrayList<>();
+        when(rocketService.handleAsync(any())).thenAnswer(invocation -> {
+            threads.add(Thread.currentThread().getName());
+            return CompletableFuture.completedFuture(new RocketTracker("channel-1"));
+        });
+        ingest = new ShardedIngest(rocketService, new SimpleMeterRegistry(), 4, 100);
+
+        ingest.apply(message("channel-1", 1));
+        String batchThread = ingest.execute("channel-1", () -> Thread.currentThread().getName()).join();
+
+        assertThat(batchThread).isEqualTo(threads.get(0));
+    }
+
+    @Test
+    void shouldRejectMessageWhenShardIsFull() throws InterruptedException {
+        CountDownLatch applying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(rocketService.handleAsync(any())).thenAnswer(invocation -> {
+            applying.countDown();
+            release.await();
+            return CompletableFuture.completedFuture(new RocketTracker("channel-1"));
+        });
+        ingest = new ShardedIngest(rocketService, new SimpleMeterRegistry(), 1, 1);
+
+        CompletableFuture<RocketTracker> first = ingest.submit(message("channel-1", 1));
+        assertThat(applying.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<RocketTracker> queued = ingest.submit(message("channel-2", 1));
+
+        assertThatThrownBy(() -> ingest.submit(message("channel-3", 1)))
+                .isInstanceOf(IngestOverloadedException.class);
+
+        release.countDown();
+        assertThat(first.join()).isNotNull();
+        assertThat(queued.join()).isNotNull();
+    }
+
+    @Test
+    void shouldRethrowFailureOfApply() {
+        when(rocketService.handleAsync(any())).thenThrow(new IllegalStateException("boom"));
+        ingest = new ShardedIngest(rocketService, new SimpleMeterRegistry(), 2, 10);
+
+        assertThatThrownBy(() -> ingest.apply(message("channel-1", 1)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("boom");
+    }
+
+    @Test
+    void shouldApplyNextMessageWhileEarlierOneWaitsForJournal() {
+        CompletableFuture<RocketTracker> syncing = new CompletableFuture<>();
+        RocketTracker tracker = new RocketTracker("channel-1");
+        when(rocketService.handleAsync(any())).thenAnswer(invocation -> {
+            DecodedMessage message = invocation.getArgument(0);
+            return message.messageNumber() == 1 ? syncing : CompletableFuture.completedFuture(tracker);
+        });
+        ingest = new ShardedIngest(rocketService, new SimpleMeterRegistry(), 1, 10);
+
+        CompletableFuture<RocketTracker> first = ingest.submit(message("channel-1", 1));
+        CompletableFuture<RocketTracker> second = ingest.submit(message("channel-1", 2));
+
+        assertThat(second.join()).isSameAs(tracker);
+        assertThat(first).isNotDone();
+        //completed by the journal sync thread, not by the shard
+        syncing.complete(tracker);
+        assertThat(first.join()).isSameAs(tracker);
+    }
+
+    private DecodedMessage message(String channel, int number) {
+        return new DecodedMessage(channel, number, OffsetDateTime.now(),
+                MessageType.RocketSpeedIncreased, new RocketSpeedIncreased(10));
+    }
+}